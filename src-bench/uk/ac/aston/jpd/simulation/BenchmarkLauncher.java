@@ -0,0 +1,34 @@
+package uk.ac.aston.jpd.simulation;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The {@code BenchmarkLauncher} is a non-interactive, headless launcher that
+ * runs the JMH benchmarks of the simulation hot paths, along with the GC
+ * profiler so that allocation rates are reported next to the throughput.
+ * 
+ * @author Parminder
+ */
+public class BenchmarkLauncher {
+
+	private static final String DEFAULT_BENCHMARKS = "uk.ac.aston.jpd.simulation";
+
+	/**
+	 * Entry point for the benchmark launcher.
+	 * 
+	 * @param args optionally, a regular expression selecting the benchmarks to
+	 *             run. All benchmarks are run otherwise.
+	 */
+	public static void main(String[] args) throws RunnerException {
+		String include = (args.length > 0) ? args[0] : DEFAULT_BENCHMARKS;
+		Options options = new OptionsBuilder()
+				.include(include)
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+}
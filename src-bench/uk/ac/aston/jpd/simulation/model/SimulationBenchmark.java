@@ -0,0 +1,67 @@
+package uk.ac.aston.jpd.simulation.model;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how many ticks per second {@link Simulation#tick()} can run, for a
+ * small, the default and a large building, and for a tall building with a bank
+ * of elevators.
+ * 
+ * @author Parminder
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimulationBenchmark {
+
+	/**
+	 * ticks simulated before measuring, so that the building is populated
+	 */
+	private static final int WARM_UP_TICKS = 1000;
+
+	@Param({ "SMALL", "DEFAULT", "LARGE", "BANK" })
+	private String configuration;
+
+	private Simulation simulation;
+
+	@Setup(Level.Iteration)
+	public void setUp() {
+		Simulation.Builder builder = new Simulation.Builder();
+		if (configuration.equals("SMALL")) {
+			builder.numFloors(4).elevatorCapacity(2)
+					.nonDevelopers(4).goggles(2).mugtomes(2);
+		} else if (configuration.equals("LARGE")) {
+			builder.numFloors(40).elevatorCapacity(20)
+					.nonDevelopers(400).goggles(150).mugtomes(150)
+					.probabilityP(0.01).probabilityQ(0.05);
+		} else if (configuration.equals("BANK")) {
+			builder.numFloors(100).elevators(16).elevatorCapacity(20)
+					.nonDevelopers(2000).goggles(750).mugtomes(750)
+					.probabilityP(0.05).probabilityQ(0.05);
+		}
+		simulation = builder.build();
+		simulation.runUntil(WARM_UP_TICKS);
+	}
+
+	@Benchmark
+	public int tick() {
+		simulation.tick();
+		return simulation.getTick();
+	}
+}
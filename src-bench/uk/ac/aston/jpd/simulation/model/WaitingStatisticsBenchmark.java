@@ -0,0 +1,70 @@
+package uk.ac.aston.jpd.simulation.model;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.ac.aston.jpd.simulation.model.entities.Building;
+import uk.ac.aston.jpd.simulation.model.entities.users.Client;
+import uk.ac.aston.jpd.simulation.model.entities.users.User;
+
+/**
+ * Measures {@link WaitingStatistics#getAverageWaitingTime()} and
+ * {@link WaitingStatistics#getWaitingTimePercentile(double)} after a given
+ * number of waits has been recorded.
+ * 
+ * @author Parminder
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WaitingStatisticsBenchmark {
+
+	@Param({ "1000", "100000" })
+	private int waits;
+
+	private WaitingStatistics statistics;
+
+	@Setup
+	public void setUp() {
+		Simulation sim = new Simulation.Builder()
+				.probabilityP(0).probabilityQ(0).probabilityMaintenance(0)
+				.goggles(0).mugtomes(0).nonDevelopers(0)
+				.build();
+		Building building = sim.getBuilding();
+		statistics = sim.getWaitingStatistics();
+
+		User[] users = new User[waits];
+		for (int i = 0; i < waits; i++) {
+			users[i] = new Client(building);
+			statistics.queueJoined(users[i]);
+		}
+		sim.tick();
+		for (User u : users) {
+			statistics.servingStarted(u);
+		}
+	}
+
+	@Benchmark
+	public double getAverageWaitingTime() {
+		return statistics.getAverageWaitingTime();
+	}
+
+	@Benchmark
+	public int getWaitingTimePercentile() {
+		return statistics.getWaitingTimePercentile(95);
+	}
+}
@@ -0,0 +1,64 @@
+package uk.ac.aston.jpd.simulation.model.entities;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.ac.aston.jpd.simulation.model.Simulation;
+import uk.ac.aston.jpd.simulation.model.entities.users.MaintenanceCrew;
+import uk.ac.aston.jpd.simulation.model.entities.users.User;
+
+/**
+ * Measures {@link Elevator#hasRequests(Floor)} on a floor whose queue only
+ * contains users that do not fit in the elevator, which used to be its worst
+ * case as the whole queue had to be checked.
+ * 
+ * @author Parminder
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ElevatorBenchmark {
+
+	@Param({ "10", "100", "1000" })
+	private int queueLength;
+
+	private Elevator elevator;
+	private Floor groundFloor;
+
+	@Setup
+	public void setUp() {
+		Simulation sim = new Simulation.Builder()
+				.elevatorCapacity(1)
+				.probabilityP(0).probabilityQ(0).probabilityMaintenance(0)
+				.goggles(0).mugtomes(0).nonDevelopers(0)
+				.build();
+		Building building = sim.getBuilding();
+		elevator = building.getElevator();
+		groundFloor = building.getFloors()[0];
+
+		for (int i = 0; i < queueLength; i++) {
+			User crew = new MaintenanceCrew(building);
+			groundFloor.land(crew);
+			groundFloor.joinQueue(crew);
+		}
+	}
+
+	@Benchmark
+	public boolean hasRequests() {
+		return elevator.hasRequests(groundFloor);
+	}
+}
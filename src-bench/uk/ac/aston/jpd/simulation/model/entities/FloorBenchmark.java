@@ -0,0 +1,64 @@
+package uk.ac.aston.jpd.simulation.model.entities;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.ac.aston.jpd.simulation.model.Simulation;
+import uk.ac.aston.jpd.simulation.model.entities.users.Client;
+import uk.ac.aston.jpd.simulation.model.entities.users.NonDeveloper;
+import uk.ac.aston.jpd.simulation.model.entities.users.User;
+
+/**
+ * Measures {@link Floor#joinQueue(User)} on a queue of a given length, made of
+ * one client every four users. At each invocation, the first user in the queue
+ * joins it again.
+ * 
+ * @author Parminder
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FloorBenchmark {
+
+	@Param({ "10", "100", "1000" })
+	private int queueLength;
+
+	private Floor groundFloor;
+
+	@Setup(Level.Iteration)
+	public void setUp() {
+		Simulation sim = new Simulation.Builder()
+				.probabilityP(0).probabilityQ(0).probabilityMaintenance(0)
+				.goggles(0).mugtomes(0).nonDevelopers(0)
+				.build();
+		Building building = sim.getBuilding();
+		groundFloor = building.getFloors()[0];
+
+		for (int i = 0; i < queueLength; i++) {
+			User u = (i % 4 == 0) ? new Client(building) : new NonDeveloper(building);
+			groundFloor.land(u);
+			groundFloor.joinQueue(u);
+		}
+	}
+
+	@Benchmark
+	public boolean joinQueue() {
+		User first = groundFloor.getInQueue().get(0);
+		return groundFloor.joinQueue(first);
+	}
+}
@@ -0,0 +1,54 @@
+package uk.ac.aston.jpd.simulation.visuals;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a full {@link CaseStudy} run, with the given number of simulations
+ * run at the same time. The output of the case study is discarded.
+ * 
+ * @author Parminder
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CaseStudyBenchmark {
+
+	@Param({ "1", "4" })
+	private int parallelism;
+
+	private PrintStream console;
+
+	@Setup
+	public void setUp() {
+		console = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+	}
+
+	@TearDown
+	public void tearDown() {
+		System.setOut(console);
+	}
+
+	@Benchmark
+	public void visualize() {
+		new CaseStudy(parallelism).visualize();
+	}
+}
@@ -0,0 +1,101 @@
+package uk.ac.aston.jpd.simulation.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import org.junit.Test;
+
+public class AdaptiveReplicationTest {
+
+	private List<IntFunction<Simulation.Builder>> combinations(double... probsQ) {
+		List<IntFunction<Simulation.Builder>> combinations = new ArrayList<>();
+		for (double q : probsQ) {
+			combinations.add(seed -> new Simulation.Builder().seed(seed).probabilityP(0.02).probabilityQ(q));
+		}
+		return combinations;
+	}
+
+	@Test
+	public void stopsEachCombinationWhenNarrowEnough() {
+		AdaptiveReplication replication = new AdaptiveReplication(new ParameterSweep(4), SweepResult::getAverageWaitingTime, 6, 5, 40);
+		List<ReplicatedResult> results = replication.run(combinations(0.01, 0.05, 0.1), 2880);
+
+		assertEquals(3, results.size());
+		for (int i = 0; i < results.size(); i++) {
+			ReplicatedResult result = results.get(i);
+			assertEquals(new double[] { 0.01, 0.05, 0.1 }[i], result.getProbabilityQ(), 0);
+			assertTrue(result.getReplications() >= 5 && result.getReplications() <= 40);
+			if (result.isConverged()) {
+				assertTrue(2 * result.getSummary().getHalfWidth() <= 6);
+				assertTrue(result.getReplications() == 5 || result.getReplications() == 40
+						|| 2 * withoutLast(replication, i, result.getReplications()).getHalfWidth() > 6);
+			} else {
+				assertEquals(40, result.getReplications());
+			}
+		}
+	}
+
+	/**
+	 * @return the summary of a combination without its last replication
+	 */
+	private ReplicationSummary withoutLast(AdaptiveReplication replication, int combination, int replications) {
+		ReplicationSummary summary = new ReplicationSummary();
+		List<Simulation.Builder> seeds = new ArrayList<>();
+		for (int seed = 0; seed < replications - 1; seed++) {
+			seeds.add(combinations(0.01, 0.05, 0.1).get(combination).apply(seed));
+		}
+		for (SweepResult result : new ParameterSweep(4).run(seeds, 2880)) {
+			summary.add(result.getAverageWaitingTime());
+		}
+		return summary;
+	}
+
+	@Test
+	public void quietCombinationNeedsMinimum() {
+		AdaptiveReplication replication = new AdaptiveReplication(new ParameterSweep(2), SweepResult::getComplaints, 0.5, 5, 20);
+		ReplicatedResult result = replication.run(combinations(0), 2880).get(0);
+		assertEquals(5, result.getReplications());
+		assertTrue(result.isConverged());
+		assertEquals(0, result.getSummary().getMean(), 0);
+	}
+
+	@Test
+	public void budgetRunsOut() {
+		AdaptiveReplication replication = new AdaptiveReplication(new ParameterSweep(2), SweepResult::getClients, 0.01, 5, 8);
+		ReplicatedResult result = replication.run(combinations(0.1), 1000).get(0);
+		assertEquals(8, result.getReplications());
+		assertFalse(result.isConverged());
+	}
+
+	@Test
+	public void parallelMatchesSequential() {
+		List<ReplicatedResult> sequential = new AdaptiveReplication(new ParameterSweep(1), SweepResult::getComplaints, 2, 5, 15)
+				.run(combinations(0.04, 0.08), 2880);
+		List<ReplicatedResult> parallel = new AdaptiveReplication(new ParameterSweep(8), SweepResult::getComplaints, 2, 5, 15)
+				.run(combinations(0.04, 0.08), 2880);
+		for (int i = 0; i < sequential.size(); i++) {
+			assertEquals(sequential.get(i).getReplications(), parallel.get(i).getReplications());
+			assertEquals(sequential.get(i).getSummary().getMean(), parallel.get(i).getSummary().getMean(), 0);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void badWidth() {
+		new AdaptiveReplication(new ParameterSweep(1), SweepResult::getComplaints, 0, 5, 10);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void tooFewReplications() {
+		new AdaptiveReplication(new ParameterSweep(1), SweepResult::getComplaints, 1, 2, 10);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void badBudget() {
+		new AdaptiveReplication(new ParameterSweep(1), SweepResult::getComplaints, 1, 5, 4);
+	}
+}
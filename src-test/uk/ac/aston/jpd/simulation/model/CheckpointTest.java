@@ -0,0 +1,71 @@
+package uk.ac.aston.jpd.simulation.model;
+
+import static org.junit.Assert.assertEquals;
+import static uk.ac.aston.jpd.simulation.model.SimulationFixtures.assertRunIdentically;
+import static uk.ac.aston.jpd.simulation.model.SimulationFixtures.busyBuilding;
+import static uk.ac.aston.jpd.simulation.model.SimulationFixtures.state;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CheckpointTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void resumesIdentically() throws IOException {
+		for (Simulation.Sampling sampling : Simulation.Sampling.values()) {
+			for (Simulation.RandomStreams streams : Simulation.RandomStreams.values()) {
+				for (int seed = 0; seed < 3; seed++) {
+					Simulation original = busyBuilding(seed).sampling(sampling).randomStreams(streams).build();
+					original.run(500 + 300 * seed);
+					Path file = folder.newFile().toPath();
+					original.checkpoint(file);
+					Simulation restored = Simulation.restore(file);
+
+					assertEquals(state(original), state(restored));
+					assertRunIdentically(original, restored);
+					assertEquals(original.getRandom().nextLong(), restored.getRandom().nextLong());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void severalElevators() throws IOException {
+		for (Simulation.Sampling sampling : Simulation.Sampling.values()) {
+			Simulation original = busyBuilding(3).numFloors(12).elevators(3).sampling(sampling).build();
+			original.run(1000);
+			Path file = folder.newFile().toPath();
+			original.checkpoint(file);
+			Simulation restored = Simulation.restore(file);
+
+			assertEquals(3, restored.getTotalElevators());
+			assertRunIdentically(original, restored);
+		}
+	}
+
+	@Test
+	public void restoresNewSimulation() throws IOException {
+		Simulation original = busyBuilding(1).build();
+		Path file = folder.newFile().toPath();
+		original.checkpoint(file);
+		Simulation restored = Simulation.restore(file);
+		original.run(1000);
+		restored.run(1000);
+		assertEquals(state(original), state(restored));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void notACheckpoint() throws IOException {
+		Path file = folder.newFile().toPath();
+		Files.write(file, new byte[64]);
+		Simulation.restore(file);
+	}
+}
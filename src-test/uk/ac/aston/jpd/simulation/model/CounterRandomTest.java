@@ -0,0 +1,76 @@
+package uk.ac.aston.jpd.simulation.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.junit.Test;
+import uk.ac.aston.jpd.simulation.model.CounterRandom.Purpose;
+
+public class CounterRandomTest {
+
+	private Simulation quietSimulation(int seed) {
+		return new Simulation.Builder()
+				.seed(seed).probabilityP(0).probabilityQ(0).probabilityMaintenance(0)
+				.nonDevelopers(0).goggles(0).mugtomes(0)
+				.randomStreams(Simulation.RandomStreams.COUNTER)
+				.build();
+	}
+
+	@Test
+	public void drawsIndependentOfOrder() {
+		Simulation sim = quietSimulation(7);
+		CounterRandom first = new CounterRandom(sim, Purpose.FLOOR_CHANGE, 1);
+		CounterRandom second = new CounterRandom(sim, Purpose.FLOOR_CHANGE, 2);
+		double[] forward = { first.nextDouble(), first.nextDouble(), second.nextDouble() };
+
+		Simulation again = quietSimulation(7);
+		CounterRandom secondAgain = new CounterRandom(again, Purpose.FLOOR_CHANGE, 2);
+		CounterRandom firstAgain = new CounterRandom(again, Purpose.FLOOR_CHANGE, 1);
+		assertEquals(forward[2], secondAgain.nextDouble(), 0);
+		assertEquals(forward[0], firstAgain.nextDouble(), 0);
+		assertEquals(forward[1], firstAgain.nextDouble(), 0);
+	}
+
+	@Test
+	public void drawsRestartEachTick() {
+		Simulation sim = quietSimulation(3);
+		CounterRandom stream = new CounterRandom(sim, Purpose.ARRIVAL, 0);
+		sim.run(10);
+		assertEquals(stream.peekDouble(10), stream.nextDouble(), 0);
+		double second = stream.nextDouble();
+		assertNotEquals(stream.peekDouble(10), second, 0);
+		sim.tick();
+		assertEquals(stream.peekDouble(11), stream.nextDouble(), 0);
+		assertNotEquals(stream.peekDouble(10), stream.peekDouble(11), 0);
+	}
+
+	@Test
+	public void keysGiveDifferentStreams() {
+		Simulation sim = quietSimulation(0);
+		double arrival = new CounterRandom(sim, Purpose.ARRIVAL, 1).peekDouble(0);
+		assertNotEquals(arrival, new CounterRandom(sim, Purpose.STAY, 1).peekDouble(0), 0);
+		assertNotEquals(arrival, new CounterRandom(sim, Purpose.ARRIVAL, 2).peekDouble(0), 0);
+		assertNotEquals(arrival, new CounterRandom(quietSimulation(1), Purpose.ARRIVAL, 1).peekDouble(0), 0);
+	}
+
+	@Test
+	public void uniformValues() {
+		Simulation sim = quietSimulation(5);
+		int buckets = 10, draws = 100000;
+		int[] counts = new int[buckets];
+		for (int entity = 0; entity < draws; entity++) {
+			counts[(int) (new CounterRandom(sim, Purpose.FLOOR_CHOICE, entity).nextDouble() * buckets)]++;
+		}
+		for (int count : counts) {
+			assertEquals(draws / buckets, count, draws / buckets * 0.05);
+		}
+		CounterRandom stream = new CounterRandom(sim, Purpose.FLOOR_CHOICE, 0);
+		int[] indices = new int[7];
+		for (int i = 0; i < 70000; i++) {
+			indices[stream.nextInt(7)]++;
+		}
+		for (int count : indices) {
+			assertEquals(10000, count, 500);
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package uk.ac.aston.jpd.simulation.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static uk.ac.aston.jpd.simulation.model.SimulationFixtures.assertRunIdentically;
+import static uk.ac.aston.jpd.simulation.model.SimulationFixtures.busyBuilding;
+import static uk.ac.aston.jpd.simulation.model.SimulationFixtures.state;
+
+import org.junit.Test;
+
+public class ForkTest {
+
+	@Test
+	public void branchesRunIdentically() {
+		for (Simulation.Sampling sampling : Simulation.Sampling.values()) {
+			for (Simulation.RandomStreams streams : Simulation.RandomStreams.values()) {
+				for (int seed = 0; seed < 3; seed++) {
+					Simulation trunk = busyBuilding(seed).sampling(sampling).randomStreams(streams).build();
+					trunk.run(500 + 300 * seed);
+					Simulation branch = trunk.fork();
+					Simulation twig = branch.fork();
+					assertRunIdentically(trunk, branch, twig);
+					assertEquals(trunk.getRandom().nextLong(), branch.getRandom().nextLong());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void branchIsIndependent() {
+		Simulation trunk = busyBuilding(2).build();
+		trunk.run(1000);
+		String before = state(trunk);
+		Simulation branch = trunk.fork();
+		branch.run(1000);
+		assertEquals(before, state(trunk));
+		assertNotEquals(state(trunk), state(branch));
+	}
+
+	@Test
+	public void whatIfCapacity() {
+		Simulation trunk = busyBuilding(4).probabilityQ(0.05).build();
+		trunk.run(1000);
+		Simulation bigger = trunk.fork(busyBuilding(4).probabilityQ(0.05).elevatorCapacity(6));
+		assertEquals(6, bigger.getElevatorCapacity());
+		assertEquals(trunk.getBuilding().getElevator().getAvailableSpace() + 3,
+				bigger.getBuilding().getElevator().getAvailableSpace());
+		trunk.run(1880);
+		bigger.run(1880);
+		assertTrue(bigger.getWaitingStatistics().getAverageWaitingTime() < trunk.getWaitingStatistics().getAverageWaitingTime());
+	}
+
+	@Test
+	public void severalElevators() {
+		for (Simulation.Sampling sampling : Simulation.Sampling.values()) {
+			Simulation trunk = busyBuilding(3).numFloors(12).elevators(3).sampling(sampling).build();
+			trunk.run(1000);
+			assertRunIdentically(trunk, trunk.fork());
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void differentFloors() {
+		busyBuilding(0).build().fork(busyBuilding(0).numFloors(9));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void differentElevators() {
+		busyBuilding(0).build().fork(busyBuilding(0).elevators(2));
+	}
+}
@@ -0,0 +1,84 @@
+package uk.ac.aston.jpd.simulation.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ParameterSweepTest {
+	
+	private List<Simulation.Builder> combinations() {
+		List<Simulation.Builder> combinations = new ArrayList<>();
+		for (int seed = 0; seed < 4; seed++) {
+			for (double q : new double[] {0.02, 0.1}) {
+				combinations.add(new Simulation.Builder().seed(seed).probabilityP(0.01).probabilityQ(q));
+			}
+		}
+		return combinations;
+	}
+	
+	@Test
+	public void resultsInOrder() {
+		List<SweepResult> results = new ParameterSweep(4).run(combinations(), 500);
+		assertEquals(8, results.size());
+		for (int i = 0; i < results.size(); i++) {
+			assertEquals(i / 2, results.get(i).getSeed());
+			assertEquals(i % 2 == 0 ? 0.02 : 0.1, results.get(i).getProbabilityQ(), 0);
+			assertEquals(500, results.get(i).getTicks());
+		}
+	}
+	
+	@Test
+	public void parallelMatchesSequential() {
+		List<SweepResult> sequential = new ParameterSweep(1).run(combinations(), 2880);
+		List<SweepResult> parallel = new ParameterSweep(8).run(combinations(), 2880);
+		for (int i = 0; i < sequential.size(); i++) {
+			assertEquals(sequential.get(i).getComplaints(), parallel.get(i).getComplaints());
+			assertEquals(sequential.get(i).getAverageWaitingTime(), parallel.get(i).getAverageWaitingTime(), 0);
+			assertEquals(sequential.get(i).getClients(), parallel.get(i).getClients());
+			assertEquals(sequential.get(i).getMaintenanceCrews(), parallel.get(i).getMaintenanceCrews());
+		}
+	}
+	
+	@Test
+	public void commonRandomNumbers() {
+		ParameterSweep sweep = new ParameterSweep(4);
+		ReplicationSummary[] differences = { new ReplicationSummary(), new ReplicationSummary() };
+		for (Simulation.RandomStreams streams : Simulation.RandomStreams.values()) {
+			List<Simulation.Builder> combinations = new ArrayList<>();
+			for (int seed = 0; seed < 40; seed++) {
+				for (double q : new double[] {0.04, 0.06}) {
+					combinations.add(new Simulation.Builder().seed(seed).probabilityP(0.01).probabilityQ(q)
+							.randomStreams(streams));
+				}
+			}
+			List<SweepResult> results = sweep.run(combinations, 2880);
+			for (int i = 0; i < results.size(); i += 2) {
+				SweepResult low = results.get(i), high = results.get(i + 1);
+				differences[streams.ordinal()].add(high.getAverageWaitingTime() - low.getAverageWaitingTime());
+				if (streams == Simulation.RandomStreams.COUNTER) {
+					assertEquals(low.getMaintenanceCrews(), high.getMaintenanceCrews());
+					assertTrue(low.getClients() <= high.getClients());
+				}
+			}
+		}
+		ReplicationSummary shared = differences[Simulation.RandomStreams.SHARED.ordinal()];
+		ReplicationSummary common = differences[Simulation.RandomStreams.COUNTER.ordinal()];
+		assertTrue(common.getVariance() < shared.getVariance() * 0.8);
+	}
+	
+	@Test(expected = InvalidArrivalsException.class)
+	public void failingSimulation() {
+		List<Simulation.Builder> combinations = combinations();
+		combinations.add(new Simulation.Builder().probabilityQ(-1));
+		new ParameterSweep(2).run(combinations, 100);
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void badParallelism() {
+		new ParameterSweep(0);
+	}
+}
@@ -0,0 +1,50 @@
+package uk.ac.aston.jpd.simulation.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ReplicationSummaryTest {
+
+	@Test
+	public void emptySummary() {
+		ReplicationSummary summary = new ReplicationSummary();
+		assertEquals(0, summary.getCount());
+		assertTrue(Double.isNaN(summary.getMean()));
+		assertTrue(Double.isNaN(summary.getVariance()));
+		summary.add(4);
+		assertEquals(4, summary.getMean(), 0);
+		assertTrue(Double.isNaN(summary.getHalfWidth()));
+	}
+
+	@Test
+	public void meanVarianceAndInterval() {
+		ReplicationSummary summary = new ReplicationSummary();
+		for (double value : new double[] { 2, 4, 4, 4, 5, 5, 7, 9 }) {
+			summary.add(value);
+		}
+		assertEquals(8, summary.getCount());
+		assertEquals(5, summary.getMean(), 1e-12);
+		assertEquals(32.0 / 7, summary.getVariance(), 1e-12);
+		assertEquals(2.365 * Math.sqrt(32.0 / 7 / 8), summary.getHalfWidth(), 1e-12);
+	}
+
+	@Test
+	public void intervalCoversMean() {
+		Random random = new Random(11);
+		int covered = 0, trials = 2000;
+		for (int trial = 0; trial < trials; trial++) {
+			ReplicationSummary summary = new ReplicationSummary();
+			for (int i = 0; i < 5 + trial % 50; i++) {
+				summary.add(10 + 3 * random.nextGaussian());
+			}
+			if (Math.abs(summary.getMean() - 10) <= summary.getHalfWidth()) {
+				covered++;
+			}
+		}
+		assertEquals(0.95, (double) covered / trials, 0.015);
+	}
+}
@@ -0,0 +1,66 @@
+package uk.ac.aston.jpd.simulation.model;
+
+import static org.junit.Assert.assertEquals;
+
+import uk.ac.aston.jpd.simulation.model.entities.Elevator;
+import uk.ac.aston.jpd.simulation.model.entities.Floor;
+
+/**
+ * Simulations and checks shared by the tests that copy a running simulation,
+ * through a checkpoint or a fork, and expect the copy to behave exactly like
+ * the original, and by the tests that record and replay its trace.
+ */
+public final class SimulationFixtures {
+
+	private SimulationFixtures() {
+	}
+
+	/**
+	 * @param seed the seed of the simulation
+	 * @return a builder of a small building with a busy elevator
+	 */
+	public static Simulation.Builder busyBuilding(int seed) {
+		return new Simulation.Builder()
+				.seed(seed).probabilityP(0.01).probabilityQ(0.02).probabilityMaintenance(0.005)
+				.elevatorCapacity(3).goggles(6).mugtomes(6);
+	}
+
+	/**
+	 * Runs the simulations side by side for 2000 ticks, and checks after every 100
+	 * ticks that the copies are in the same state as the original.
+	 *
+	 * @param original the simulation that has been copied
+	 * @param copies   its copies
+	 */
+	static void assertRunIdentically(Simulation original, Simulation... copies) {
+		for (int i = 0; i < 20; i++) {
+			original.run(100);
+			for (Simulation copy : copies) {
+				copy.run(100);
+			}
+			for (Simulation copy : copies) {
+				assertEquals(state(original), state(copy));
+			}
+		}
+	}
+
+	/**
+	 * @return a description of everything that can be observed in the simulation
+	 */
+	static String state(Simulation sim) {
+		StringBuilder state = new StringBuilder();
+		state.append(sim.getTick()).append(' ').append(sim.getCurrentUsers()).append(' ').append(sim.getComplaints()).append('\n');
+		for (Floor f : sim.getBuilding().getFloors()) {
+			state.append(f.getStatus()).append(f.getQueueCount()).append('\n');
+		}
+		for (Elevator e : sim.getBuilding().getElevators()) {
+			state.append(e.getStatus()).append(e.getTargetFloors()).append('\n');
+		}
+		WaitingStatistics stats = sim.getWaitingStatistics();
+		state.append(stats.getWaitCount()).append(' ').append(stats.getAverageWaitingTime()).append(' ')
+				.append(stats.getWaitingTimeVariance()).append(' ').append(stats.getWaitingTimePercentile(90)).append(' ')
+				.append(stats.getBreakdown().getByFloor().getTotal(sim.getTotalFloors() - 1)).append(' ')
+				.append(sim.getArrivalSimulator().getTotalClients()).append(' ').append(sim.getTimers().size());
+		return state.toString();
+	}
+}
@@ -1,8 +1,21 @@
 package uk.ac.aston.jpd.simulation.model;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.util.Scanner;
+
 import org.junit.Test;
+import com.sun.management.ThreadMXBean;
+import uk.ac.aston.jpd.simulation.model.entities.Floor;
 import uk.ac.aston.jpd.simulation.model.entities.InvalidBuildingException;
 import uk.ac.aston.jpd.simulation.model.entities.InvalidElevatorException;
+import uk.ac.aston.jpd.simulation.model.entities.users.Client;
+import uk.ac.aston.jpd.simulation.model.entities.users.User;
 
 public class SimulationTest {
 	
@@ -25,4 +38,263 @@ public class SimulationTest {
 	public void goodValues() throws Exception {
 		new Simulation.Builder().numFloors(4).elevatorCapacity(4).build();
 	}
+	
+	@Test
+	public void runUntilMatchesTicking() throws Exception {
+		for (int seed = 0; seed < 5; seed++) {
+			Simulation tickSim = new Simulation.Builder()
+					.seed(seed).probabilityP(0.001 * seed).probabilityQ(0.01)
+					.build();
+			Simulation runSim = new Simulation.Builder()
+					.seed(seed).probabilityP(0.001 * seed).probabilityQ(0.01)
+					.build();
+			
+			for (int i = 0; i < 2880; i++) {
+				tickSim.tick();
+			}
+			runSim.runUntil(1000);
+			runSim.runUntil(2880);
+			
+			assertEquals(2880, runSim.getTick());
+			assertEquals(tickSim.getComplaints(), runSim.getComplaints());
+			assertEquals(tickSim.getCurrentUsers(), runSim.getCurrentUsers());
+			assertEquals(tickSim.getArrivalSimulator().getTotalClients(), runSim.getArrivalSimulator().getTotalClients());
+			assertEquals(tickSim.getWaitingStatistics().getAverageWaitingTime(), runSim.getWaitingStatistics().getAverageWaitingTime(), 0);
+			assertEquals(tickSim.getRandom().nextInt(), runSim.getRandom().nextInt());
+		}
+	}
+	
+	@Test
+	public void busyRunUntilMatchesTicking() throws Exception {
+		for (Simulation.RandomStreams streams : Simulation.RandomStreams.values()) {
+			for (Simulation.Sampling sampling : Simulation.Sampling.values()) {
+				for (int elevators = 1; elevators <= 3; elevators++) {
+					Simulation tickSim = SimulationFixtures.busyBuilding(7).numFloors(12).elevators(elevators)
+							.sampling(sampling).randomStreams(streams).build();
+					Simulation runSim = SimulationFixtures.busyBuilding(7).numFloors(12).elevators(elevators)
+							.sampling(sampling).randomStreams(streams).build();
+					
+					for (int i = 0; i < 20; i++) {
+						for (int j = 0; j < 100; j++) {
+							tickSim.tick();
+						}
+						runSim.run(100);
+						assertEquals(SimulationFixtures.state(tickSim), SimulationFixtures.state(runSim));
+					}
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void geometricArrivalRate() throws Exception {
+		Simulation sim = new Simulation.Builder()
+				.probabilityQ(0.01).probabilityMaintenance(0.005)
+				.sampling(Simulation.Sampling.GEOMETRIC)
+				.build();
+		sim.run(100000);
+		
+		ArrivalSimulator arrivals = sim.getArrivalSimulator();
+		assertEquals(1000, arrivals.getTotalClients(), 150);
+		assertEquals(500, arrivals.getTotalMaintenanceCrews(), 100);
+	}
+	
+	@Test
+	public void geometricFloorChangeRate() throws Exception {
+		int perTickRequests = 0, geometricRequests = 0;
+		for (int seed = 0; seed < 20; seed++) {
+			for (Simulation.Sampling sampling : Simulation.Sampling.values()) {
+				Simulation sim = new Simulation.Builder()
+						.seed(seed).probabilityP(0.01).probabilityQ(0).probabilityMaintenance(0)
+						.sampling(sampling)
+						.build();
+				sim.run(2880);
+				int requests = 0;
+				for (Floor f : sim.getBuilding().getFloors()) {
+					requests += f.getQueueCount();
+				}
+				if (sampling == Simulation.Sampling.GEOMETRIC) {
+					geometricRequests += requests;
+				} else {
+					perTickRequests += requests;
+				}
+			}
+		}
+		assertEquals(perTickRequests, geometricRequests, perTickRequests * 0.05);
+	}
+	
+	@Test
+	public void geometricRunUntilMatchesTicking() throws Exception {
+		for (int seed = 0; seed < 5; seed++) {
+			Simulation tickSim = new Simulation.Builder()
+					.seed(seed).probabilityP(0.002).probabilityQ(0.01)
+					.sampling(Simulation.Sampling.GEOMETRIC)
+					.build();
+			Simulation runSim = new Simulation.Builder()
+					.seed(seed).probabilityP(0.002).probabilityQ(0.01)
+					.sampling(Simulation.Sampling.GEOMETRIC)
+					.build();
+			
+			for (int i = 0; i < 2880; i++) {
+				tickSim.tick();
+			}
+			runSim.run(2880);
+			
+			assertEquals(tickSim.getComplaints(), runSim.getComplaints());
+			assertEquals(tickSim.getCurrentUsers(), runSim.getCurrentUsers());
+			assertEquals(tickSim.getWaitingStatistics().getAverageWaitingTime(), runSim.getWaitingStatistics().getAverageWaitingTime(), 0);
+			assertEquals(tickSim.getRandom().nextInt(), runSim.getRandom().nextInt());
+		}
+	}
+
+	@Test
+	public void counterStreamRunUntilMatchesTicking() throws Exception {
+		for (Simulation.Sampling sampling : Simulation.Sampling.values()) {
+			for (int seed = 0; seed < 5; seed++) {
+				Simulation tickSim = new Simulation.Builder()
+						.seed(seed).probabilityP(0.002).probabilityQ(0.01)
+						.sampling(sampling).randomStreams(Simulation.RandomStreams.COUNTER)
+						.build();
+				Simulation runSim = new Simulation.Builder()
+						.seed(seed).probabilityP(0.002).probabilityQ(0.01)
+						.sampling(sampling).randomStreams(Simulation.RandomStreams.COUNTER)
+						.build();
+				
+				for (int i = 0; i < 2880; i++) {
+					tickSim.tick();
+				}
+				runSim.run(2880);
+				
+				assertEquals(tickSim.getComplaints(), runSim.getComplaints());
+				assertEquals(tickSim.getCurrentUsers(), runSim.getCurrentUsers());
+				assertEquals(tickSim.getArrivalSimulator().getTotalClients(), runSim.getArrivalSimulator().getTotalClients());
+				assertEquals(tickSim.getWaitingStatistics().getAverageWaitingTime(), runSim.getWaitingStatistics().getAverageWaitingTime(), 0);
+			}
+		}
+	}
+	
+	@Test
+	public void counterStreamArrivalsIndependentOfFloorChanges() throws Exception {
+		for (Simulation.Sampling sampling : Simulation.Sampling.values()) {
+			Simulation still = new Simulation.Builder()
+					.seed(4).probabilityP(0).probabilityQ(0.01)
+					.sampling(sampling).randomStreams(Simulation.RandomStreams.COUNTER)
+					.build();
+			Simulation busy = new Simulation.Builder()
+					.seed(4).probabilityP(0.02).probabilityQ(0.01)
+					.sampling(sampling).randomStreams(Simulation.RandomStreams.COUNTER)
+					.build();
+			still.run(5000);
+			busy.run(5000);
+			
+			ArrivalSimulator stillArrivals = still.getArrivalSimulator(), busyArrivals = busy.getArrivalSimulator();
+			assertTrue(stillArrivals.getTotalClients() > 0);
+			assertEquals(stillArrivals.getTotalClients(), busyArrivals.getTotalClients());
+			assertEquals(stillArrivals.getTotalMaintenanceCrews(), busyArrivals.getTotalMaintenanceCrews());
+		}
+	}
+
+	@Test
+	public void departedUsersReleased() throws Exception {
+		Simulation sim = new Simulation.Builder()
+				.probabilityP(0).probabilityQ(0).probabilityMaintenance(0)
+				.build();
+		sim.tick();
+		User client = new Client(sim.getBuilding());
+		sim.enter(client);
+		WeakReference<User> clientRef = new WeakReference<>(client);
+		sim.run(1000);
+		assertEquals(User.Location.LEFT, client.getLocation());
+		client = null;
+		
+		for (int i = 0; i < 10 && clientRef.get() != null; i++) {
+			System.gc();
+		}
+		assertNull(clientRef.get());
+	}
+	
+	@Test
+	public void longRunInSmallHeap() throws Exception {
+		String output = runJava("-Xmx16m", LongRun.class);
+		assertTrue(output, output.endsWith(String.valueOf(LongRun.TICKS)));
+	}
+	
+	@Test
+	public void steadyStateTickAllocatesNothing() throws Exception {
+		String output = runJava("-Xint", SteadyState.class);
+		assertEquals("0 0", output);
+	}
+	
+	/**
+	 * Runs the main method of the given class in another JVM.
+	 * 
+	 * @param option an option of the JVM
+	 * @param main   the class to run
+	 * @return what the class printed, once it has finished successfully
+	 */
+	private static String runJava(String option, Class<?> main) throws Exception {
+		String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+		Process process = new ProcessBuilder(java, option, "-cp", System.getProperty("java.class.path"), main.getName())
+				.redirectErrorStream(true).start();
+		String output;
+		try (Scanner scanner = new Scanner(process.getInputStream())) {
+			output = scanner.useDelimiter("\\A").hasNext() ? scanner.next().trim() : "";
+		}
+		assertEquals(output, 0, process.waitFor());
+		return output;
+	}
+	
+	/**
+	 * Runs a busy building for ten million ticks; started by
+	 * {@link SimulationTest#longRunInSmallHeap()} in a JVM with a small heap.
+	 */
+	public static class LongRun {
+		static final int TICKS = 10_000_000;
+		
+		public static void main(String[] args) {
+			Simulation sim = new Simulation.Builder()
+					.seed(1).probabilityP(0.002).probabilityQ(0.05).probabilityMaintenance(0.01)
+					.build();
+			sim.run(TICKS);
+			System.out.println(sim.getArrivalSimulator().getTotalClients() > 0 ? sim.getTick() : -1);
+		}
+	}
+	
+	/**
+	 * Prints the bytes allocated by the ticks of a busy building once every
+	 * employee has arrived, with each kind of random streams (or -1 if the
+	 * elevator has served too few users). Started by
+	 * {@link SimulationTest#steadyStateTickAllocatesNothing()} in a JVM without
+	 * compiler, so that no allocation is optimized away.
+	 */
+	public static class SteadyState {
+		
+		public static void main(String[] args) {
+			ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+			long thread = Thread.currentThread().getId();
+			StringBuilder output = new StringBuilder();
+			for (Simulation.RandomStreams streams : Simulation.RandomStreams.values()) {
+				Simulation sim = new Simulation.Builder()
+						.seed(3).probabilityP(0.01).probabilityQ(0).probabilityMaintenance(0)
+						.randomStreams(streams)
+						.build();
+				/*
+				 * the random streams of the users are created, every path is run once and the
+				 * lists of the floors grow to their size while warming up
+				 */
+				sim.run(100_000);
+				long waits = sim.getWaitingStatistics().getWaitCount();
+				
+				long start = threads.getThreadAllocatedBytes(thread);
+				long overhead = threads.getThreadAllocatedBytes(thread) - start;
+				start = threads.getThreadAllocatedBytes(thread);
+				sim.run(20_000);
+				long allocated = threads.getThreadAllocatedBytes(thread) - start - overhead;
+				
+				boolean busy = sim.getWaitingStatistics().getWaitCount() > waits + 1000;
+				output.append(output.length() > 0 ? " " : "").append(busy ? allocated : -1);
+			}
+			System.out.println(output);
+		}
+	}
 }
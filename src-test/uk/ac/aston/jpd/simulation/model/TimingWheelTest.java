@@ -0,0 +1,119 @@
+package uk.ac.aston.jpd.simulation.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import uk.ac.aston.jpd.simulation.model.TimingWheel.Timer;
+
+public class TimingWheelTest {
+
+	private TimingWheel wheel;
+	private List<Integer> fired;
+
+	@Before
+	public void setUp() {
+		wheel = new TimingWheel();
+		fired = new ArrayList<>();
+	}
+
+	private Timer record(int dueTick) {
+		return wheel.schedule(dueTick, () -> fired.add(dueTick));
+	}
+
+	@Test
+	public void firesOnlyDueTimers() {
+		record(5);
+		record(300);
+		record(70000);
+		assertEquals(5, wheel.nextDueTick());
+
+		wheel.fireUntil(4);
+		assertTrue(fired.isEmpty());
+		wheel.fireUntil(299);
+		assertEquals(List.of(5), fired);
+		assertEquals(300, wheel.nextDueTick());
+		wheel.fireUntil(100000);
+		assertEquals(List.of(5, 300, 70000), fired);
+		assertEquals(Integer.MAX_VALUE, wheel.nextDueTick());
+	}
+
+	@Test
+	public void sameTickInRegistrationOrder() {
+		List<String> order = new ArrayList<>();
+		wheel.schedule(600, () -> order.add("a"));
+		wheel.fireUntil(10);
+		wheel.schedule(600, () -> order.add("b"));
+		wheel.schedule(600, () -> order.add("c"));
+		wheel.fireUntil(600);
+		assertEquals(List.of("a", "b", "c"), order);
+	}
+
+	@Test
+	public void cancelledTimersNotFired() {
+		Timer early = record(10);
+		Timer late = record(1000);
+		assertTrue(wheel.cancel(late));
+		assertFalse(wheel.cancel(late));
+		assertEquals(1, wheel.size());
+
+		List<Timer> cancelledByTask = new ArrayList<>();
+		wheel.schedule(10, () -> wheel.cancel(cancelledByTask.get(0)));
+		cancelledByTask.add(record(10));
+		wheel.cancel(early);
+		record(10);
+
+		wheel.fireUntil(2000);
+		assertEquals(List.of(10), fired);
+		assertFalse(cancelledByTask.get(0).isPending());
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	public void matchesSortedOrder() {
+		Random random = new Random(3);
+		List<Integer> expected = new ArrayList<>();
+		int now = 0;
+		for (int round = 0; round < 50; round++) {
+			for (int i = 0; i < 20; i++) {
+				int due = now + random.nextInt(1 << (4 * (i % 5)));
+				expected.add(due);
+				record(due);
+			}
+			now += random.nextInt(5000);
+			wheel.fireUntil(now);
+		}
+		wheel.fireUntil(Integer.MAX_VALUE - 1);
+
+		expected.sort(null);
+		assertEquals(expected, fired);
+	}
+
+	@Test
+	public void doneTimersReleaseTasks() {
+		Object owner = new Object();
+		WeakReference<Object> ownerRef = new WeakReference<>(owner);
+		Timer fired = wheel.schedule(5, owner::hashCode);
+		Timer neighbour = wheel.schedule(5, owner::toString);
+		Timer cancelled = wheel.schedule(300, owner::notifyAll);
+		wheel.cancel(neighbour);
+		wheel.cancel(cancelled);
+		wheel.fireUntil(10);
+		owner = null;
+
+		for (int i = 0; i < 10 && ownerRef.get() != null; i++) {
+			System.gc();
+		}
+		assertNull(ownerRef.get());
+		assertFalse(fired.isPending());
+		assertFalse(cancelled.isPending());
+	}
+}
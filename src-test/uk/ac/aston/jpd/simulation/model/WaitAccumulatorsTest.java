@@ -0,0 +1,33 @@
+package uk.ac.aston.jpd.simulation.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class WaitAccumulatorsTest {
+
+	@Test
+	public void categoriesKeptApart() {
+		WaitAccumulators accumulators = new WaitAccumulators(3);
+		accumulators.record(0, 4);
+		accumulators.record(0, 8);
+		accumulators.record(2, 5);
+		accumulators.record(3, 100); // out of range
+		accumulators.record(1, -1);  // negative
+
+		assertEquals(2, accumulators.getCount(0));
+		assertEquals(6, accumulators.getMean(0), 0);
+		assertEquals(8, accumulators.getVariance(0), 1e-12);
+		assertEquals(8, accumulators.getMax(0));
+		assertEquals(0, accumulators.getCount(1));
+		assertTrue(Double.isNaN(accumulators.getMean(1)));
+		assertEquals(1, accumulators.getCount(2));
+		assertTrue(Double.isNaN(accumulators.getVariance(2)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void badSize() {
+		new WaitAccumulators(-1);
+	}
+}
@@ -0,0 +1,71 @@
+package uk.ac.aston.jpd.simulation.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class WaitHistogramTest {
+	
+	private WaitHistogram histogram;
+	
+	@Before
+	public void setUp() {
+		histogram = new WaitHistogram();
+	}
+	
+	@Test
+	public void empty() {
+		assertEquals(0, histogram.getCount());
+		assertTrue(Double.isNaN(histogram.getMean()));
+		assertEquals(-1, histogram.getPercentile(50));
+	}
+	
+	@Test
+	public void exactBelowSixtyFour() {
+		for (int wait = 1; wait <= 60; wait++) {
+			histogram.record(wait);
+		}
+		assertEquals(30.5, histogram.getMean(), 0);
+		assertEquals(30, histogram.getPercentile(50));
+		assertEquals(57, histogram.getPercentile(95));
+		assertEquals(60, histogram.getPercentile(100));
+		assertEquals(1, histogram.getPercentile(0));
+		assertEquals(60, histogram.getMax());
+	}
+	
+	@Test
+	public void boundedErrorAbove() {
+		Random random = new Random(1);
+		int[] waits = new int[10000];
+		for (int i = 0; i < waits.length; i++) {
+			waits[i] = random.nextInt(1 << 20);
+			histogram.record(waits[i]);
+		}
+		Arrays.sort(waits);
+		for (double percentile : new double[] {50, 95, 99}) {
+			int exact = waits[(int) Math.ceil(percentile / 100 * waits.length) - 1];
+			int approx = histogram.getPercentile(percentile);
+			assertTrue(approx >= exact);
+			assertTrue(approx <= exact * 1.04);
+		}
+		assertEquals(waits[waits.length - 1], histogram.getPercentile(100));
+	}
+	
+	@Test
+	public void negativeIgnored() {
+		histogram.record(-3);
+		histogram.record(Integer.MAX_VALUE);
+		assertEquals(1, histogram.getCount());
+		assertEquals(Integer.MAX_VALUE, histogram.getPercentile(50));
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void badPercentile() {
+		histogram.getPercentile(101);
+	}
+}
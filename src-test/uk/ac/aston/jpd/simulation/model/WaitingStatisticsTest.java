@@ -1,5 +1,6 @@
 package uk.ac.aston.jpd.simulation.model;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import org.junit.Before;
@@ -7,6 +8,7 @@ import org.junit.Test;
 import uk.ac.aston.jpd.simulation.model.entities.Building;
 import uk.ac.aston.jpd.simulation.model.entities.users.MaintenanceCrew;
 import uk.ac.aston.jpd.simulation.model.entities.users.User;
+import uk.ac.aston.jpd.simulation.model.entities.users.UserType;
 
 public class WaitingStatisticsTest {
 	
@@ -34,6 +36,84 @@ public class WaitingStatisticsTest {
 		assertTrue(waitStats.getAverageWaitingTime() == 1);
 	}
 	
+	@Test
+	public void onlyLastJoinCounts() {
+		User m = new MaintenanceCrew(building);
+		building.enter(m);
+		sim.tick();
+		sim.tick();
+		waitStats.queueJoined(m); // user joins again at tick 2
+		sim.tick();
+		waitStats.queueJoined(m); // and rejoins at tick 3
+		sim.tick();
+		waitStats.servingStarted(m); // served at tick 4
+		waitStats.servingStarted(m); // no longer waiting
+		assertEquals(2, waitStats.getWaitCount());
+		assertEquals(1, waitStats.getAverageWaitingTime(), 0);
+		assertEquals(1, waitStats.getWaitingTimePercentile(95));
+		assertEquals(1, waitStats.getMaxWaitingTime());
+	}
+	
+	@Test
+	public void runningVariance() {
+		int[] waits = {3, 7, 7, 19, 24, 2};
+		double mean = 0;
+		for (int w : waits) {
+			waitStats.recordWait(w);
+			mean += w / 6.0;
+		}
+		double squares = 0;
+		for (int w : waits) {
+			squares += (w - mean) * (w - mean);
+		}
+		assertEquals(mean, waitStats.getAverageWaitingTime(), 1e-12);
+		assertEquals(squares / 5, waitStats.getWaitingTimeVariance(), 1e-9);
+		
+		StatisticsSnapshot snapshot = waitStats.snapshot();
+		waitStats.recordWait(100);
+		assertEquals(6, snapshot.getWaits());
+		assertEquals(Math.sqrt(squares / 5), snapshot.getWaitingTimeStandardDeviation(), 1e-9);
+		assertEquals(24, snapshot.getMaxWaitingTime());
+		assertTrue(isNaN(snapshot.getComplaintRate()));
+	}
+	
+	@Test
+	public void userServedBrokenDown() {
+		User m = new MaintenanceCrew(building);
+		building.enter(m);
+		sim.tick();
+		sim.tick();
+		WaitBreakdown breakdown = waitStats.getBreakdown();
+		assertEquals(1, breakdown.getAverageWaitingTime(UserType.MAINTENANCE_CREW), 0);
+		assertTrue(isNaN(breakdown.getAverageWaitingTime(UserType.CLIENT)));
+		assertEquals(1, breakdown.getByFloor().getCount(0));
+		assertEquals(1, breakdown.getByDirection().getCount(WaitBreakdown.UP));
+		assertEquals(0, breakdown.getByDirection().getCount(WaitBreakdown.DOWN));
+	}
+	
+	@Test
+	public void breakdownAddsUp() {
+		Simulation busy = new Simulation.Builder().seed(1).probabilityP(0.005).probabilityQ(0.01).build();
+		busy.run(2880);
+		WaitingStatistics stats = busy.getWaitingStatistics();
+		WaitBreakdown breakdown = stats.getBreakdown();
+		assertTrue(stats.getWaitCount() > 0);
+		for (WaitAccumulators dimension : new WaitAccumulators[] {breakdown.getByType(), breakdown.getByFloor(), breakdown.getByDirection()}) {
+			long count = 0, total = 0;
+			int max = 0;
+			for (int i = 0; i < dimension.size(); i++) {
+				count += dimension.getCount(i);
+				total += dimension.getTotal(i);
+				max = Math.max(max, dimension.getMax(i));
+			}
+			assertEquals(stats.getWaitCount(), count);
+			assertEquals(stats.getAverageWaitingTime(), (double) total / count, 1e-9);
+			assertEquals(stats.getMaxWaitingTime(), max);
+		}
+		// nobody goes down from the ground floor
+		assertTrue(breakdown.getByFloor().getCount(0) <= breakdown.getByDirection().getCount(WaitBreakdown.UP));
+	}
+	
 	@Test
 	public void noUserServed() {
 		sim.tick(); // elevator opens its doors
@@ -0,0 +1,113 @@
+package uk.ac.aston.jpd.simulation.model.batch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import uk.ac.aston.jpd.simulation.model.Simulation;
+
+public class BatchConfigTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static Properties properties(String... entries) {
+		Properties properties = new Properties();
+		for (int i = 0; i < entries.length; i += 2) {
+			properties.setProperty(entries[i], entries[i + 1]);
+		}
+		return properties;
+	}
+
+	@Test
+	public void sweepsElevators() {
+		List<Simulation.Builder> combinations = new BatchConfig(properties("elevators", "1..3")).getCombinations();
+		assertEquals(3, combinations.size());
+		for (int i = 0; i < combinations.size(); i++) {
+			assertEquals(i + 1, combinations.get(i).build().getTotalElevators());
+		}
+	}
+
+	@Test
+	public void gridInParameterOrder() {
+		BatchConfig config = new BatchConfig(properties("probabilityQ", "0.02, 0.04, 0.06", "seed", "0..1",
+				"elevatorCapacity", "4, 8", "sampling", "geometric", "runTicks", "100"));
+		List<Simulation.Builder> combinations = config.getCombinations();
+		assertEquals(12, combinations.size());
+		Simulation first = combinations.get(0).build(), second = combinations.get(1).build();
+		Simulation last = combinations.get(11).build();
+		assertEquals(0, first.getSeed());
+		assertEquals(0.02, first.getProbabilityQ(), 0);
+		assertEquals(4, first.getElevatorCapacity());
+		assertEquals(8, second.getElevatorCapacity());
+		assertEquals(0.02, second.getProbabilityQ(), 0);
+		assertEquals(1, last.getSeed());
+		assertEquals(0.06, last.getProbabilityQ(), 0);
+		assertEquals(Simulation.Sampling.GEOMETRIC, last.getSampling());
+		assertEquals(7, last.getTotalFloors());
+		assertEquals(100, config.getRunTicks());
+	}
+
+	@Test
+	public void latinHypercubeCoversEveryStratum() {
+		BatchConfig config = new BatchConfig(properties("design", "latin_hypercube", "samples", "20",
+				"numFloors", "10..29", "probabilityP", "0..0.1", "designSeed", "3"));
+		Set<Integer> floors = new HashSet<>();
+		Set<Integer> strataP = new HashSet<>();
+		for (Simulation.Builder builder : config.getCombinations()) {
+			Simulation sim = builder.build();
+			floors.add(sim.getTotalFloors());
+			strataP.add((int) (sim.getProbabilityP() / 0.005));
+		}
+		assertEquals(20, floors.size());
+		assertEquals(20, strataP.size());
+	}
+
+	@Test
+	public void randomDesignReproducible() {
+		Properties properties = properties("design", "random", "samples", "5", "probabilityQ", "0.01..0.1", "designSeed", "9");
+		List<Simulation.Builder> first = new BatchConfig(properties).getCombinations();
+		List<Simulation.Builder> again = new BatchConfig(properties).getCombinations();
+		assertEquals(5, first.size());
+		for (int i = 0; i < first.size(); i++) {
+			double q = first.get(i).build().getProbabilityQ();
+			assertTrue(q >= 0.01 && q <= 0.1);
+			assertEquals(q, again.get(i).build().getProbabilityQ(), 0);
+		}
+	}
+
+	@Test
+	public void loadsFile() throws IOException {
+		Path file = folder.newFile("batch.properties").toPath();
+		Files.write(file, List.of("# floors", "numFloors = 5, 9", "output = results.csv", "parallelism = 2"));
+		BatchConfig config = BatchConfig.load(file);
+		assertEquals(2, config.getCombinations().size());
+		assertEquals("results.csv", config.getOutput());
+		assertEquals(2, config.getParallelism());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void unknownKey() {
+		new BatchConfig(properties("numFloor", "5"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void samplesNeeded() {
+		new BatchConfig(properties("design", "random"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void badSampling() {
+		new BatchConfig(properties("sampling", "fast"));
+	}
+}
@@ -0,0 +1,45 @@
+package uk.ac.aston.jpd.simulation.model.batch;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import uk.ac.aston.jpd.simulation.model.ParameterSweep;
+import uk.ac.aston.jpd.simulation.model.SweepResult;
+
+public class BatchRunnerTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void writesResultsInOrder() throws IOException {
+		Path output = folder.getRoot().toPath().resolve("results.csv");
+		Properties properties = new Properties();
+		properties.setProperty("seed", "0..2");
+		properties.setProperty("elevatorCapacity", "2, 6");
+		properties.setProperty("runTicks", "1000");
+		properties.setProperty("parallelism", "4");
+		properties.setProperty("output", output.toString());
+		BatchConfig config = new BatchConfig(properties);
+		new BatchRunner(config).run();
+
+		List<String> lines = Files.readAllLines(output);
+		List<SweepResult> expected = new ParameterSweep(1).run(config.getCombinations(), 1000);
+		assertEquals(expected.size() + 1, lines.size());
+		for (int i = 0; i < expected.size(); i++) {
+			String[] values = lines.get(i + 1).split(",", -1);
+			assertEquals(String.valueOf(i / 2), values[0]);
+			assertEquals(i % 2 == 0 ? "2" : "6", values[5]);
+			assertEquals(String.valueOf(expected.get(i).getComplaints()), values[11]);
+			assertEquals(String.valueOf(expected.get(i).getAverageWaitingTime()), values[12]);
+		}
+	}
+}
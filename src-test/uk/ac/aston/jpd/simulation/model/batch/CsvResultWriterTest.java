@@ -0,0 +1,65 @@
+package uk.ac.aston.jpd.simulation.model.batch;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.Test;
+import uk.ac.aston.jpd.simulation.model.Simulation;
+import uk.ac.aston.jpd.simulation.model.SweepResult;
+
+public class CsvResultWriterTest {
+
+	@Test
+	public void headerAndLines() throws IOException {
+		Simulation busy = new Simulation.Builder().seed(3).probabilityQ(0.05).numFloors(9).elevators(2).build();
+		busy.run(500);
+		Simulation idle = new Simulation.Builder().probabilityP(0).probabilityQ(0).probabilityMaintenance(0)
+				.nonDevelopers(0).goggles(0).mugtomes(0).build();
+
+		StringWriter out = new StringWriter();
+		try (CsvResultWriter csv = new CsvResultWriter(out)) {
+			csv.accept(new SweepResult(busy));
+			csv.accept(new SweepResult(idle));
+		}
+		String[] lines = out.toString().split(System.lineSeparator());
+		assertEquals(3, lines.length);
+		String[] columns = lines[0].split(",");
+		String[] values = lines[1].split(",", -1);
+		assertEquals(18, columns.length);
+		assertEquals(columns.length, values.length);
+		assertEquals("3", values[0]);
+		assertEquals("0.05", values[2]);
+		assertEquals("9", values[4]);
+		assertEquals("2", values[6]);
+		assertEquals("500", values[10]);
+		assertEquals(String.valueOf(busy.getWaitingStatistics().getAverageWaitingTime()), values[12]);
+		assertEquals(String.valueOf(busy.getArrivalSimulator().getTotalClients()), values[16]);
+
+		String[] empty = lines[2].split(",", -1);
+		assertEquals("1", empty[6]);
+		assertEquals("", empty[12]);
+		assertEquals("", empty[14]);
+		assertEquals("", empty[15]);
+	}
+
+	@Test
+	public void runWithoutWaits() throws IOException {
+		Simulation quiet = new Simulation.Builder().probabilityP(0).probabilityQ(0).probabilityMaintenance(0)
+				.nonDevelopers(0).goggles(0).mugtomes(0).build();
+		quiet.run(500);
+		assertEquals(0, quiet.getWaitingStatistics().getWaitCount());
+
+		StringWriter out = new StringWriter();
+		try (CsvResultWriter csv = new CsvResultWriter(out)) {
+			csv.accept(new SweepResult(quiet));
+		}
+		String[] values = out.toString().split(System.lineSeparator())[1].split(",", -1);
+		assertEquals("500", values[10]);
+		assertEquals("0", values[11]);
+		for (int column = 12; column <= 15; column++) {
+			assertEquals("", values[column]);
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package uk.ac.aston.jpd.simulation.model.batch;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class DimensionTest {
+
+	@Test
+	public void listOfValues() {
+		Dimension dimension = new Dimension(Parameter.PROBABILITY_Q, " 0.02, 0.04 ,0.1");
+		assertArrayEquals(new double[] { 0.02, 0.04, 0.1 }, dimension.getGridValues(), 0);
+		assertEquals(0.02, dimension.sample(0), 0);
+		assertEquals(0.04, dimension.sample(0.5), 0);
+		assertEquals(0.1, dimension.sample(0.99), 0);
+	}
+
+	@Test
+	public void integerRange() {
+		Dimension dimension = new Dimension(Parameter.NUM_FLOORS, "5..8");
+		assertArrayEquals(new double[] { 5, 6, 7, 8 }, dimension.getGridValues(), 0);
+		assertEquals(5, dimension.sample(0), 0);
+		assertEquals(7, dimension.sample(0.6), 0);
+		assertEquals(8, dimension.sample(0.999), 0);
+		assertArrayEquals(new double[] { 2, 6, 10 }, new Dimension(Parameter.ELEVATOR_CAPACITY, "2..11:4").getGridValues(), 0);
+	}
+
+	@Test
+	public void steppedRange() {
+		Dimension dimension = new Dimension(Parameter.PROBABILITY_P, "0.1..0.3:0.1");
+		assertArrayEquals(new double[] { 0.1, 0.2, 0.3 }, dimension.getGridValues(), 0);
+		assertEquals(0.2, dimension.sample(0.5), 1e-12);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void gridNeedsStep() {
+		new Dimension(Parameter.PROBABILITY_P, "0.01..0.05").getGridValues();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void integerParameterNeedsIntegers() {
+		new Dimension(Parameter.GOGGLES, "1, 2.5");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void notANumber() {
+		new Dimension(Parameter.SEED, "0..ten");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void emptyRange() {
+		new Dimension(Parameter.MUGTOMES, "6..2");
+	}
+}
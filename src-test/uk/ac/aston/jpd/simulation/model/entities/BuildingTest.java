@@ -1,5 +1,6 @@
 package uk.ac.aston.jpd.simulation.model.entities;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -65,5 +66,29 @@ public class BuildingTest {
 		if (isInElevator) {
 			assertFalse(building.quit(badUser));
 		}
-	}	
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void noElevators() {
+		new Simulation.Builder().elevators(0).build();
+	}
+
+	@Test
+	public void severalElevatorsServeEveryone() {
+		Simulation.Builder parameters = new Simulation.Builder()
+				.seed(5).numFloors(20).elevators(4).elevatorCapacity(6)
+				.probabilityP(0.01).probabilityQ(0.02).goggles(20).mugtomes(20).nonDevelopers(40);
+		Simulation busy = parameters.build();
+		busy.run(2880);
+
+		/* nobody arrives or changes floor any more: every queue empties */
+		Simulation quiet = busy.fork(parameters.probabilityP(0).probabilityQ(0).probabilityMaintenance(0));
+		quiet.run(1000);
+		for (Floor f : quiet.getBuilding().getFloors()) {
+			assertTrue(f.getInQueue().isEmpty());
+		}
+		for (Elevator e : quiet.getBuilding().getElevators()) {
+			assertEquals(0, e.getUsers().size());
+		}
+	}
 }
@@ -0,0 +1,115 @@
+package uk.ac.aston.jpd.simulation.model.entities;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import uk.ac.aston.jpd.simulation.model.Simulation;
+import uk.ac.aston.jpd.simulation.model.entities.users.Goggle;
+import uk.ac.aston.jpd.simulation.model.entities.users.MaintenanceCrew;
+import uk.ac.aston.jpd.simulation.model.entities.users.User;
+
+public class CallRegistryTest {
+
+	private CallRegistry registry;
+
+	@Before
+	public void setUp() {
+		registry = new CallRegistry(7, 4);
+	}
+
+	@Test
+	public void rangeQueries() {
+		registry.addCall(5, 4);
+		registry.addCall(2, 1);
+
+		assertTrue(registry.hasCall(0, 6, 1));
+		assertTrue(registry.hasCall(3, 6, 4));
+		assertFalse(registry.hasCall(3, 6, 3));
+		assertFalse(registry.hasCall(3, 4, 4));
+		assertFalse(registry.hasCall(6, 5, 4));
+		assertTrue(registry.hasCall(2, 2, 1));
+	}
+
+	@Test
+	public void minRequiredSpace() {
+		registry.addCall(3, 4);
+		registry.addCall(3, 1);
+		assertEquals(1, registry.getMinRequiredSpace(3));
+
+		registry.removeCall(3, 1);
+		assertEquals(4, registry.getMinRequiredSpace(3));
+
+		registry.removeCall(3, 4);
+		assertEquals(Integer.MAX_VALUE, registry.getMinRequiredSpace(3));
+		assertFalse(registry.hasCall(0, 6, 4));
+	}
+
+	@Test
+	public void callsLargerThanCapacityIgnored() {
+		registry.addCall(1, 5);
+		assertFalse(registry.hasCall(0, 6, 4));
+		registry.removeCall(1, 5);
+		assertEquals(Integer.MAX_VALUE, registry.getMinRequiredSpace(1));
+	}
+
+	@Test
+	public void followsFloorQueues() {
+		Simulation sim = new Simulation.Builder()
+				.probabilityP(0).probabilityQ(0).probabilityMaintenance(0)
+				.goggles(0).mugtomes(0).nonDevelopers(0)
+				.build();
+		Building building = sim.getBuilding();
+		CallRegistry calls = building.getCallRegistry();
+		Floor ground = building.getFloors()[0];
+
+		User g = new Goggle(building);
+		User m = new MaintenanceCrew(building);
+		ground.land(g);
+		ground.land(m);
+		ground.joinQueue(g);
+		ground.joinQueue(m);
+		assertEquals(1, calls.getMinRequiredSpace(0));
+
+		g.setWaitingForNext(true);
+		assertEquals(4, calls.getMinRequiredSpace(0));
+
+		ground.joinQueue(g);
+		assertEquals(4, calls.getMinRequiredSpace(0));
+
+		g.setWaitingForNext(false);
+		ground.leave(m);
+		assertEquals(1, calls.getMinRequiredSpace(0));
+
+		ground.leave(g);
+		assertEquals(Integer.MAX_VALUE, calls.getMinRequiredSpace(0));
+	}
+
+	@Test
+	public void callsOfEachElevator() {
+		Simulation sim = new Simulation.Builder()
+				.probabilityP(0).probabilityQ(0).probabilityMaintenance(0)
+				.goggles(0).mugtomes(0).nonDevelopers(0).elevators(2)
+				.build();
+		CallRegistry calls = sim.getBuilding().getCallRegistry();
+		assertEquals(-1, calls.getAssignedCar(4));
+
+		calls.addCall(4, 1);
+		calls.addCall(2, 1);
+		assertEquals(0, calls.getAssignedCar(4));
+		assertEquals(1, calls.getAssignedCar(2));
+		assertTrue(calls.hasCall(0, 0, 6, 1));
+		assertFalse(calls.hasCall(0, 0, 3, 4));
+		assertTrue(calls.hasCall(1, 0, 3, 1));
+		assertFalse(calls.hasCall(1, 3, 6, 4));
+		assertTrue(calls.hasCall(0, 6, 4));
+
+		calls.removeCall(2, 1);
+		assertEquals(-1, calls.getAssignedCar(2));
+		assertEquals(0, calls.getAssignedFloors(1));
+		assertFalse(calls.hasCall(1, 0, 6, 4));
+		assertFalse(calls.hasCall(0, 3, 4));
+	}
+}
@@ -5,11 +5,13 @@ import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.TreeSet;
 
 import org.junit.Test;
 import uk.ac.aston.jpd.simulation.model.Simulation;
 import uk.ac.aston.jpd.simulation.model.entities.users.Client;
 import uk.ac.aston.jpd.simulation.model.entities.users.User;
+import uk.ac.aston.jpd.simulation.model.entities.users.UserType;
 
 public class ElevatorTest {
 	
@@ -30,6 +32,65 @@ public class ElevatorTest {
 		assertEquals(inQueue, elevator.getUsers());
 	}
 	
+	@Test
+	public void targetFloorsFollowPassengers() {
+		Simulation sim = new Simulation.Builder()
+				.seed(7).elevatorCapacity(20)
+				.goggles(10).mugtomes(10).nonDevelopers(10)
+				.probabilityQ(0).probabilityMaintenance(0)
+				.build();
+		Elevator elevator = sim.getBuilding().getElevator();
+		
+		for (int i = 0; i < 200; i++) {
+			sim.tick();
+			TreeSet<Integer> targets = new TreeSet<>();
+			for (User u : elevator.getUsers()) {
+				targets.add(u.getRequest().getTargetFloor().getLevel());
+				assertTrue(elevator.isCarrying(u));
+			}
+			List<Integer> targetLevels = new ArrayList<>();
+			for (Floor f : elevator.getTargetFloors()) {
+				targetLevels.add(f.getLevel());
+			}
+			assertEquals(new ArrayList<>(targets), targetLevels);
+		}
+	}
+	
+	@Test
+	public void alightingKeepsBoardingOrder() {
+		Simulation sim = new Simulation.Builder()
+				.seed(3).elevatorCapacity(8).elevators(2)
+				.goggles(10).mugtomes(10).nonDevelopers(10)
+				.probabilityMaintenance(0)
+				.build();
+		Building building = sim.getBuilding();
+		List<List<User>> before = new ArrayList<>();
+		for (Elevator e : building.getElevators()) {
+			before.add(e.getUsers());
+		}
+
+		for (int i = 0; i < 500; i++) {
+			sim.tick();
+			for (Elevator e : building.getElevators()) {
+				List<User> stayed = before.get(e.getIndex());
+				stayed.retainAll(e.getUsers());
+				List<User> now = e.getUsers();
+				assertEquals(stayed, now.subList(0, stayed.size()));
+				before.set(e.getIndex(), now);
+			}
+			for (User u : building.getUsers()) {
+				int carriers = 0;
+				for (Elevator e : building.getElevators()) {
+					if (e.isCarrying(u)) {
+						carriers++;
+						assertTrue(e.getUsers().contains(u));
+					}
+				}
+				assertEquals((u.getLocation() == User.Location.IN_ELEVATOR) ? 1 : 0, carriers);
+			}
+		}
+	}
+
 	@Test 
 	public void decreaseAvailableSpace() {
 		Simulation sim = new Simulation.Builder()
@@ -75,6 +136,33 @@ public class ElevatorTest {
 		assertEquals(1, inElevator.size());
 	}
 	
+	@Test 
+	public void passengersCountedByType() {
+		Simulation sim = new Simulation.Builder()
+				.elevatorCapacity(4)
+				.goggles(1).mugtomes(1).nonDevelopers(2)
+				.probabilityQ(0).probabilityMaintenance(0)
+				.build();
+		Elevator elevator = sim.getBuilding().getElevator();
+		
+		for (int i = 0; i < 200; i++) {
+			sim.tick();
+			assertCounted(elevator);
+			assertCounted(sim.fork().getBuilding().getElevator());
+		}
+	}
+	
+	private static void assertCounted(Elevator elevator) {
+		int[] expected = new int[UserType.values().length];
+		for (User u : elevator.getUsers()) {
+			expected[u.getType().getCode()]++;
+		}
+		for (UserType type : UserType.values()) {
+			assertEquals(expected[type.getCode()], elevator.getPassengerCount(type));
+		}
+		assertTrue(elevator.getPassengerCount(UserType.GOGGLE) == 0 || elevator.getPassengerCount(UserType.MUGTOME) == 0);
+	}
+	
 	@Test 
 	public void badUserInQueue() {
 		Simulation sim = new Simulation.Builder()
@@ -0,0 +1,119 @@
+package uk.ac.aston.jpd.simulation.model.entities;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import uk.ac.aston.jpd.simulation.model.Simulation;
+import uk.ac.aston.jpd.simulation.model.entities.users.Client;
+import uk.ac.aston.jpd.simulation.model.entities.users.Goggle;
+import uk.ac.aston.jpd.simulation.model.entities.users.MaintenanceCrew;
+import uk.ac.aston.jpd.simulation.model.entities.users.User;
+import uk.ac.aston.jpd.simulation.model.entities.users.UserComparator;
+
+public class FloorQueueTest {
+	
+	private Building building;
+	private FloorQueue queue;
+	private int ticket;
+	 
+	@Before 
+	public void setUp() {
+		Simulation sim = new Simulation.Builder()
+				.probabilityP(0).probabilityQ(0).probabilityMaintenance(0)
+				.goggles(0).mugtomes(0).nonDevelopers(0)
+				.build();
+		building = sim.getBuilding();
+		queue = new FloorQueue();
+		ticket = 0;
+	}
+	
+	private User join(User u) {
+		u.assignTicketNumber(ticket++);
+		queue.insert(u);
+		return u;
+	}
+	
+	@Test
+	public void clientsFirst() {
+		User g = join(new Goggle(building));
+		User c1 = join(new Client(building));
+		User m = join(new MaintenanceCrew(building));
+		User c2 = join(new Client(building));
+		
+		assertEquals(List.of(c1, c2, g, m), new ArrayList<>(queue));
+		assertEquals(c2, queue.get(1));
+		assertEquals(m, queue.get(3));
+	}
+	
+	@Test
+	public void rejoinGoesToBack() {
+		User g1 = join(new Goggle(building));
+		User g2 = join(new Goggle(building));
+		User c = join(new Client(building));
+		
+		assertTrue(queue.remove(g1));
+		join(g1);
+		assertEquals(List.of(c, g2, g1), new ArrayList<>(queue));
+	}
+	
+	@Test
+	public void removeByHandle() {
+		User c = join(new Client(building));
+		User g = join(new Goggle(building));
+		
+		assertTrue(queue.remove(c));
+		assertFalse(queue.remove(c));
+		assertFalse(queue.contains(c));
+		assertTrue(queue.contains(g));
+		assertEquals(1, queue.size());
+		assertEquals(g, queue.get(0));
+	}
+	
+	@Test
+	public void duplicateInsert() {
+		User c = join(new Client(building));
+		assertFalse(queue.insert(c));
+		assertFalse(queue.insert(null));
+		assertEquals(1, queue.size());
+	}
+	
+	@Test
+	public void oneQueueAtATime() {
+		FloorQueue other = new FloorQueue();
+		User c = join(new Client(building));
+		assertFalse(other.insert(c));
+		assertFalse(other.contains(c));
+		assertFalse(other.remove(c));
+		
+		assertTrue(queue.remove(c));
+		assertTrue(other.insert(c));
+		assertTrue(other.contains(c));
+		assertFalse(queue.contains(c));
+	}
+	
+	@Test
+	public void sameOrderAsComparator() {
+		Random random = new Random(0);
+		List<User> expected = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			if (!expected.isEmpty() && random.nextInt(3) == 0) {
+				User leaving = expected.remove(random.nextInt(expected.size()));
+				assertTrue(queue.remove(leaving));
+			} else {
+				User u = random.nextBoolean() ? new Client(building) : new Goggle(building);
+				expected.add(join(u));
+			}
+		}
+		Collections.sort(expected, new UserComparator());
+		assertEquals(expected, new ArrayList<>(queue));
+		assertEquals(expected, queue);
+	}
+}
@@ -0,0 +1,51 @@
+package uk.ac.aston.jpd.simulation.model.entities;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import uk.ac.aston.jpd.simulation.model.Simulation;
+
+public class GroupControllerTest {
+
+	private Building emptyBuilding(int elevators) {
+		return new Simulation.Builder()
+				.probabilityP(0).probabilityQ(0).probabilityMaintenance(0)
+				.goggles(0).mugtomes(0).nonDevelopers(0).elevators(elevators)
+				.build().getBuilding();
+	}
+
+	@Test
+	public void singleElevatorServesEverything() {
+		Building building = emptyBuilding(1);
+		GroupController controller = building.getGroupController();
+		assertEquals(1, controller.getElevatorCount());
+		for (int level = 0; level < building.getFloors().length; level++) {
+			assertEquals(0, controller.selectCar(level, 1));
+		}
+	}
+
+	@Test
+	public void firstElevatorOnTie() {
+		Building building = emptyBuilding(3);
+		assertEquals(0, building.getGroupController().selectCar(5, 1));
+	}
+
+	@Test
+	public void spreadsCallsOverIdleElevators() {
+		Building building = emptyBuilding(3);
+		CallRegistry calls = building.getCallRegistry();
+
+		calls.addCall(5, 1);
+		calls.addCall(3, 1);
+		calls.addCall(4, 1);
+		assertEquals(0, calls.getAssignedCar(5));
+		assertEquals(1, calls.getAssignedCar(3));
+		assertEquals(2, calls.getAssignedCar(4));
+
+		/* every elevator has a floor to serve: floor 1 is the nearest */
+		calls.addCall(1, 1);
+		assertEquals(0, calls.getAssignedCar(1));
+		assertEquals(2, calls.getAssignedFloors(0));
+	}
+}
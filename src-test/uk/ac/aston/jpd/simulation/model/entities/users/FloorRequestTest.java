@@ -1,6 +1,9 @@
 package uk.ac.aston.jpd.simulation.model.entities.users;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
 import uk.ac.aston.jpd.simulation.model.Simulation;
@@ -46,4 +49,26 @@ public class FloorRequestTest {
 		building.enter(maintenanceCrew);
 		assertFalse(maintenanceCrew.getRequest().markAsDone());
 	}
+	
+	@Test
+	public void renewedWhenDone() {
+		var sim = new Simulation.Builder().build();
+		var building = sim.getBuilding();
+		var floors = building.getFloors();
+		
+		User nonDev = new NonDeveloper(building);
+		building.enter(nonDev);
+		FloorRequest request = nonDev.getRequest();
+		Floor target = request.getTargetFloor();
+		nonDev.updateFloor(target);
+		nonDev.targetReached();
+		assertTrue(request.isDone());
+		
+		Floor next = floors[(target.getLevel() + 1) % floors.length];
+		nonDev.setRequest(next);
+		assertSame(request, nonDev.getRequest());
+		assertFalse(request.isDone());
+		assertEquals(target, request.getSourceFloor());
+		assertEquals(next, request.getTargetFloor());
+	}
 }
@@ -92,6 +92,27 @@ public class UserTest {
 		assertFalse(floors[0].getOnFloor().contains(ne));
 	}
 	
+	@Test
+	public void locationFollowsUser() {
+		NonEmployee ne = new MaintenanceCrew(building);
+		assertEquals(User.Location.OUTSIDE, ne.getLocation());
+		building.enter(ne);
+		assertEquals(User.Location.IN_QUEUE, ne.getLocation());
+		sim.tick(); // elevator opens its doors
+		sim.tick(); // user gets into the elevator
+		assertEquals(User.Location.IN_ELEVATOR, ne.getLocation());
+		do {
+			sim.tick();
+		} while (ne.getLocation() == User.Location.IN_ELEVATOR);
+		assertEquals(User.Location.ON_FLOOR, ne.getLocation());
+		assertTrue(floors[4].getOnFloor().contains(ne));
+		do {
+			sim.tick();
+		} while (ne.getLocation() != User.Location.LEFT);
+		assertFalse(floors[0].getOnFloor().contains(ne));
+		assertFalse(floors[0].getInQueue().contains(ne));
+	}
+	
 	@Test
 	public void annoyedClient() {
 		Client c = new Client(building);
@@ -102,4 +123,15 @@ public class UserTest {
 		} while (!floors[0].getInQueue().isEmpty());		
 		assertEquals(1, sim.getComplaints());
 	}
+	
+	@Test
+	public void idsPerSimulation() {
+		Simulation other = new Simulation.Builder().build();
+		User first = new Client(building);
+		User second = new Client(building);
+		User otherFirst = new Client(other.getBuilding());
+		assertEquals("CL01", first.getID());
+		assertEquals("CL02", second.getID());
+		assertEquals("CL01", otherFirst.getID());
+	}
 }
@@ -0,0 +1,101 @@
+package uk.ac.aston.jpd.simulation.model.trace;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static uk.ac.aston.jpd.simulation.model.SimulationFixtures.busyBuilding;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import uk.ac.aston.jpd.simulation.model.Simulation;
+
+public class TraceRecorderTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void recordsEveryEvent() throws IOException {
+		Path file = folder.newFile().toPath();
+		Simulation traced;
+		try (TraceRecorder recorder = new TraceRecorder(file, 64)) {
+			traced = busyBuilding(3).trace(recorder).build();
+			traced.run(2880);
+		}
+		Simulation untraced = busyBuilding(3).build();
+		untraced.run(2880);
+		assertEquals(untraced.getComplaints(), traced.getComplaints());
+		assertEquals(untraced.getCurrentUsers(), traced.getCurrentUsers());
+		assertEquals(untraced.getRandom().nextInt(), traced.getRandom().nextInt());
+
+		Map<TraceEvent, Integer> counts = new EnumMap<>(TraceEvent.class);
+		try (TraceReader reader = new TraceReader(file)) {
+			assertEquals(Files.size(file), 32 + 16 * reader.getRecordCount());
+			assertEquals(7, reader.getNumFloors());
+			assertEquals(3, reader.getSeed());
+			int lastTick = 0;
+			while (reader.next()) {
+				assertTrue(reader.getTick() >= lastTick);
+				lastTick = reader.getTick();
+				counts.merge(reader.getEvent(), 1, Integer::sum);
+			}
+		}
+		int arrivals = counts.get(TraceEvent.ARRIVAL);
+		assertEquals(traced.getCurrentUsers(), arrivals - counts.getOrDefault(TraceEvent.QUIT, 0));
+		assertEquals(traced.getComplaints(), (int) counts.getOrDefault(TraceEvent.COMPLAINT, 0));
+		assertTrue(counts.get(TraceEvent.BOARD) >= traced.getWaitingStatistics().getWaitCount());
+		assertEquals(counts.get(TraceEvent.DOORS_OPEN), counts.get(TraceEvent.DOORS_CLOSE), 1);
+	}
+
+	@Test
+	public void runUntilRecordsLikeTicking() throws IOException {
+		Path ticked = folder.newFile().toPath();
+		try (TraceRecorder recorder = new TraceRecorder(ticked, 64)) {
+			Simulation sim = busyBuilding(3).elevators(3).trace(recorder).build();
+			for (int i = 0; i < 2880; i++) {
+				sim.tick();
+			}
+		}
+		Path run = folder.newFile().toPath();
+		try (TraceRecorder recorder = new TraceRecorder(run, 64)) {
+			busyBuilding(3).elevators(3).trace(recorder).build().run(2880);
+		}
+		assertArrayEquals(Files.readAllBytes(ticked), Files.readAllBytes(run));
+	}
+
+	@Test
+	public void seeksToTick() throws IOException {
+		Path file = folder.newFile().toPath();
+		try (TraceRecorder recorder = new TraceRecorder(file, 100)) {
+			busyBuilding(3).trace(recorder).build().run(2880);
+		}
+		try (TraceReader reader = new TraceReader(file)) {
+			long index = reader.seekTick(1000);
+			assertTrue(reader.next());
+			assertTrue(reader.getTick() >= 1000);
+			assertEquals(index, reader.getPosition());
+			if (index > 0) {
+				reader.seek(index - 1);
+				reader.next();
+				assertTrue(reader.getTick() < 1000);
+			}
+			assertEquals(reader.getRecordCount(), reader.seekTick(Integer.MAX_VALUE));
+			assertFalse(reader.next());
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void notATrace() throws IOException {
+		Path file = folder.newFile().toPath();
+		Files.write(file, new byte[64]);
+		new TraceReader(file).close();
+	}
+}
@@ -0,0 +1,105 @@
+package uk.ac.aston.jpd.simulation.model.trace;
+
+import static org.junit.Assert.assertEquals;
+import static uk.ac.aston.jpd.simulation.model.SimulationFixtures.busyBuilding;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import uk.ac.aston.jpd.simulation.model.Simulation;
+import uk.ac.aston.jpd.simulation.model.WaitAccumulators;
+import uk.ac.aston.jpd.simulation.model.WaitingStatistics;
+import uk.ac.aston.jpd.simulation.model.entities.Elevator;
+import uk.ac.aston.jpd.simulation.model.entities.Floor;
+import uk.ac.aston.jpd.simulation.model.entities.users.UserType;
+
+public class TraceReplayTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private Path file;
+
+	@Before
+	public void record() throws IOException {
+		file = folder.newFile().toPath();
+		try (TraceRecorder recorder = new TraceRecorder(file, 128)) {
+			busyBuilding(5).trace(recorder).build().run(2880);
+		}
+	}
+
+	@Test
+	public void matchesSimulation() throws IOException {
+		try (TraceReader reader = new TraceReader(file)) {
+			TraceReplay replay = new TraceReplay(reader);
+			for (int tick : new int[] {700, 1500, 2880}) {
+				Simulation sim = busyBuilding(5).build();
+				sim.run(tick);
+				replay.advanceTo(tick);
+				assertSameState(sim, replay);
+			}
+		}
+	}
+
+	@Test
+	public void matchesSeveralElevators() throws IOException {
+		Path cars = folder.newFile().toPath();
+		try (TraceRecorder recorder = new TraceRecorder(cars, 128)) {
+			busyBuilding(5).elevators(3).trace(recorder).build().run(2880);
+		}
+		try (TraceReader reader = new TraceReader(cars)) {
+			assertEquals(3, reader.getNumElevators());
+			TraceReplay replay = new TraceReplay(reader);
+			for (int tick : new int[] {700, 1500, 2880}) {
+				Simulation sim = busyBuilding(5).elevators(3).build();
+				sim.run(tick);
+				replay.advanceTo(tick);
+				assertSameState(sim, replay);
+			}
+		}
+	}
+
+	@Test
+	public void seeksBackwards() throws IOException {
+		Simulation sim = busyBuilding(5).build();
+		sim.run(1000);
+		try (TraceReader reader = new TraceReader(file)) {
+			TraceReplay replay = new TraceReplay(reader);
+			replay.runToEnd();
+			replay.seek(1000);
+			assertEquals(1000, replay.getTick());
+			assertSameState(sim, replay);
+		}
+	}
+
+	private void assertSameState(Simulation sim, TraceReplay replay) {
+		WaitingStatistics expected = sim.getWaitingStatistics();
+		WaitingStatistics actual = replay.getWaitingStatistics();
+		assertEquals(expected.getWaitCount(), actual.getWaitCount());
+		assertEquals(expected.getAverageWaitingTime(), actual.getAverageWaitingTime(), 0);
+		assertEquals(expected.getWaitingTimeVariance(), actual.getWaitingTimeVariance(), 1e-9);
+		assertEquals(expected.getWaitingTimePercentile(95), actual.getWaitingTimePercentile(95));
+		for (UserType type : UserType.values()) {
+			WaitAccumulators byType = expected.getBreakdown().getByType();
+			assertEquals(byType.getTotal(type.getCode()), actual.getBreakdown().getByType().getTotal(type.getCode()));
+		}
+		assertEquals(expected.getComplaintRate(), replay.snapshot().getComplaintRate(), 0);
+
+		assertEquals(sim.getComplaints(), replay.getComplaints());
+		assertEquals(sim.getCurrentUsers(), replay.getCurrentUsers());
+		assertEquals(sim.getArrivalSimulator().getTotalClients(), replay.getTotalClients());
+		for (Floor f : sim.getBuilding().getFloors()) {
+			assertEquals(f.getInQueue().size(), replay.getQueueLength(f.getLevel()));
+		}
+		assertEquals(sim.getBuilding().getElevators().length, replay.getNumElevators());
+		for (Elevator e : sim.getBuilding().getElevators()) {
+			assertEquals(e.getCurrentFloor().getLevel(), replay.getElevatorLevel(e.getIndex()));
+			assertEquals(e.getUsers().size(), replay.getPassengers(e.getIndex()));
+			assertEquals(e.isOpen(), replay.isDoorsOpen(e.getIndex()));
+		}
+	}
+}
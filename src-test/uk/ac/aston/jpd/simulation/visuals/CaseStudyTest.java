@@ -0,0 +1,42 @@
+package uk.ac.aston.jpd.simulation.visuals;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import org.junit.Test;
+
+public class CaseStudyTest {
+
+	/**
+	 * The table of the original CaseStudy, before any change to the model: the
+	 * results for a given seed must stay the same.
+	 */
+	@Test
+	public void reproducesBaselineTable() throws IOException {
+		String expected;
+		try (InputStream in = CaseStudyTest.class.getResourceAsStream("CaseStudyBaseline.txt")) {
+			assertNotNull(in);
+			expected = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+
+		PrintStream console = System.out;
+		Locale locale = Locale.getDefault();
+		ByteArrayOutputStream table = new ByteArrayOutputStream();
+		try {
+			Locale.setDefault(Locale.UK);
+			System.setOut(new PrintStream(table, true, "UTF-8"));
+			new CaseStudy(2).visualize();
+		} finally {
+			System.setOut(console);
+			Locale.setDefault(locale);
+		}
+		assertArrayEquals(expected.split("\\R"), table.toString("UTF-8").split("\\R"));
+	}
+}
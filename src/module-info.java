@@ -5,6 +5,7 @@ module uk.ac.aston.jpd.simulation{
 	requires javafx.graphics;
 	
 	requires junit;
+	requires jdk.management;
 	
 	opens uk.ac.aston.jpd.simulation;
 	opens uk.ac.aston.jpd.simulation.model;
@@ -0,0 +1,36 @@
+package uk.ac.aston.jpd.simulation;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import uk.ac.aston.jpd.simulation.model.batch.BatchConfig;
+import uk.ac.aston.jpd.simulation.model.batch.BatchRunner;
+
+/**
+ * The {@code BatchLauncher} is a non-interactive launcher for analysis
+ * purposes: it runs the batch of simulations described by the properties file
+ * it is given, and writes their results as CSV.
+ * 
+ * @author Parminder
+ */
+public class BatchLauncher {
+
+	/**
+	 * Entry point for the batch launcher.
+	 * 
+	 * @param args the path of the properties file of the batch
+	 */
+	public static void main(String[] args) {
+		if (args.length != 1) {
+			System.err.println("Usage: BatchLauncher <batch.properties>");
+			return;
+		}
+		try {
+			new BatchRunner(BatchConfig.load(Paths.get(args[0]))).run();
+		} catch (IOException ex) {
+			System.err.println("Cannot run the batch: " + ex.getMessage());
+		} catch (IllegalArgumentException ex) {
+			System.err.println("Invalid batch: " + ex.getMessage());
+		}
+	}
+}
@@ -5,17 +5,40 @@ import uk.ac.aston.jpd.simulation.visuals.CaseStudy;
 /**
  * The {@code CaseStudyLauncher} is a non-interactive launcher for analysis
  * purposes: it runs different simulations with different combinations of seed,
- * p and q and provides data accordingly.
+ * p and q and provides data accordingly. <br>
+ * With the argument {@code paired}, it compares the values of p through
+ * common random numbers instead. With the argument {@code adaptive}, optionally
+ * followed by the width of the confidence interval of complaints and the
+ * maximum number of seeds, it runs as many seeds as each combination needs;
+ * the width must be positive and the budget at least
+ * {@value CaseStudy#MIN_ADAPTIVE_SEEDS} seeds.
  * 
  * @author Parminder
  */
 public class CaseStudyLauncher {
 	
+	private static final double DEFAULT_TARGET_WIDTH = 2;
+	private static final int DEFAULT_BUDGET = 30;
+	
 	/**
 	 * Entry point for the case study launcher.
 	 */
 	public static void main(String[] args) {
 		CaseStudy study = new CaseStudy();
-		study.visualize();
+		if (args.length > 0 && args[0].equals("paired")) {
+			study.visualizePairedDifferences();
+		} else if (args.length > 0 && args[0].equals("adaptive")) {
+			double targetWidth = (args.length > 1) ? Double.parseDouble(args[1]) : DEFAULT_TARGET_WIDTH;
+			int budget = (args.length > 2) ? Integer.parseInt(args[2]) : DEFAULT_BUDGET;
+			if (!(targetWidth > 0)) {
+				System.err.println("The width of the confidence interval must be positive: " + args[1]);
+			} else if (budget < CaseStudy.MIN_ADAPTIVE_SEEDS) {
+				System.err.println("The budget must be at least " + CaseStudy.MIN_ADAPTIVE_SEEDS + " seeds: " + budget);
+			} else {
+				study.visualizeAdaptive(targetWidth, budget);
+			}
+		} else {
+			study.visualize();
+		}
 	}
 }
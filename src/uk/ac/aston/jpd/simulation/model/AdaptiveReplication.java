@@ -0,0 +1,129 @@
+package uk.ac.aston.jpd.simulation.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * The class {@code AdaptiveReplication} runs replications of combinations of
+ * parameters, each with a different seed, until the 95% confidence interval of
+ * a metric (e.g. the number of complaints) is narrower than a target width for
+ * each combination, or the budget of replications of the combination runs out.
+ * <p>
+ * Every combination is run for a minimum number of replications first. Then,
+ * in each round, one more replication is run for each combination whose
+ * interval is still too wide. The replications of a round are run in parallel
+ * by a {@link ParameterSweep}; since replication {@code k} is always run with
+ * seed {@code k}, the results do not depend on how many simulations are run at
+ * the same time.
+ * </p>
+ * Stopping as soon as the interval is narrow enough makes it slightly too
+ * optimistic, which the minimum number of replications keeps in check. It is
+ * at least 5: with fewer replications, a combination whose first results
+ * happen to be equal (e.g. no complaint at all) would have a zero-width
+ * interval and stop straight away.
+ * 
+ * @author Parminder
+ */
+public class AdaptiveReplication {
+
+	private static final int MIN_REPLICATIONS = 5;
+
+	private final ParameterSweep sweep;
+	private final ToDoubleFunction<SweepResult> metric;
+	private final double targetWidth;
+	private final int minReplications;
+	private final int maxReplications;
+
+	/**
+	 * Creates an {@code AdaptiveReplication} that runs its replications through
+	 * the given sweep.
+	 * 
+	 * @param sweep           the {@link ParameterSweep} running the replications
+	 * @param metric          the value of a replication whose interval is narrowed
+	 * @param targetWidth     the full width of the 95% confidence interval to reach
+	 * @param minReplications the number of replications run for every combination
+	 * @param maxReplications the budget of replications of each combination
+	 * @throws IllegalArgumentException if the width is not positive, or the
+	 *                                  numbers of replications are less than 5
+	 *                                  or the budget is less than the minimum.
+	 */
+	public AdaptiveReplication(ParameterSweep sweep, ToDoubleFunction<SweepResult> metric, double targetWidth,
+			int minReplications, int maxReplications) {
+		if (!(targetWidth > 0)) {
+			throw new IllegalArgumentException("Invalid target width: " + targetWidth);
+		}
+		if (minReplications < MIN_REPLICATIONS || maxReplications < minReplications) {
+			throw new IllegalArgumentException("Invalid replications: " + minReplications + " to " + maxReplications);
+		}
+		this.sweep = sweep;
+		this.metric = metric;
+		this.targetWidth = targetWidth;
+		this.minReplications = minReplications;
+		this.maxReplications = maxReplications;
+	}
+
+	/**
+	 * Runs replications of each of the given combinations until its interval is
+	 * narrow enough or its budget runs out.
+	 * 
+	 * @param combinations for each combination, the function that provides the
+	 *                     {@link Simulation.Builder} of a replication from its seed
+	 * @param runTicks     the number of ticks for which each simulation is run
+	 * @return the results of the combinations, in the same order as the
+	 *         combinations.
+	 */
+	public List<ReplicatedResult> run(List<IntFunction<Simulation.Builder>> combinations, int runTicks) {
+		List<ReplicatedResult> results = new ArrayList<>();
+		List<Integer> active = new ArrayList<>();
+		for (int i = 0; i < combinations.size(); i++) {
+			results.add(new ReplicatedResult());
+			active.add(i);
+		}
+
+		while (!active.isEmpty()) {
+			List<Simulation.Builder> round = new ArrayList<>();
+			List<Integer> owners = new ArrayList<>();
+			for (int i : active) {
+				int done = results.get(i).getReplications();
+				int needed = Math.max(minReplications - done, 1);
+				for (int seed = done; seed < done + needed; seed++) {
+					round.add(combinations.get(i).apply(seed));
+					owners.add(i);
+				}
+			}
+			List<SweepResult> roundResults = sweep.run(round, runTicks);
+			for (int r = 0; r < roundResults.size(); r++) {
+				SweepResult result = roundResults.get(r);
+				results.get(owners.get(r)).add(result, metric.applyAsDouble(result));
+			}
+			active.removeIf(i -> isFinished(results.get(i)));
+		}
+		return results;
+	}
+
+	/**
+	 * Checks whether no more replications are needed for a combination, and
+	 * records whether its interval is narrow enough.
+	 * 
+	 * @param result the results of the combination so far
+	 * @return true if the interval is narrow enough or the budget has run out.
+	 */
+	private boolean isFinished(ReplicatedResult result) {
+		result.setConverged(2 * result.getSummary().getHalfWidth() <= targetWidth);
+		return result.isConverged() || result.getReplications() >= maxReplications;
+	}
+
+	public double getTargetWidth() {
+		return targetWidth;
+	}
+
+	public int getMinReplications() {
+		return minReplications;
+	}
+
+	public int getMaxReplications() {
+		return maxReplications;
+	}
+}
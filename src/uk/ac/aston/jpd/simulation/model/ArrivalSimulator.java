@@ -1,14 +1,18 @@
 package uk.ac.aston.jpd.simulation.model;
 
+import java.io.IOException;
 import java.util.Random;
 
+import uk.ac.aston.jpd.simulation.model.CounterRandom.Purpose;
 import uk.ac.aston.jpd.simulation.model.entities.Building;
 import uk.ac.aston.jpd.simulation.model.entities.users.Client;
 import uk.ac.aston.jpd.simulation.model.entities.users.Goggle;
 import uk.ac.aston.jpd.simulation.model.entities.users.MaintenanceCrew;
 import uk.ac.aston.jpd.simulation.model.entities.users.Mugtome;
 import uk.ac.aston.jpd.simulation.model.entities.users.NonDeveloper;
+import uk.ac.aston.jpd.simulation.model.TimingWheel.Timer;
 import uk.ac.aston.jpd.simulation.model.entities.users.User;
+import uk.ac.aston.jpd.simulation.model.entities.users.UserType;
 
 /**
  * The class {@code ArrivalSimualtor} simulates new incoming users. <br>
@@ -33,8 +37,14 @@ public class ArrivalSimulator {
 	private final double probClient;
 	private final double probMaintenanceCrew;
 	
+	/**
+	 * the lowest random value for which a maintenance crew arrives
+	 */
+	private final double crewsFrom;
+	
 	private int clients = 0;
 	private int maintenanceCrews = 0;
+	private Timer arrivalTimer;
 	
 	/**
 	 * Creates an {@code ArrivalSimulator} for the given simulation.
@@ -54,7 +64,7 @@ public class ArrivalSimulator {
 	public ArrivalSimulator(Simulation simulation) {
 		this.simulation = simulation;
 		this.building = simulation.getBuilding();		
-		this.random = simulation.getRandom();
+		this.random = simulation.getRandom(Purpose.ARRIVAL, 0);
 		
 		this.probClient = simulation.getProbabilityQ();
 		this.probMaintenanceCrew = simulation.getProbabilityMC();
@@ -77,30 +87,90 @@ public class ArrivalSimulator {
 		if (mugtomes < MIN_MUGTOMES) {
 			throw new InvalidArrivalsException("Invalid number of Mugtomes", mugtomes);
 		}	
+		
+		boolean isCounter = simulation.getRandomStreams() == Simulation.RandomStreams.COUNTER;
+		boolean isPerTick = simulation.getSampling() == Simulation.Sampling.PER_TICK;
+		this.crewsFrom = (isCounter && isPerTick) ? Math.max(probClient, 1 - probMaintenanceCrew) : probClient;
 	}
 
 	/**
 	 * Generates new users according to some criteria:
 	 * <br> - in the first tick, generates all employees at once
 	 * <br> - in all ticks, generates non-employees according to a probability
+	 * <p>
+	 * With {@code GEOMETRIC} sampling, non-employees are generated by a timer
+	 * instead, which is set for the tick of the next arrival.
+	 * </p>
 	 */
 	public void tick() {
 		if (simulation.getTick() == 0) {
 			generateEmployees();
+			if (simulation.getSampling() == Simulation.Sampling.GEOMETRIC) {
+				scheduleNextArrival(0);
+			}
 		}
 		
-		double value = random.nextDouble();
+		if (simulation.getSampling() == Simulation.Sampling.PER_TICK) {
+			generateNonEmployee(random.nextDouble());
+		}
+	}
+
+	/**
+	 * Generates a client or a maintenance crew, depending on the given value.
+	 * <p>
+	 * Clients arrive for the lowest values. With {@code PER_TICK} sampling and
+	 * {@code COUNTER} streams, maintenance crews arrive for the highest values,
+	 * rather than for the ones right above the clients, so that they arrive at
+	 * the same ticks whatever the probability of clients.
+	 * </p>
+	 * 
+	 * @param value a random value in [0, 1)
+	 */
+	private void generateNonEmployee(double value) {
 		if (value < probClient) {
 			clients++;
 			User client = new Client(building);
 			simulation.enter(client);
-		} else if (value < probClient + probMaintenanceCrew) {
+		} else if (value >= crewsFrom && value < crewsFrom + probMaintenanceCrew) {
 			maintenanceCrews++;
 			User maintenanceCrew = new MaintenanceCrew(building);
 			simulation.enter(maintenanceCrew);
 		}
 	}
 
+	/**
+	 * Checks whether a non-employee arrives for the given random value, drawn at a
+	 * tick with {@code PER_TICK} sampling.
+	 * 
+	 * @param value a random value in [0, 1)
+	 * @return true if a client or a maintenance crew arrives, false otherwise.
+	 */
+	boolean isArrival(double value) {
+		return value < probClient || (value >= crewsFrom && value < crewsFrom + probMaintenanceCrew);
+	}
+
+	/**
+	 * Sets a timer for the tick at which the next non-employee arrives.
+	 * 
+	 * @param from the first tick at which the arrival may happen
+	 */
+	private void scheduleNextArrival(int from) {
+		int next = simulation.sampleNextTick(from, probClient + probMaintenanceCrew, random);
+		if (next != Integer.MAX_VALUE) {
+			arrivalTimer = simulation.getTimers().schedule(next, this::arrive);
+		}
+	}
+
+	/**
+	 * Generates the non-employee due at the current tick: the type of user is
+	 * drawn in proportion to the probabilities of clients and maintenance crews.
+	 */
+	private void arrive() {
+		double arrivalProbability = Math.min(probClient + probMaintenanceCrew, 1);
+		generateNonEmployee(random.nextDouble() * arrivalProbability);
+		scheduleNextArrival(simulation.getTick() + 1);
+	}
+
 	/**
 	 * Generates new employees, specifically non-developers, Goggles, Mugtomes.
 	 */
@@ -121,6 +191,72 @@ public class ArrivalSimulator {
 		}
 	}
 
+	/**
+	 * Creates a user of the given type in the building, without letting it enter.
+	 * 
+	 * @param type the type of user
+	 * @return the new {@code User}
+	 */
+	User create(UserType type) {
+		switch (type) {
+		case CLIENT:
+			return new Client(building);
+		case MAINTENANCE_CREW:
+			return new MaintenanceCrew(building);
+		case NON_DEVELOPER:
+			return new NonDeveloper(building);
+		case GOGGLE:
+			return new Goggle(building);
+		case MUGTOME:
+			return new Mugtome(building);
+		default:
+			throw new IllegalArgumentException("Unknown type of user: " + type);
+		}
+	}
+
+	/**
+	 * Copies the number of arrivals, and the timer of the next one, from the
+	 * arrival simulator of another simulation, for a branch of it.
+	 * 
+	 * @param original the {@code ArrivalSimulator} to copy
+	 * @param fork     the {@link SimulationFork} of the branch
+	 */
+	void copyState(ArrivalSimulator original, SimulationFork fork) {
+		clients = original.clients;
+		maintenanceCrews = original.maintenanceCrews;
+		fork.timer(original.arrivalTimer, dueTick -> arrivalTimer = simulation.getTimers().schedule(dueTick, this::arrive));
+	}
+
+	/**
+	 * Writes the number of arrivals, and the timer of the next one, to a
+	 * checkpoint of the simulation.
+	 * 
+	 * @param out the {@link CheckpointWriter} of the checkpoint
+	 * @throws IOException if the checkpoint cannot be written.
+	 */
+	void writeState(CheckpointWriter out) throws IOException {
+		out.writeInt(clients);
+		out.writeInt(maintenanceCrews);
+		out.writeTimer(arrivalTimer);
+	}
+
+	/**
+	 * Reads the number of arrivals, and the timer of the next one, from a
+	 * checkpoint of the simulation.
+	 * 
+	 * @param in the {@link CheckpointReader} of the checkpoint
+	 * @throws IOException if the checkpoint cannot be read.
+	 */
+	void readState(CheckpointReader in) throws IOException {
+		clients = in.readInt();
+		maintenanceCrews = in.readInt();
+		in.readTimer(dueTick -> arrivalTimer = simulation.getTimers().schedule(dueTick, this::arrive));
+	}
+
+	public Random getRandom() {
+		return random;
+	}
+
 	public int getTotalDevelopers() {
 		return goggles + mugtomes;
 	}
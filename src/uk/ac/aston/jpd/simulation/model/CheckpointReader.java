@@ -0,0 +1,122 @@
+package uk.ac.aston.jpd.simulation.model;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntConsumer;
+
+import uk.ac.aston.jpd.simulation.model.TimingWheel.Timer;
+import uk.ac.aston.jpd.simulation.model.entities.Floor;
+import uk.ac.aston.jpd.simulation.model.entities.users.User;
+
+/**
+ * The class {@code CheckpointReader} reads the state of a {@link Simulation}
+ * from a checkpoint written by a {@link CheckpointWriter}. <br>
+ * The users are read first and registered by serial number, so that the
+ * floors and the elevator can refer to them. Timers are not registered as they
+ * are read: they are collected, and registered in their original order once
+ * the whole state has been read.
+ *
+ * @author Parminder
+ * @see Simulation#restore(java.nio.file.Path)
+ */
+public class CheckpointReader extends DataInputStream {
+
+	private final Simulation simulation;
+	private final Map<Integer, User> users = new HashMap<>();
+
+	/**
+	 * the timers read so far, by registration order, each as the function that
+	 * registers it again for its due tick
+	 */
+	private final TreeMap<Long, Registration> timers = new TreeMap<>();
+
+	private static class Registration {
+		private final int dueTick;
+		private final IntConsumer register;
+
+		private Registration(int dueTick, IntConsumer register) {
+			this.dueTick = dueTick;
+			this.register = register;
+		}
+	}
+
+	/**
+	 * Creates a reader from the given stream, for the given simulation.
+	 *
+	 * @param in         the stream of the checkpoint
+	 * @param simulation the {@link Simulation} being restored
+	 */
+	public CheckpointReader(InputStream in, Simulation simulation) {
+		super(in);
+		this.simulation = simulation;
+	}
+
+	/**
+	 * Registers a user that has been read, so that it can be referred to.
+	 *
+	 * @param u the {@code User} read
+	 */
+	public void addUser(User u) {
+		users.put(u.getSerialNumber(), u);
+	}
+
+	/**
+	 * @return the user with the serial number read, or null.
+	 * @throws IOException if no user with that serial number has been read.
+	 */
+	public User readUser() throws IOException {
+		int serialNumber = readInt();
+		if (serialNumber == 0) {
+			return null;
+		}
+		User u = users.get(serialNumber);
+		if (u == null) {
+			throw new IOException("Unknown user in checkpoint: " + serialNumber);
+		}
+		return u;
+	}
+
+	/**
+	 * @return the floor with the level read, or null.
+	 * @throws IOException if the building has no such floor.
+	 */
+	public Floor readFloor() throws IOException {
+		int level = readInt();
+		Floor[] floors = simulation.getBuilding().getFloors();
+		if (level == -1) {
+			return null;
+		} else if (level < 0 || level >= floors.length) {
+			throw new IOException("Unknown floor in checkpoint: " + level);
+		}
+		return floors[level];
+	}
+
+	/**
+	 * Reads a timer written by {@link CheckpointWriter#writeTimer(Timer)}. If it
+	 * was pending, it will be registered again by the given function, which is
+	 * passed its due tick.
+	 *
+	 * @param register the function that registers the timer again
+	 */
+	public void readTimer(IntConsumer register) throws IOException {
+		if (readBoolean()) {
+			long sequence = readLong();
+			int dueTick = readInt();
+			timers.put(sequence, new Registration(dueTick, register));
+		}
+	}
+
+	/**
+	 * Registers again all the timers read, in their original order.
+	 */
+	void registerTimers() {
+		for (Registration r : timers.values()) {
+			r.register.accept(r.dueTick);
+		}
+		timers.clear();
+	}
+}
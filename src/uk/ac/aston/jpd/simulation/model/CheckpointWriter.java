@@ -0,0 +1,60 @@
+package uk.ac.aston.jpd.simulation.model;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import uk.ac.aston.jpd.simulation.model.TimingWheel.Timer;
+import uk.ac.aston.jpd.simulation.model.entities.Floor;
+import uk.ac.aston.jpd.simulation.model.entities.users.User;
+
+/**
+ * The class {@code CheckpointWriter} writes the state of a {@link Simulation}
+ * to a checkpoint. <br>
+ * Each part of the simulation writes its own state, in the same order it is
+ * read back by a {@link CheckpointReader}. References to floors and users are
+ * written as their level and serial number, and timers as their due tick and
+ * registration order, so that they can be registered again in the same order.
+ *
+ * @author Parminder
+ * @see Simulation#checkpoint(java.nio.file.Path)
+ */
+public class CheckpointWriter extends DataOutputStream {
+
+	/**
+	 * Creates a writer to the given stream.
+	 *
+	 * @param out the stream of the checkpoint
+	 */
+	public CheckpointWriter(OutputStream out) {
+		super(out);
+	}
+
+	/**
+	 * @param u the user to write, or null
+	 */
+	public void writeUser(User u) throws IOException {
+		writeInt((u != null) ? u.getSerialNumber() : 0);
+	}
+
+	/**
+	 * @param f the floor to write, or null
+	 */
+	public void writeFloor(Floor f) throws IOException {
+		writeInt((f != null) ? f.getLevel() : -1);
+	}
+
+	/**
+	 * Writes a timer, if it is still pending.
+	 *
+	 * @param timer the timer to write, or null
+	 */
+	public void writeTimer(Timer timer) throws IOException {
+		boolean pending = timer != null && timer.isPending();
+		writeBoolean(pending);
+		if (pending) {
+			writeLong(timer.getSequence());
+			writeInt(timer.getDueTick());
+		}
+	}
+}
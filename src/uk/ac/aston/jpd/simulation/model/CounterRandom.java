@@ -0,0 +1,126 @@
+package uk.ac.aston.jpd.simulation.model;
+
+import java.util.Random;
+
+/**
+ * The class {@code CounterRandom} is a {@link Random} whose values are not
+ * drawn from a sequence, but computed from a key: the seed of the simulation,
+ * the {@link Purpose} of the draws and the entity making them (e.g. the serial
+ * number of a user), together with the current tick and the number of draws
+ * already made by the stream in that tick. <br>
+ * Each value is obtained by mixing the key with the SplitMix64 finaliser, so
+ * the draws of an entity do not depend on the draws of any other entity, nor on
+ * the order in which entities are ticked.
+ * <p>
+ * Since a draw is a function of the tick, a value can also be looked at ahead
+ * of time through {@link #peekDouble(int)}, without drawing it.
+ * </p>
+ *
+ * @author Parminder
+ * @see Simulation.RandomStreams
+ */
+public class CounterRandom extends Random {
+	private static final long serialVersionUID = 1L;
+
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+	private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+	/**
+	 * What the values of a stream are drawn for. Streams with different purposes
+	 * are independent, even for the same entity.
+	 */
+	public enum Purpose {
+		ARRIVAL, FLOOR_CHOICE, FLOOR_CHANGE, STAY
+	}
+
+	private final Simulation simulation;
+	private final long key;
+
+	/**
+	 * the tick of the last draw, and the number of draws made in it
+	 */
+	private int lastTick = -1;
+	private int draws = 0;
+
+	/**
+	 * Creates the stream of the given entity, for the given purpose.
+	 *
+	 * @param simulation the {@link Simulation} providing the seed and the tick
+	 * @param purpose    what the values are drawn for
+	 * @param entity     a number that identifies the entity drawing the values
+	 */
+	public CounterRandom(Simulation simulation, Purpose purpose, int entity) {
+		super(0);
+		this.simulation = simulation;
+		this.key = mix(mix(mix(simulation.getSeed()) + (purpose.ordinal() + 1) * GOLDEN_GAMMA) + entity * GOLDEN_GAMMA);
+	}
+
+	/**
+	 * Streams are keyed by the seed of the simulation: the seed of the superclass
+	 * is not employed.
+	 */
+	@Override
+	public synchronized void setSeed(long seed) {
+	}
+
+	@Override
+	protected int next(int bits) {
+		return (int) (nextValue() >>> (Long.SIZE - bits));
+	}
+
+	@Override
+	public long nextLong() {
+		return nextValue();
+	}
+
+	@Override
+	public double nextDouble() {
+		return toDouble(nextValue());
+	}
+
+	/**
+	 * Provides the value that the first call to {@link #nextDouble()} in the
+	 * given tick returns, without drawing it.
+	 *
+	 * @param tick the tick of the draw
+	 * @return a value in [0, 1)
+	 */
+	public double peekDouble(int tick) {
+		return toDouble(valueOf(tick, 0));
+	}
+
+	/**
+	 * @return the next value of the stream in the current tick
+	 */
+	private long nextValue() {
+		int tick = simulation.getTick();
+		if (tick != lastTick) {
+			lastTick = tick;
+			draws = 0;
+		}
+		return valueOf(tick, draws++);
+	}
+
+	/**
+	 * @param tick the tick of the draw
+	 * @param draw the number of draws made before it in the same tick
+	 * @return the 64 random bits of the draw
+	 */
+	private long valueOf(int tick, int draw) {
+		return mix(mix(key + tick * GOLDEN_GAMMA) + draw * GOLDEN_GAMMA);
+	}
+
+	private static double toDouble(long value) {
+		return (value >>> 11) * DOUBLE_UNIT;
+	}
+
+	/**
+	 * @param z any value
+	 * @return the value scrambled by the finaliser of SplitMix64
+	 */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
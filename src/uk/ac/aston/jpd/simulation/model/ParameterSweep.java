@@ -0,0 +1,107 @@
+package uk.ac.aston.jpd.simulation.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * The class {@code ParameterSweep} runs independent {@link Simulation}s in
+ * parallel, one for each combination of parameters it is given, and collects a
+ * {@link SweepResult} for each of them.
+ * <p>
+ * Results are handed over in the same order as the combinations, each one as
+ * soon as its simulation (and all the previous ones) have finished. Therefore,
+ * the output does not depend on how many simulations are run at the same time.
+ * </p>
+ * 
+ * @author Parminder
+ */
+public class ParameterSweep {
+
+	private final int parallelism;
+
+	/**
+	 * Creates a {@code ParameterSweep} that runs up to the given number of
+	 * simulations at the same time.
+	 * 
+	 * @param parallelism the maximum number of simulations run at the same time
+	 * @throws IllegalArgumentException if parallelism is less than 1.
+	 */
+	public ParameterSweep(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Invalid parallelism: " + parallelism);
+		}
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Builds and runs a simulation for each of the given combinations, and passes
+	 * their results to the consumer, in the same order as the combinations.
+	 * 
+	 * @param combinations the {@link Simulation.Builder}s of the simulations to run
+	 * @param runTicks     the number of ticks for which each simulation is run
+	 * @param consumer     receives the result of each simulation
+	 */
+	public void run(List<Simulation.Builder> combinations, int runTicks, Consumer<SweepResult> consumer) {
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			List<Future<SweepResult>> results = new ArrayList<>();
+			for (Simulation.Builder combination : combinations) {
+				results.add(pool.submit(() -> runSimulation(combination, runTicks)));
+			}
+			for (Future<SweepResult> result : results) {
+				consumer.accept(waitFor(result));
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Builds and runs a simulation for each of the given combinations.
+	 * 
+	 * @param combinations the {@link Simulation.Builder}s of the simulations to run
+	 * @param runTicks     the number of ticks for which each simulation is run
+	 * @return the results of the simulations, in the same order as the
+	 *         combinations.
+	 */
+	public List<SweepResult> run(List<Simulation.Builder> combinations, int runTicks) {
+		List<SweepResult> results = new ArrayList<>();
+		run(combinations, runTicks, results::add);
+		return results;
+	}
+
+	private static SweepResult runSimulation(Simulation.Builder combination, int runTicks) {
+		Simulation simulation = combination.build();
+		simulation.runUntil(runTicks);
+		return new SweepResult(simulation);
+	}
+
+	/**
+	 * Waits for a simulation to finish. If the simulation failed, the exception it
+	 * threw is thrown again.
+	 * 
+	 * @param result the pending result of the simulation
+	 * @return the result of the simulation
+	 */
+	private static SweepResult waitFor(Future<SweepResult> result) {
+		try {
+			return result.get();
+		} catch (ExecutionException ex) {
+			if (ex.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) ex.getCause();
+			}
+			throw new IllegalStateException("Simulation failed", ex.getCause());
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Parameter sweep interrupted", ex);
+		}
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+}
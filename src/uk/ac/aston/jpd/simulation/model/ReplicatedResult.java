@@ -0,0 +1,57 @@
+package uk.ac.aston.jpd.simulation.model;
+
+/**
+ * The class {@code ReplicatedResult} stores the results of the replications of
+ * a combination of parameters run by an {@link AdaptiveReplication}: the
+ * summary of the metric over the replications, and the parameters of the
+ * combination, taken from its first replication.
+ * 
+ * @author Parminder
+ */
+public class ReplicatedResult {
+	private final ReplicationSummary summary = new ReplicationSummary();
+	private SweepResult first;
+	private boolean converged = false;
+
+	/**
+	 * Adds the result of a replication of the combination.
+	 * 
+	 * @param result the {@link SweepResult} of the replication
+	 * @param value  the value of the metric for the replication
+	 */
+	void add(SweepResult result, double value) {
+		if (first == null) {
+			first = result;
+		}
+		summary.add(value);
+	}
+
+	void setConverged(boolean converged) {
+		this.converged = converged;
+	}
+
+	public ReplicationSummary getSummary() {
+		return summary;
+	}
+
+	public int getReplications() {
+		return summary.getCount();
+	}
+
+	/**
+	 * @return true if the confidence interval of the metric became narrower than
+	 *         the target width, false if the budget of replications ran out
+	 *         before.
+	 */
+	public boolean isConverged() {
+		return converged;
+	}
+
+	public double getProbabilityP() {
+		return first.getProbabilityP();
+	}
+
+	public double getProbabilityQ() {
+		return first.getProbabilityQ();
+	}
+}
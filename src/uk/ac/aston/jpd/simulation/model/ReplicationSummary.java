@@ -0,0 +1,92 @@
+package uk.ac.aston.jpd.simulation.model;
+
+/**
+ * The class {@code ReplicationSummary} summarises a value observed in
+ * independent replications of a simulation, e.g. the number of complaints for
+ * different seeds, or the difference in complaints between two combinations of
+ * parameters run with the same seed. <br>
+ * Its mean and variance are updated as each value is added (Welford's method is
+ * employed), and it provides a 95% confidence interval for the mean, based on
+ * Student's t distribution.
+ *
+ * @author Parminder
+ */
+public class ReplicationSummary {
+
+	/**
+	 * the quantiles of Student's t distribution for a two-sided 95% confidence
+	 * interval, by degrees of freedom from 1 to 30
+	 */
+	private static final double[] T_95 = { 12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+			2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086, 2.080, 2.074, 2.069, 2.064, 2.060,
+			2.056, 2.052, 2.048, 2.045, 2.042 };
+	private static final double T_95_40 = 2.021, T_95_60 = 2.000, T_95_120 = 1.980;
+
+	private int count = 0;
+	private double mean = 0;
+	private double squaredDeviations = 0;
+
+	/**
+	 * Adds the value observed in a replication.
+	 *
+	 * @param value the value
+	 */
+	public void add(double value) {
+		count++;
+		double delta = value - mean;
+		mean += delta / count;
+		squaredDeviations += delta * (value - mean);
+	}
+
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * @return the mean of the values, or {@code Double.NaN} if no value has been
+	 *         added.
+	 */
+	public double getMean() {
+		return (count > 0) ? mean : Double.NaN;
+	}
+
+	/**
+	 * @return the sample variance of the values. Returns {@code Double.NaN} if
+	 *         less than two values have been added.
+	 */
+	public double getVariance() {
+		return (count > 1) ? squaredDeviations / (count - 1) : Double.NaN;
+	}
+
+	/**
+	 * Provides the half-width of the 95% confidence interval for the mean, i.e.
+	 * the mean is between {@code getMean() - getHalfWidth()} and
+	 * {@code getMean() + getHalfWidth()} with 95% confidence. <br>
+	 * Between the tabulated degrees of freedom above 30, the quantile of the lower
+	 * ones is employed, so the interval is never too narrow.
+	 *
+	 * @return the half-width, or {@code Double.NaN} if less than two values have
+	 *         been added.
+	 */
+	public double getHalfWidth() {
+		return quantile(count - 1) * Math.sqrt(getVariance() / count);
+	}
+
+	/**
+	 * @param degrees the degrees of freedom
+	 * @return the quantile of Student's t distribution for a two-sided 95%
+	 *         interval, or {@code Double.NaN} if there is no degree of freedom.
+	 */
+	private static double quantile(int degrees) {
+		if (degrees < 1) {
+			return Double.NaN;
+		} else if (degrees <= T_95.length) {
+			return T_95[degrees - 1];
+		} else if (degrees < 60) {
+			return (degrees < 40) ? T_95[T_95.length - 1] : T_95_40;
+		} else if (degrees < 120) {
+			return T_95_60;
+		}
+		return T_95_120;
+	}
+}
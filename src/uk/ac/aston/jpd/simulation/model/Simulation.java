@@ -1,16 +1,34 @@
 package uk.ac.aston.jpd.simulation.model;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.TreeMap;
 
+import uk.ac.aston.jpd.simulation.model.CounterRandom.Purpose;
 import uk.ac.aston.jpd.simulation.model.entities.Building;
+import uk.ac.aston.jpd.simulation.model.entities.Floor;
+import uk.ac.aston.jpd.simulation.model.entities.users.Employee;
 import uk.ac.aston.jpd.simulation.model.entities.users.User;
+import uk.ac.aston.jpd.simulation.model.entities.users.UserType;
+import uk.ac.aston.jpd.simulation.model.trace.TraceEvent;
+import uk.ac.aston.jpd.simulation.model.trace.TraceRecorder;
 
 /**
  * The class {@code Simulation} represents an elevator simulation within a
  * building. <br>
  * Before creating the simulation, it allows to set specific parameters, such as
- * the capacity of the elevator, the number of floors in the building, the
- * numbers and types of users in the building.
+ * the number and capacity of the elevators, the number of floors in the
+ * building, the numbers and types of users in the building.
  * 
  * @author Parminder
  */
@@ -20,22 +38,69 @@ public class Simulation {
 	private static final double DEFAULT_PROB_P = 0.001, DEFAULT_PROB_Q = 0.002, DEFAULT_PROB_MC = 0.005;
 	private static final int DEFAULT_FLOORS = 7;
 	private static final int DEFAULT_ELEVATOR_CAPACITY = 4;
+	private static final int DEFAULT_ELEVATORS = 1;
 	private static final int DEFAULT_NON_DEVS = 10, DEFAULT_GOGGLES = 5, DEFAULT_MUGTOMES = 5;	
+	private static final int CHECKPOINT_MAGIC = 0x454C5643; // "ELVC"
+	private static final short CHECKPOINT_VERSION = 1;
 	
 	private ArrivalSimulator arrivalSimulator;
 	private Building building;
 	private WaitingStatistics statistics;
+	private TimingWheel timers = new TimingWheel();
+	private TraceRecorder trace;
 	
-	private Random random;
+	private SimulationRandom random;
+	private Sampling sampling;
+	private RandomStreams streams;
+	private int seed;
 	private double probP, probQ, probMC; 
 	private int numFloors;
 	private int elevatorCapacity;
+	private int numElevators;
 	private int nonDevs, goggles, mugtomes;
 	
 	private int tick = 0;
 	private int arrivals = 0;
 	private int exits = 0;
 	private int complaints = 0;
+	private int serialNumbers = 0;
+	
+	/**
+	 * keeps track of how many users of each type have been created so far
+	 */
+	private final HashMap<String, Integer> userNumbers = new HashMap<>();
+	
+	/**
+	 * The ways random arrivals and floor changes can be sampled: <br>
+	 * - {@code PER_TICK}: at each tick, a random number is drawn for the arrivals
+	 * and for each employee on a floor, and compared with the probabilities. <br>
+	 * - {@code GEOMETRIC}: the number of ticks until the next arrival, or until an
+	 * employee changes floor, is drawn from the geometric distribution as soon as
+	 * the previous one has happened, and a timer is set for it. Nothing is drawn
+	 * in the ticks in between. The arrivals and floor changes follow the same
+	 * distribution as with {@code PER_TICK}, but the results for a given seed are
+	 * different.
+	 */
+	public enum Sampling {
+		PER_TICK, GEOMETRIC
+	}
+	
+	/**
+	 * The ways random values are provided to the parts of the simulation: <br>
+	 * - {@code SHARED}: all the parts draw from the same {@link SimulationRandom},
+	 * so the results depend on the order in which they draw. <br>
+	 * - {@code COUNTER}: each user, and the arrivals, has its own
+	 * {@link CounterRandom} stream for each purpose, whose values only depend on
+	 * the seed, the tick and the draws made by that stream. Employees are keyed by
+	 * serial number and non-employees by arrival tick, so a seed gives the same
+	 * streams whatever the probabilities (common random numbers). Changing the
+	 * draws of one part does not change the values drawn by any other, and the
+	 * results do not depend on the order in which the parts are ticked. The
+	 * results for a given seed are different from {@code SHARED}.
+	 */
+	public enum RandomStreams {
+		SHARED, COUNTER
+	}
 		
 	/**
 	 * The class {@code Simulation.Builder} allows to build a {@link Simulation}
@@ -44,8 +109,10 @@ public class Simulation {
 	 * In order to do so, it allows to set some parameters: the seed, the
 	 * probability of users changing the floor, the probability of new clients and
 	 * maintenance crews, the number of floors for the building, the elevator
-	 * capacity and the number of employees within the building - i.e.
-	 * non-developers, Goggle developers and Mugtome developers.
+	 * capacity, the number of elevators and the number of employees within the
+	 * building - i.e. non-developers, Goggle developers and Mugtome developers. It
+	 * also allows to choose the {@link Sampling} of arrivals and floor changes, the {@link RandomStreams} of the simulation, and to record a trace of the events through a
+	 * {@link TraceRecorder}.
 	 * </p>
 	 * 
 	 * If these parameters are not provided, default values are employed.
@@ -57,7 +124,11 @@ public class Simulation {
 		private double probP = DEFAULT_PROB_P, probQ = DEFAULT_PROB_Q, probMC = DEFAULT_PROB_MC;
 		private int floors = DEFAULT_FLOORS;
 		private int elevatorCapacity = DEFAULT_ELEVATOR_CAPACITY;
+		private int elevators = DEFAULT_ELEVATORS;
 		private int nonDevs = DEFAULT_NON_DEVS, goggles = DEFAULT_GOGGLES, mugtomes = DEFAULT_MUGTOMES;
+		private Sampling sampling = Sampling.PER_TICK;
+		private RandomStreams streams = RandomStreams.SHARED;
+		private TraceRecorder trace = null;
 	
 		public Builder seed(int seed) {
 			this.seed = seed;
@@ -89,6 +160,11 @@ public class Simulation {
 			return this;
 		}
 		
+		public Builder elevators(int numElevators) {
+			this.elevators = numElevators;
+			return this;
+		}
+		
 		public Builder nonDevelopers(int numNonDevs) {
 			this.nonDevs = numNonDevs;
 			return this;
@@ -104,8 +180,23 @@ public class Simulation {
 			return this;
 		}
 		
+		public Builder sampling(Sampling sampling) {
+			this.sampling = sampling;
+			return this;
+		}
+		
+		public Builder randomStreams(RandomStreams streams) {
+			this.streams = streams;
+			return this;
+		}
+		
+		public Builder trace(TraceRecorder trace) {
+			this.trace = trace;
+			return this;
+		}
+		
 		public Simulation build() {
-			return new Simulation(seed, probP, probQ, probMC, floors, elevatorCapacity, nonDevs, goggles, mugtomes);
+			return new Simulation(seed, probP, probQ, probMC, floors, elevatorCapacity, elevators, nonDevs, goggles, mugtomes, sampling, streams, trace);
 		}
 	}
 
@@ -118,18 +209,26 @@ public class Simulation {
 	 * @param probQ {@code double} value representing the probability of new clients.
 	 * @param probMC {@code double} value representing the probability of new maintenance crews
 	 * @param numFloors the number of floors of the {@link Building}
-	 * @param elevatorCapacity the total capacity of the {@link Elevator}
+	 * @param elevatorCapacity the total capacity of each {@link Elevator}
+	 * @param numElevators the number of elevators of the {@link Building}
 	 * @param nonDevs the number of non-developers initially in the building
 	 * @param goggles the number of Goggle developers initially in the building
 	 * @param mugtomes the number of Mugtome developers initially in the building
+	 * @param sampling the {@link Sampling} of arrivals and floor changes
+	 * @param streams the {@link RandomStreams} of the simulation
+	 * @param trace the {@link TraceRecorder} of the events, or null
 	 */
-	private Simulation(int seed, double probP, double probQ, double probMC, int numFloors, int elevatorCapacity, int nonDevs, int goggles, int mugtomes) {
-		this.random = new Random(seed);
+	private Simulation(int seed, double probP, double probQ, double probMC, int numFloors, int elevatorCapacity, int numElevators, int nonDevs, int goggles, int mugtomes, Sampling sampling, RandomStreams streams, TraceRecorder trace) {
+		this.random = new SimulationRandom(seed);
+		this.seed = seed;
+		this.sampling = sampling;
+		this.streams = streams;
 		this.probP = probP;
 		this.probQ = probQ;
 		this.probMC = probMC;
 		this.numFloors = numFloors;
 		this.elevatorCapacity = elevatorCapacity;
+		this.numElevators = numElevators;
 		this.nonDevs = nonDevs;
 		this.goggles = goggles;
 		this.mugtomes = mugtomes;
@@ -137,18 +236,197 @@ public class Simulation {
 		this.building = new Building(this);		
 		this.statistics = new WaitingStatistics(this);		
 		this.arrivalSimulator = new ArrivalSimulator(this);			
+		
+		this.trace = trace;
+		if (trace != null) {
+			trace.start(this);
+		}
 	}	
 
 	/**
 	 * Delegates the ticking to the {@link ArrivalSimulator} and to the {@link Buiding}.
+	 * <br> Before the building ticks, the timers due at this tick are fired: with
+	 * {@code PER_TICK} sampling, the non-employees run their tasks when their
+	 * floor ticks them, in turn with the other users.
 	 * <br> Then, increases the number of ticks.
 	 */
 	public void tick() {
 		arrivalSimulator.tick();
+		timers.fireUntil(tick);
 		building.tick();
 		++tick;
 	}
 
+	/**
+	 * Runs the simulation for the given number of ticks.
+	 * 
+	 * @param ticks the number of ticks to simulate
+	 * @see #runUntil(int)
+	 */
+	public void run(int ticks) {
+		runUntil(tick + ticks);
+	}
+
+	/**
+	 * Runs the simulation until the given tick is reached, jumping from one event
+	 * to the next. <br>
+	 * An event is anything other than the elevators travelling: a timer that is
+	 * due (a non-employee leaving or quitting, a client getting annoyed and, with
+	 * {@code GEOMETRIC} sampling, an arrival or a floor change), a random arrival
+	 * or floor change, or an elevator opening its doors at a floor, or serving it
+	 * while they are open. Only the ticks with an event are simulated: the ticks
+	 * in between are skipped in one step, the elevators travelling straight to
+	 * where they would be. The results are exactly the same as calling
+	 * {@link #tick()} once per tick.
+	 * <p>
+	 * The first tick, at which all employees arrive, is always simulated.
+	 * </p>
+	 * 
+	 * @param end the tick at which the run stops
+	 */
+	public void runUntil(int end) {
+		while (tick < end) {
+			if (tick > 0) {
+				skipTo(nextEventTick(end));
+			}
+			if (tick < end) {
+				tick();
+			}
+		}
+	}
+
+	/**
+	 * Finds the first tick at which an event other than a random arrival or
+	 * floor change is due: a timer, or an elevator stopping at a floor.
+	 * 
+	 * @param end the tick at which the run stops
+	 * @return the tick of the event, or the end of the run if it comes first
+	 */
+	private int nextEventTick(int end) {
+		int next = Math.min(timers.nextDueTick(), end);
+		int travel = building.getTravelTicks();
+		return (travel < next - tick) ? tick + travel : next;
+	}
+
+	/**
+	 * Skips the ticks up to the given horizon, or up to the first tick with a
+	 * random arrival or floor change if it comes earlier, by replaying, tick by
+	 * tick, the draws that the simulation makes on the random stream: one for the
+	 * arrivals and one for each employee on a floor. Nobody else draws, as the
+	 * users waiting in the queues or in the elevators only react to their timers.
+	 * <br>
+	 * As soon as a draw triggers an arrival or a floor change, the stream is
+	 * rewound to the start of that tick and the simulation stops there. The
+	 * elevators then travel for the ticks skipped.
+	 * <p>
+	 * With {@code GEOMETRIC} sampling, nothing is drawn between two events:
+	 * arrivals and floor changes are timers, so the simulation moves straight to
+	 * the horizon. With {@code COUNTER} streams, the draws of each tick are looked
+	 * at ahead of time instead of replayed.
+	 * </p>
+	 * 
+	 * @param horizon the tick at which skipping stops
+	 */
+	private void skipTo(int horizon) {
+		if (horizon <= tick) {
+			return;
+		}
+		int from = tick;
+		if (sampling == Sampling.GEOMETRIC) {
+			tick = horizon;
+		} else if (streams == RandomStreams.COUNTER) {
+			peekAhead(horizon);
+		} else {
+			replayDraws(horizon);
+		}
+		building.travelAhead(from, tick - from);
+	}
+
+	/**
+	 * Replays the draws of the {@code SHARED} stream tick by tick, up to the given
+	 * horizon or to the first tick in which a draw triggers an arrival or a floor
+	 * change, at whose start the stream is rewound.
+	 * 
+	 * @param horizon the tick at which replaying stops
+	 */
+	private void replayDraws(int horizon) {
+		int employees = building.getEmployeesOnFloors();
+		for (; tick < horizon; tick++) {
+			long state = random.getState();
+			if (random.nextDouble() < probQ + probMC) {
+				random.setState(state);
+				return;
+			}
+			for (int i = 0; i < employees; i++) {
+				if (random.nextDouble() < probP) {
+					random.setState(state);
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Skips ticks with {@code COUNTER} streams, up to the given horizon or to the
+	 * first tick with an arrival or a floor change, by looking at the first draw
+	 * of each tick of the arrivals and of the employees on a floor, which are the
+	 * draws the simulation would make in that tick. Nothing has to be rewound.
+	 * 
+	 * @param horizon the tick at which skipping stops
+	 */
+	private void peekAhead(int horizon) {
+		CounterRandom arrivals = (CounterRandom) arrivalSimulator.getRandom();
+		for (; tick < horizon; tick++) {
+			if (arrivalSimulator.isArrival(arrivals.peekDouble(tick))) {
+				return;
+			}
+			for (Floor f : building.getFloors()) {
+				List<User> onFloor = f.getOnFloor();
+				for (int i = 0; i < onFloor.size(); i++) {
+					User u = onFloor.get(i);
+					if (u instanceof Employee && ((CounterRandom) u.getRandom(Purpose.FLOOR_CHANGE)).peekDouble(tick) < probP) {
+						return;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Draws the tick of the next occurrence of something that happens at each
+	 * tick with the given probability, i.e. the given tick plus a number of ticks
+	 * drawn from the geometric distribution.
+	 * 
+	 * @param from        the first tick at which it may happen
+	 * @param probability the probability that it happens at each tick
+	 * @return the tick at which it happens, or {@code Integer.MAX_VALUE} if it
+	 *         never happens.
+	 */
+	public int sampleNextTick(int from, double probability) {
+		return sampleNextTick(from, probability, random);
+	}
+
+	/**
+	 * Draws the tick of the next occurrence of something that happens at each
+	 * tick with the given probability, from the given random stream.
+	 * 
+	 * @param from        the first tick at which it may happen
+	 * @param probability the probability that it happens at each tick
+	 * @param stream      the {@code Random} to draw from
+	 * @return the tick at which it happens, or {@code Integer.MAX_VALUE} if it
+	 *         never happens.
+	 * @see #sampleNextTick(int, double)
+	 */
+	public int sampleNextTick(int from, double probability, Random stream) {
+		if (probability >= 1) {
+			return from;
+		} else if (probability <= 0) {
+			return Integer.MAX_VALUE;
+		}
+		double failures = Math.floor(Math.log(1 - stream.nextDouble()) / Math.log1p(-probability));
+		return (failures < Integer.MAX_VALUE - from) ? from + (int) failures : Integer.MAX_VALUE;
+	}
+
 	/**
 	 * Asks the {@link Building} to let the given user enter.
 	 * 
@@ -157,6 +435,7 @@ public class Simulation {
 	public void enter(User incoming) {
 		if (building.enter(incoming)) {
 			arrivals++;	
+			record(TraceEvent.ARRIVAL, incoming, 0, -1, incoming.getRequiredSpace());
 		}
 	}
 
@@ -164,10 +443,11 @@ public class Simulation {
 	 * Increases the {@code int} value that keeps track of how many users have left
 	 * the building so far.
 	 * 
-	 * @param incoming the {@code User} attempting to enter the building
+	 * @param outgoing the {@code User} that has left the building
 	 */
-	public void quit() {
+	public void quit(User outgoing) {
 		exits++;
+		record(TraceEvent.QUIT, outgoing, 0, -1, 0);
 	}
 
 	/**
@@ -179,6 +459,9 @@ public class Simulation {
 	public void queueJoined(User u) {
 		if (u != null) { 
 			statistics.queueJoined(u);
+			if (trace != null) {
+				record(TraceEvent.QUEUE_JOIN, u, u.getCurrentFloor().getLevel(), -1, u.getRequest().getTargetFloor().getLevel());
+			}
 		}
 	}
 	
@@ -190,15 +473,276 @@ public class Simulation {
 	 */
 	public void servingStarted(User u) {
 		if (u != null) {
+			if (trace != null) {
+				record(TraceEvent.BOARD, u, u.getCurrentFloor().getLevel(), u.getElevator().getIndex(),
+						u.getRequest().getTargetFloor().getLevel());
+			}
 			statistics.servingStarted(u);
 		}
 	}
 	
+	/**
+	 * Saves the full state of the simulation to the given file, replacing it if it
+	 * exists, so that the simulation can be resumed later by
+	 * {@link #restore(Path)}. <br>
+	 * The checkpoint is a versioned binary file: the parameters of the simulation,
+	 * its counters and the state of the random generator, then the users, the
+	 * floors and the elevators, the arrivals and the waiting statistics. Each part
+	 * writes its own state; timers are written with their owner, and registered
+	 * again in the same order when the checkpoint is restored.
+	 * <p>
+	 * The trace of the simulation, if any, is not part of the checkpoint.
+	 * </p>
+	 * 
+	 * @param file the path of the checkpoint
+	 * @throws IOException if the checkpoint cannot be written.
+	 */
+	public void checkpoint(Path file) throws IOException {
+		try (CheckpointWriter out = new CheckpointWriter(new BufferedOutputStream(Files.newOutputStream(file)))) {
+			out.writeInt(CHECKPOINT_MAGIC);
+			out.writeShort(CHECKPOINT_VERSION);
+			out.writeInt(seed);
+			out.writeDouble(probP);
+			out.writeDouble(probQ);
+			out.writeDouble(probMC);
+			out.writeInt(numFloors);
+			out.writeInt(elevatorCapacity);
+			out.writeInt(nonDevs);
+			out.writeInt(goggles);
+			out.writeInt(mugtomes);
+			out.writeByte(sampling.ordinal());
+			out.writeByte(streams.ordinal());
+			out.writeInt(numElevators);
+
+			out.writeInt(tick);
+			out.writeInt(arrivals);
+			out.writeInt(exits);
+			out.writeInt(complaints);
+			out.writeInt(serialNumbers);
+			Map<String, Integer> numbers = new TreeMap<>(userNumbers);
+			out.writeInt(numbers.size());
+			for (Map.Entry<String, Integer> entry : numbers.entrySet()) {
+				out.writeUTF(entry.getKey());
+				out.writeInt(entry.getValue());
+			}
+			out.writeLong(random.getState());
+			out.writeInt(timers.getCurrentTick());
+
+			List<User> users = building.getUsers();
+			out.writeInt(users.size());
+			for (User u : users) {
+				out.writeByte(u.getType().getCode());
+				u.writeState(out);
+			}
+			building.writeState(out);
+			arrivalSimulator.writeState(out);
+			statistics.writeState(out);
+		}
+	}
+
+	/**
+	 * Creates a simulation from a checkpoint saved by {@link #checkpoint(Path)}.
+	 * Running it produces exactly the same results as running the simulation that
+	 * was saved.
+	 * 
+	 * @param file the path of the checkpoint
+	 * @return the restored {@code Simulation}
+	 * @throws IOException              if the checkpoint cannot be read.
+	 * @throws IllegalArgumentException if the file is not a checkpoint, or it has
+	 *                                  been written in another format version.
+	 */
+	public static Simulation restore(Path file) throws IOException {
+		try (InputStream stream = new BufferedInputStream(Files.newInputStream(file))) {
+			DataInputStream header = new DataInputStream(stream);
+			if (header.readInt() != CHECKPOINT_MAGIC) {
+				throw new IllegalArgumentException("Not a checkpoint file: " + file);
+			}
+			short version = header.readShort();
+			if (version != CHECKPOINT_VERSION) {
+				throw new IllegalArgumentException("Unsupported checkpoint version: " + version);
+			}
+			Simulation simulation = new Builder()
+					.seed(header.readInt())
+					.probabilityP(header.readDouble()).probabilityQ(header.readDouble()).probabilityMaintenance(header.readDouble())
+					.numFloors(header.readInt()).elevatorCapacity(header.readInt())
+					.nonDevelopers(header.readInt()).goggles(header.readInt()).mugtomes(header.readInt())
+					.sampling(Sampling.values()[header.readByte()])
+					.randomStreams(RandomStreams.values()[header.readByte()])
+					.elevators(header.readInt())
+					.build();
+			simulation.readState(new CheckpointReader(stream, simulation));
+			return simulation;
+		}
+	}
+
+	/**
+	 * Reads the state of the simulation from a checkpoint, after its parameters.
+	 * 
+	 * @param in the {@link CheckpointReader} of the checkpoint
+	 * @throws IOException if the checkpoint cannot be read.
+	 */
+	private void readState(CheckpointReader in) throws IOException {
+		int savedTick = in.readInt();
+		int savedArrivals = in.readInt();
+		int savedExits = in.readInt();
+		int savedComplaints = in.readInt();
+		int savedSerialNumbers = in.readInt();
+		Map<String, Integer> savedUserNumbers = new HashMap<>();
+		int types = in.readInt();
+		for (int i = 0; i < types; i++) {
+			savedUserNumbers.put(in.readUTF(), in.readInt());
+		}
+		long randomState = in.readLong();
+		timers.fireUntil(in.readInt());
+
+		/* creating the users moves the counters, which are restored afterwards */
+		int users = in.readInt();
+		UserType[] userTypes = UserType.values();
+		for (int i = 0; i < users; i++) {
+			User u = arrivalSimulator.create(userTypes[in.readByte()]);
+			u.readState(in);
+			in.addUser(u);
+		}
+		building.readState(in);
+		arrivalSimulator.readState(in);
+		statistics.readState(in);
+		in.registerTimers();
+
+		tick = savedTick;
+		arrivals = savedArrivals;
+		exits = savedExits;
+		complaints = savedComplaints;
+		serialNumbers = savedSerialNumbers;
+		userNumbers.clear();
+		userNumbers.putAll(savedUserNumbers);
+		random.setState(randomState);
+	}
+
+	/**
+	 * Creates an independent copy of the simulation, which carries on exactly as
+	 * this one would. The copy takes time proportional to the users in the
+	 * building, and nothing is serialised.
+	 * 
+	 * @return the new {@code Simulation}
+	 * @see #fork(Builder)
+	 */
+	public Simulation fork() {
+		return fork(new Builder()
+				.seed(seed).probabilityP(probP).probabilityQ(probQ).probabilityMaintenance(probMC)
+				.numFloors(numFloors).elevatorCapacity(elevatorCapacity)
+				.elevators(numElevators)
+				.nonDevelopers(nonDevs).goggles(goggles).mugtomes(mugtomes)
+				.sampling(sampling).randomStreams(streams));
+	}
+
+	/**
+	 * Creates a copy of the simulation which, from now on, runs with the parameters
+	 * of the given builder, e.g. with a different elevator capacity or different
+	 * probabilities. <br>
+	 * The state of the simulation is copied as it is, including the random
+	 * generator: the seed and the numbers of employees of the builder are
+	 * ignored. The branch has the trace of the builder, if any.
+	 * 
+	 * @param parameters the {@link Builder} with the parameters of the branch
+	 * @return the new {@code Simulation}
+	 * @throws IllegalArgumentException if the builder has a different number of
+	 *                                  floors or elevators, sampling or random
+	 *                                  streams.
+	 */
+	public Simulation fork(Builder parameters) {
+		if (parameters.floors != numFloors || parameters.elevators != numElevators || parameters.sampling != sampling
+				|| parameters.streams != streams) {
+			throw new IllegalArgumentException("A branch must have the same floors, elevators, sampling and random streams");
+		}
+		Simulation branch = new Simulation(seed, parameters.probP, parameters.probQ, parameters.probMC, numFloors,
+				parameters.elevatorCapacity, numElevators, nonDevs, goggles, mugtomes, sampling, streams, parameters.trace);
+		SimulationFork fork = new SimulationFork(branch);
+		branch.timers.fireUntil(timers.getCurrentTick());
+
+		for (User original : building.getUsers()) {
+			User copy = branch.arrivalSimulator.create(original.getType());
+			copy.copyState(original, fork);
+			fork.addUser(copy);
+		}
+		branch.building.copyState(building, fork);
+		branch.arrivalSimulator.copyState(arrivalSimulator, fork);
+		branch.statistics.copyState(statistics);
+		fork.registerTimers();
+
+		branch.tick = tick;
+		branch.arrivals = arrivals;
+		branch.exits = exits;
+		branch.complaints = complaints;
+		branch.serialNumbers = serialNumbers;
+		branch.userNumbers.clear();
+		branch.userNumbers.putAll(userNumbers);
+		branch.random.setState(random.getState());
+		return branch;
+	}
+
+	/**
+	 * Records an event in the trace of the simulation, if any.
+	 * 
+	 * @param event    the kind of event
+	 * @param u        the {@code User} the event refers to, or null
+	 * @param level    the level of the floor where the event happened
+	 * @param elevator the index of the elevator the event refers to, or -1
+	 * @param argument a value that depends on the event
+	 * @see TraceRecorder
+	 */
+	public void record(TraceEvent event, User u, int level, int elevator, int argument) {
+		record(tick, event, u, level, elevator, argument);
+	}
+
+	/**
+	 * Records an event that happened at the given tick in the trace of the
+	 * simulation, if any, e.g. the move of an elevator over ticks that have been
+	 * skipped.
+	 * 
+	 * @param tick     the tick of the event, which must not come before the last
+	 *                 one recorded
+	 * @param event    the kind of event
+	 * @param u        the {@code User} the event refers to, or null
+	 * @param level    the level of the floor where the event happened
+	 * @param elevator the index of the elevator the event refers to, or -1
+	 * @param argument a value that depends on the event
+	 * @see TraceRecorder
+	 */
+	public void record(int tick, TraceEvent event, User u, int level, int elevator, int argument) {
+		if (trace != null) {
+			trace.record(tick, event, u, level, elevator, argument);
+		}
+	}
+	
+	/**
+	 * Provides a number that identifies a new user within this simulation, whatever
+	 * its type. Numbers start from 1.
+	 * 
+	 * @return the serial number of the user
+	 */
+	public int nextSerialNumber() {
+		return ++serialNumbers;
+	}
+	
+	/**
+	 * Provides the next number for a user of the given type, so that the IDs of
+	 * users are unique within this simulation. Numbers start from 1.
+	 * 
+	 * @param identifier the identifier of the type of user
+	 * @return the number to be appended to the identifier
+	 */
+	public int nextUserNumber(String identifier) {
+		return userNumbers.merge(identifier, 1, Integer::sum);
+	}
+	
 	/**
 	 * Increases the total number of complaints by users.
+	 * 
+	 * @param complainant the {@code User} filing the complaint
 	 */
-	public void fileComplaint()	{
+	public void fileComplaint(User complainant)	{
 		complaints++;
+		record(TraceEvent.COMPLAINT, complainant, complainant.getCurrentFloor().getLevel(), -1, 0);
 	}
 	
 	public int getTick() {
@@ -213,14 +757,48 @@ public class Simulation {
 		return building;
 	}
 
+	public TimingWheel getTimers() {
+		return timers;
+	}
+
 	public WaitingStatistics getWaitingStatistics() {
 		return statistics;
 	}
 
+	public int getSeed() {
+		return seed;
+	}
+
 	public Random getRandom() {
 		return random;
 	}
 	
+	/**
+	 * Provides the random stream of the given entity for the given purpose. With
+	 * {@code SHARED} streams, this is the random generator of the simulation.
+	 * 
+	 * @param purpose what the values are drawn for
+	 * @param entity  a number that identifies the entity drawing the values, e.g.
+	 *                the serial number of a user
+	 * @return a {@code Random} for the entity
+	 * @see RandomStreams
+	 */
+	public Random getRandom(Purpose purpose, int entity) {
+		return (streams == RandomStreams.COUNTER) ? new CounterRandom(this, purpose, entity) : random;
+	}
+	
+	public RandomStreams getRandomStreams() {
+		return streams;
+	}
+	
+	public Sampling getSampling() {
+		return sampling;
+	}
+	
+	public TraceRecorder getTrace() {
+		return trace;
+	}
+	
 	public double getProbabilityP() {
 		return probP; //probability of changing floor
 	}
@@ -241,6 +819,10 @@ public class Simulation {
 		return elevatorCapacity;
 	}
 	
+	public int getTotalElevators() {
+		return numElevators;
+	}
+	
 	public int getNonDevs() {
 		return nonDevs;
 	}
@@ -0,0 +1,108 @@
+package uk.ac.aston.jpd.simulation.model;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntConsumer;
+
+import uk.ac.aston.jpd.simulation.model.TimingWheel.Timer;
+import uk.ac.aston.jpd.simulation.model.entities.Floor;
+import uk.ac.aston.jpd.simulation.model.entities.users.User;
+
+/**
+ * The class {@code SimulationFork} copies the state of a {@link Simulation}
+ * into a branch, without going through a checkpoint. <br>
+ * Each part of the branch copies its own state from the matching part of the
+ * original, asking the fork for its counterparts of the floors, users and
+ * timers it refers to. As with a {@link CheckpointReader}, the users are copied
+ * first, and the timers are registered in their original order once the whole
+ * state has been copied.
+ *
+ * @author Parminder
+ * @see Simulation#fork()
+ */
+public class SimulationFork {
+
+	private final Simulation branch;
+	private final Map<Integer, User> users = new HashMap<>();
+
+	/**
+	 * the timers copied so far, by registration order
+	 */
+	private final TreeMap<Long, Registration> timers = new TreeMap<>();
+
+	private static class Registration {
+		private final int dueTick;
+		private final IntConsumer register;
+
+		private Registration(int dueTick, IntConsumer register) {
+			this.dueTick = dueTick;
+			this.register = register;
+		}
+	}
+
+	/**
+	 * Creates a fork into the given branch.
+	 *
+	 * @param branch the {@link Simulation} receiving the copy
+	 */
+	SimulationFork(Simulation branch) {
+		this.branch = branch;
+	}
+
+	/**
+	 * Registers the copy of a user, so that it can be referred to.
+	 *
+	 * @param copy the {@code User} of the branch
+	 */
+	void addUser(User copy) {
+		users.put(copy.getSerialNumber(), copy);
+	}
+
+	/**
+	 * @param original a user of the original simulation, or null
+	 * @return the copy of the user in the branch, or null.
+	 * @throws IllegalStateException if the user has not been copied.
+	 */
+	public User user(User original) {
+		if (original == null) {
+			return null;
+		}
+		User copy = users.get(original.getSerialNumber());
+		if (copy == null) {
+			throw new IllegalStateException("User not copied: " + original.getID());
+		}
+		return copy;
+	}
+
+	/**
+	 * @param original a floor of the original simulation, or null
+	 * @return the floor of the branch at the same level, or null.
+	 */
+	public Floor floor(Floor original) {
+		return (original != null) ? branch.getBuilding().getFloors()[original.getLevel()] : null;
+	}
+
+	/**
+	 * Copies a timer, if it is still pending: it will be registered in the branch
+	 * by the given function, which is passed its due tick.
+	 *
+	 * @param original the timer of the original simulation, or null
+	 * @param register the function that registers the timer in the branch
+	 */
+	public void timer(Timer original, IntConsumer register) {
+		if (original != null && original.isPending()) {
+			timers.put(original.getSequence(), new Registration(original.getDueTick(), register));
+		}
+	}
+
+	/**
+	 * Registers all the timers copied, in their original order.
+	 */
+	void registerTimers() {
+		for (Registration r : timers.values()) {
+			r.register.accept(r.dueTick);
+		}
+		timers.clear();
+	}
+}
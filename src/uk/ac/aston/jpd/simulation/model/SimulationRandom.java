@@ -0,0 +1,60 @@
+package uk.ac.aston.jpd.simulation.model;
+
+import java.util.Random;
+
+/**
+ * The class {@code SimulationRandom} is a {@link Random} that produces exactly
+ * the same sequence of values as {@code java.util.Random} for a given seed, but
+ * exposes the internal state of the generator. <br>
+ * This allows the simulation to sample draws ahead of time and then rewind the
+ * generator, without changing the results of the simulation.
+ *
+ * @author Parminder
+ */
+public class SimulationRandom extends Random {
+	private static final long serialVersionUID = 1L;
+
+	private static final long MULTIPLIER = 0x5DEECE66DL;
+	private static final long ADDEND = 0xBL;
+	private static final long MASK = (1L << 48) - 1;
+
+	/**
+	 * the current state of the linear congruential generator. It is set by
+	 * {@link #setSeed(long)}, which is called by the superclass constructor.
+	 */
+	private long state;
+
+	/**
+	 * Creates a new generator with the given seed.
+	 *
+	 * @param seed the initial seed, as for {@link Random#Random(long)}
+	 */
+	public SimulationRandom(long seed) {
+		super(seed);
+	}
+
+	@Override
+	public synchronized void setSeed(long seed) {
+		super.setSeed(seed);
+		state = (seed ^ MULTIPLIER) & MASK;
+	}
+
+	@Override
+	protected int next(int bits) {
+		state = (state * MULTIPLIER + ADDEND) & MASK;
+		return (int) (state >>> (48 - bits));
+	}
+
+	public long getState() {
+		return state;
+	}
+
+	/**
+	 * Moves the generator to a state previously returned by {@link #getState()}.
+	 *
+	 * @param state the state to restore
+	 */
+	public void setState(long state) {
+		this.state = state & MASK;
+	}
+}
@@ -0,0 +1,78 @@
+package uk.ac.aston.jpd.simulation.model;
+
+/**
+ * The class {@code StatisticsSnapshot} is an immutable copy of the
+ * {@link WaitingStatistics} of a {@link Simulation} at a given tick, so that
+ * viewers can display them without querying the simulation again.
+ * 
+ * @author Parminder
+ */
+public class StatisticsSnapshot {
+	private final int tick;
+	private final long waits;
+	private final double averageWaitingTime;
+	private final double waitingTimeStandardDeviation;
+	private final int waitingTime95thPercentile;
+	private final int maxWaitingTime;
+	private final int complaints;
+	private final double complaintRate;
+
+	/**
+	 * Creates a {@code StatisticsSnapshot} with the given values.
+	 * 
+	 * @param tick                         the tick of the snapshot
+	 * @param waits                        the number of waits recorded
+	 * @param averageWaitingTime           the average waiting time
+	 * @param waitingTimeStandardDeviation the standard deviation of the waiting
+	 *                                     time
+	 * @param waitingTime95thPercentile    the 95th percentile of the waiting
+	 *                                     time, or -1 if no wait was recorded
+	 * @param maxWaitingTime               the longest waiting time, or -1 if no
+	 *                                     wait was recorded
+	 * @param complaints                   the number of complaints
+	 * @param complaintRate                the number of complaints per client
+	 */
+	StatisticsSnapshot(int tick, long waits, double averageWaitingTime, double waitingTimeStandardDeviation,
+			int waitingTime95thPercentile, int maxWaitingTime, int complaints, double complaintRate) {
+		this.tick = tick;
+		this.waits = waits;
+		this.averageWaitingTime = averageWaitingTime;
+		this.waitingTimeStandardDeviation = waitingTimeStandardDeviation;
+		this.waitingTime95thPercentile = waitingTime95thPercentile;
+		this.maxWaitingTime = maxWaitingTime;
+		this.complaints = complaints;
+		this.complaintRate = complaintRate;
+	}
+
+	public int getTick() {
+		return tick;
+	}
+
+	public long getWaits() {
+		return waits;
+	}
+
+	public double getAverageWaitingTime() {
+		return averageWaitingTime;
+	}
+
+	public double getWaitingTimeStandardDeviation() {
+		return waitingTimeStandardDeviation;
+	}
+
+	public int getWaitingTime95thPercentile() {
+		return waitingTime95thPercentile;
+	}
+
+	public int getMaxWaitingTime() {
+		return maxWaitingTime;
+	}
+
+	public int getComplaints() {
+		return complaints;
+	}
+
+	public double getComplaintRate() {
+		return complaintRate;
+	}
+}
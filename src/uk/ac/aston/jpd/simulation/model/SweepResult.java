@@ -0,0 +1,132 @@
+package uk.ac.aston.jpd.simulation.model;
+
+/**
+ * The class {@code SweepResult} stores the analysis data of a finished
+ * {@link Simulation}: the parameters it was built with (seed, p, q, the
+ * probability of maintenance crews, the building, its elevators and its
+ * employees), the number
+ * of complaints, the average, standard deviation, 95th percentile and maximum
+ * of the waiting time and the total number of clients and maintenance crews
+ * generated.
+ * 
+ * @author Parminder
+ */
+public class SweepResult {
+	private final int seed;
+	private final double probabilityP;
+	private final double probabilityQ;
+	private final double probabilityMaintenance;
+	private final int floors;
+	private final int elevatorCapacity;
+	private final int elevators;
+	private final int nonDevelopers;
+	private final int goggles;
+	private final int mugtomes;
+	private final int ticks;
+	private final int complaints;
+	private final double averageWaitingTime;
+	private final double waitingTimeStandardDeviation;
+	private final int waitingTime95thPercentile;
+	private final int maxWaitingTime;
+	private final int clients;
+	private final int maintenanceCrews;
+
+	/**
+	 * Creates a {@code SweepResult} with the current data of the given simulation.
+	 * 
+	 * @param simulation the {@link Simulation} that has finished running
+	 */
+	public SweepResult(Simulation simulation) {
+		WaitingStatistics statistics = simulation.getWaitingStatistics();
+		this.seed = simulation.getSeed();
+		this.probabilityP = simulation.getProbabilityP();
+		this.probabilityQ = simulation.getProbabilityQ();
+		this.probabilityMaintenance = simulation.getProbabilityMC();
+		this.floors = simulation.getTotalFloors();
+		this.elevatorCapacity = simulation.getElevatorCapacity();
+		this.elevators = simulation.getTotalElevators();
+		this.nonDevelopers = simulation.getNonDevs();
+		this.goggles = simulation.getGoggles();
+		this.mugtomes = simulation.getMugtomes();
+		this.ticks = simulation.getTick();
+		this.complaints = simulation.getComplaints();
+		this.averageWaitingTime = statistics.getAverageWaitingTime();
+		this.waitingTimeStandardDeviation = statistics.getWaitingTimeStandardDeviation();
+		this.waitingTime95thPercentile = statistics.getWaitingTimePercentile(95);
+		this.maxWaitingTime = statistics.getMaxWaitingTime();
+		this.clients = simulation.getArrivalSimulator().getTotalClients();
+		this.maintenanceCrews = simulation.getArrivalSimulator().getTotalMaintenanceCrews();
+	}
+
+	public int getSeed() {
+		return seed;
+	}
+
+	public double getProbabilityP() {
+		return probabilityP;
+	}
+
+	public double getProbabilityQ() {
+		return probabilityQ;
+	}
+
+	public double getProbabilityMaintenance() {
+		return probabilityMaintenance;
+	}
+
+	public int getFloors() {
+		return floors;
+	}
+
+	public int getElevatorCapacity() {
+		return elevatorCapacity;
+	}
+
+	public int getElevators() {
+		return elevators;
+	}
+
+	public int getNonDevelopers() {
+		return nonDevelopers;
+	}
+
+	public int getGoggles() {
+		return goggles;
+	}
+
+	public int getMugtomes() {
+		return mugtomes;
+	}
+
+	public int getTicks() {
+		return ticks;
+	}
+
+	public int getComplaints() {
+		return complaints;
+	}
+
+	public double getAverageWaitingTime() {
+		return averageWaitingTime;
+	}
+
+	public double getWaitingTimeStandardDeviation() {
+		return waitingTimeStandardDeviation;
+	}
+
+	public int getWaitingTime95thPercentile() {
+		return waitingTime95thPercentile;
+	}
+
+	public int getMaxWaitingTime() {
+		return maxWaitingTime;
+	}
+
+	public int getClients() {
+		return clients;
+	}
+
+	public int getMaintenanceCrews() {
+		return maintenanceCrews;
+	}
+}
@@ -0,0 +1,307 @@
+package uk.ac.aston.jpd.simulation.model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The class {@code TimingWheel} keeps the timeouts registered by the users of
+ * a {@link Simulation}, such as a non-employee leaving at a given tick or a
+ * client complaining if still in the queue after a while. <br>
+ * At each tick, only the timers that are due are fired.
+ * <p>
+ * The wheel is made of four levels of 256 slots. Level 0 has one slot per tick;
+ * each slot of the following levels covers 256 times as many ticks as a slot of
+ * the previous level. A timer is kept in the lowest level where its due tick and
+ * the current tick fall in the same range, and it moves down a level whenever
+ * the current tick reaches its slot. Therefore, registering and cancelling a
+ * timer take constant time.
+ * </p>
+ * Timers due at the same tick are fired in the order they were registered.
+ *
+ * @author Parminder
+ */
+public class TimingWheel {
+
+	private static final int LEVELS = 4;
+	private static final int SLOT_BITS = 8;
+	private static final int SLOTS = 1 << SLOT_BITS;
+	private static final int SLOT_MASK = SLOTS - 1;
+
+	/**
+	 * the level of timers that are no longer pending, and of timers that are about
+	 * to be fired
+	 */
+	private static final int DONE = -1, FIRING = -2;
+
+	/**
+	 * The class {@code Timer} is a task registered in the wheel. It is returned
+	 * when the task is registered, so that it can be cancelled later.
+	 *
+	 * @author Parminder
+	 */
+	public static class Timer {
+		private final int dueTick;
+		private final long sequence;
+		private Runnable task;
+
+		private int level = DONE;
+		private int slot;
+		private Timer previous;
+		private Timer next;
+
+		private Timer(int dueTick, long sequence, Runnable task) {
+			this.dueTick = dueTick;
+			this.sequence = sequence;
+			this.task = task;
+		}
+
+		public int getDueTick() {
+			return dueTick;
+		}
+
+		long getSequence() {
+			return sequence;
+		}
+
+		/**
+		 * @return true if the timer has neither been fired nor cancelled yet.
+		 */
+		public boolean isPending() {
+			return level != DONE;
+		}
+	}
+
+	private static final Comparator<Timer> BY_SEQUENCE = Comparator.comparingLong(t -> t.sequence);
+
+	/**
+	 * the first timer of each slot, or null if the slot is empty
+	 */
+	private final Timer[][] slots = new Timer[LEVELS][SLOTS];
+
+	/**
+	 * one bit per slot, set if the slot is not empty
+	 */
+	private final long[][] occupied = new long[LEVELS][SLOTS / Long.SIZE];
+
+	private final List<Timer> firing = new ArrayList<>();
+	private int now = 0;
+	private int pending = 0;
+	private long registered = 0;
+
+	/**
+	 * Registers a task to be run at the given tick. Tasks for a tick that has
+	 * already passed are run at the next tick fired by the wheel.
+	 *
+	 * @param dueTick the tick at which the task is due
+	 * @param task    the task to run
+	 * @return the {@link Timer} of the task
+	 */
+	public Timer schedule(int dueTick, Runnable task) {
+		Timer timer = new Timer(Math.max(dueTick, now), registered++, task);
+		insert(timer);
+		pending++;
+		return timer;
+	}
+
+	/**
+	 * Cancels a timer, so that its task is not run.
+	 *
+	 * @param timer the {@link Timer} to cancel, or null
+	 * @return true if the timer was pending, false otherwise.
+	 */
+	public boolean cancel(Timer timer) {
+		if (timer == null || !timer.isPending()) {
+			return false;
+		}
+		if (timer.level != FIRING) {
+			unlink(timer);
+		}
+		release(timer);
+		pending--;
+		return true;
+	}
+
+	/**
+	 * Runs the tasks of all the timers due at or before the given tick, in order
+	 * of due tick. Timers registered by these tasks are fired as well, if due.
+	 *
+	 * @param tick the last tick to fire
+	 */
+	public void fireUntil(int tick) {
+		while (true) {
+			int next = nextDueTick();
+			if (next > tick) {
+				moveTo(Math.max(now, tick));
+				return;
+			}
+			moveTo(next);
+			fireSlot(next & SLOT_MASK);
+		}
+	}
+
+	/**
+	 * @return the tick of the earliest pending timer, or
+	 *         {@code Integer.MAX_VALUE} if there is none.
+	 */
+	public int nextDueTick() {
+		if (pending == 0) {
+			return Integer.MAX_VALUE;
+		}
+		for (int level = 0; level < LEVELS; level++) {
+			int shift = level * SLOT_BITS;
+			int from = (level == 0) ? (now & SLOT_MASK) : ((now >>> shift) & SLOT_MASK) + 1;
+			int slot = nextOccupied(level, from);
+			if (slot >= 0) {
+				int earliest = Integer.MAX_VALUE;
+				for (Timer t = slots[level][slot]; t != null; t = t.next) {
+					earliest = Math.min(earliest, t.dueTick);
+				}
+				return earliest;
+			}
+		}
+		return Integer.MAX_VALUE;
+	}
+
+	public int size() {
+		return pending;
+	}
+
+	/**
+	 * @return the last tick the wheel has been moved to
+	 */
+	public int getCurrentTick() {
+		return now;
+	}
+
+	/**
+	 * Moves the wheel to the given tick, which must not come after the earliest
+	 * pending timer: the timers whose slot has been reached move down a level.
+	 *
+	 * @param tick the new current tick
+	 */
+	private void moveTo(int tick) {
+		now = tick;
+		for (int level = LEVELS - 1; level > 0; level--) {
+			int slot = (tick >>> (level * SLOT_BITS)) & SLOT_MASK;
+			Timer t = slots[level][slot];
+			if (t != null) {
+				slots[level][slot] = null;
+				occupied[level][slot / Long.SIZE] &= ~(1L << slot);
+				while (t != null) {
+					Timer next = t.next;
+					insert(t);
+					t = next;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Runs the tasks of the timers in the given slot of level 0, which are all due
+	 * at the current tick.
+	 *
+	 * @param slot the slot to fire
+	 */
+	private void fireSlot(int slot) {
+		while (slots[0][slot] != null) {
+			firing.clear();
+			for (Timer t = slots[0][slot]; t != null; t = t.next) {
+				firing.add(t);
+			}
+			slots[0][slot] = null;
+			occupied[0][slot / Long.SIZE] &= ~(1L << slot);
+			for (Timer t : firing) {
+				t.level = FIRING;
+			}
+			firing.sort(BY_SEQUENCE);
+
+			/* a task may cancel a timer due at the same tick, or register a new one */
+			for (int i = 0; i < firing.size(); i++) {
+				Timer t = firing.get(i);
+				if (t.level == FIRING) {
+					Runnable task = t.task;
+					release(t);
+					pending--;
+					task.run();
+				}
+			}
+		}
+		firing.clear();
+	}
+
+	/**
+	 * Marks a timer as no longer pending and drops its references to the task and
+	 * to the other timers, so that a {@link Timer} kept by its owner does not keep
+	 * anything else reachable.
+	 *
+	 * @param timer the {@link Timer} that has been fired or cancelled
+	 */
+	private static void release(Timer timer) {
+		timer.level = DONE;
+		timer.task = null;
+		timer.previous = null;
+		timer.next = null;
+	}
+
+	/**
+	 * Adds a timer to the slot given by its due tick and by the current tick.
+	 *
+	 * @param timer the {@link Timer} to add
+	 */
+	private void insert(Timer timer) {
+		int level = 0;
+		while (level < LEVELS - 1 && (timer.dueTick >>> ((level + 1) * SLOT_BITS)) != (now >>> ((level + 1) * SLOT_BITS))) {
+			level++;
+		}
+		int slot = (timer.dueTick >>> (level * SLOT_BITS)) & SLOT_MASK;
+
+		timer.level = level;
+		timer.slot = slot;
+		timer.previous = null;
+		timer.next = slots[level][slot];
+		if (timer.next != null) {
+			timer.next.previous = timer;
+		}
+		slots[level][slot] = timer;
+		occupied[level][slot / Long.SIZE] |= 1L << slot;
+	}
+
+	/**
+	 * Removes a pending timer from its slot.
+	 *
+	 * @param timer the {@link Timer} to remove
+	 */
+	private void unlink(Timer timer) {
+		if (timer.previous != null) {
+			timer.previous.next = timer.next;
+		} else {
+			slots[timer.level][timer.slot] = timer.next;
+			if (timer.next == null) {
+				occupied[timer.level][timer.slot / Long.SIZE] &= ~(1L << timer.slot);
+			}
+		}
+		if (timer.next != null) {
+			timer.next.previous = timer.previous;
+		}
+	}
+
+	/**
+	 * @param level the level of the wheel
+	 * @param from  the first slot to check
+	 * @return the first slot of the level, not before the given one, that is not
+	 *         empty, or -1 if there is none.
+	 */
+	private int nextOccupied(int level, int from) {
+		for (int word = from / Long.SIZE; word < occupied[level].length; word++) {
+			long bits = occupied[level][word];
+			if (word == from / Long.SIZE) {
+				bits &= -1L << (from % Long.SIZE);
+			}
+			if (bits != 0) {
+				return word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+			}
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,155 @@
+package uk.ac.aston.jpd.simulation.model;
+
+import java.io.IOException;
+
+/**
+ * The class {@code WaitAccumulators} keeps running aggregates of waiting times
+ * for a fixed number of categories, indexed from 0. <br>
+ * For every category it holds the number of waits, their total, their longest
+ * one and the sum of squared deviations (Welford's method), each in a primitive
+ * array, so that recording a wait takes constant time and allocates nothing.
+ *
+ * @author Parminder
+ */
+public class WaitAccumulators {
+
+	private final long[] counts;
+	private final long[] totals;
+	private final int[] maxima;
+	private final double[] means;
+	private final double[] squaredDeviations;
+
+	/**
+	 * Creates empty accumulators for the given number of categories.
+	 *
+	 * @param size the number of categories
+	 * @throws IllegalArgumentException if the size is negative.
+	 */
+	public WaitAccumulators(int size) {
+		if (size < 0) {
+			throw new IllegalArgumentException("Invalid number of categories: " + size);
+		}
+		counts = new long[size];
+		totals = new long[size];
+		maxima = new int[size];
+		means = new double[size];
+		squaredDeviations = new double[size];
+	}
+
+	/**
+	 * Records a waiting time in the given category. Negative values, and
+	 * categories out of range, are ignored.
+	 *
+	 * @param index     the category of the wait
+	 * @param waitTicks the waiting time, in ticks
+	 */
+	public void record(int index, int waitTicks) {
+		if (waitTicks >= 0 && index >= 0 && index < counts.length) {
+			long count = ++counts[index];
+			totals[index] += waitTicks;
+			maxima[index] = Math.max(maxima[index], waitTicks);
+			double delta = waitTicks - means[index];
+			means[index] += delta / count;
+			squaredDeviations[index] += delta * (waitTicks - means[index]);
+		}
+	}
+
+	/**
+	 * Replaces the aggregates of every category with a copy of the ones of other
+	 * accumulators, with the same number of categories.
+	 *
+	 * @param original the accumulators to copy
+	 */
+	void copyState(WaitAccumulators original) {
+		System.arraycopy(original.counts, 0, counts, 0, counts.length);
+		System.arraycopy(original.totals, 0, totals, 0, counts.length);
+		System.arraycopy(original.maxima, 0, maxima, 0, counts.length);
+		System.arraycopy(original.means, 0, means, 0, counts.length);
+		System.arraycopy(original.squaredDeviations, 0, squaredDeviations, 0, counts.length);
+	}
+
+	/**
+	 * Writes the accumulators to a checkpoint of the simulation.
+	 *
+	 * @param out the {@link CheckpointWriter} of the checkpoint
+	 * @throws IOException if the checkpoint cannot be written.
+	 */
+	void writeState(CheckpointWriter out) throws IOException {
+		out.writeInt(counts.length);
+		for (int i = 0; i < counts.length; i++) {
+			out.writeLong(counts[i]);
+			out.writeLong(totals[i]);
+			out.writeInt(maxima[i]);
+			out.writeDouble(means[i]);
+			out.writeDouble(squaredDeviations[i]);
+		}
+	}
+
+	/**
+	 * Reads the accumulators from a checkpoint of the simulation.
+	 *
+	 * @param in the {@link CheckpointReader} of the checkpoint
+	 * @throws IOException if the checkpoint cannot be read, or it has a different
+	 *                     number of categories.
+	 */
+	void readState(CheckpointReader in) throws IOException {
+		int size = in.readInt();
+		if (size != counts.length) {
+			throw new IOException("Wrong number of categories in checkpoint: " + size);
+		}
+		for (int i = 0; i < size; i++) {
+			counts[i] = in.readLong();
+			totals[i] = in.readLong();
+			maxima[i] = in.readInt();
+			means[i] = in.readDouble();
+			squaredDeviations[i] = in.readDouble();
+		}
+	}
+
+	public int size() {
+		return counts.length;
+	}
+
+	public long getCount(int index) {
+		return counts[index];
+	}
+
+	public long getTotal(int index) {
+		return totals[index];
+	}
+
+	/**
+	 * @param index the category
+	 * @return the longest waiting time in the category, or 0 if it has none.
+	 */
+	public int getMax(int index) {
+		return maxima[index];
+	}
+
+	/**
+	 * @param index the category
+	 * @return the average waiting time in the category, or {@code Double.NaN} if
+	 *         it has no waits.
+	 */
+	public double getMean(int index) {
+		return (counts[index] > 0) ? (double) totals[index] / counts[index] : Double.NaN;
+	}
+
+	/**
+	 * @param index the category
+	 * @return the sample variance of the waiting time in the category, or
+	 *         {@code Double.NaN} if it has less than two waits.
+	 */
+	public double getVariance(int index) {
+		return (counts[index] > 1) ? squaredDeviations[index] / (counts[index] - 1) : Double.NaN;
+	}
+
+	/**
+	 * @param index the category
+	 * @return the sample standard deviation of the waiting time in the category,
+	 *         or {@code Double.NaN} if it has less than two waits.
+	 */
+	public double getStandardDeviation(int index) {
+		return Math.sqrt(getVariance(index));
+	}
+}
@@ -0,0 +1,111 @@
+package uk.ac.aston.jpd.simulation.model;
+
+import java.io.IOException;
+
+import uk.ac.aston.jpd.simulation.model.entities.users.UserType;
+
+/**
+ * The class {@code WaitBreakdown} splits the waiting times of a simulation
+ * along three dimensions: the type of user, the floor where the user queued,
+ * and the direction of the trip. <br>
+ * Each dimension has its own {@link WaitAccumulators}, indexed by the code of
+ * the {@link UserType}, by the floor level, and by {@link #UP} or
+ * {@link #DOWN} respectively.
+ * <p>
+ * Every wait is counted once in each dimension, so the waits of any dimension
+ * add up to all the waits recorded.
+ * </p>
+ *
+ * @author Parminder
+ */
+public class WaitBreakdown {
+
+	/**
+	 * the indices of the two directions of a trip
+	 */
+	public static final int UP = 0, DOWN = 1;
+
+	private final WaitAccumulators byType = new WaitAccumulators(UserType.values().length);
+	private final WaitAccumulators byDirection = new WaitAccumulators(2);
+	private final WaitAccumulators byFloor;
+
+	/**
+	 * Creates an empty breakdown for a building with the given number of floors.
+	 *
+	 * @param numFloors the number of floors of the building
+	 */
+	public WaitBreakdown(int numFloors) {
+		byFloor = new WaitAccumulators(Math.max(numFloors, 0));
+	}
+
+	/**
+	 * Records a wait in every dimension.
+	 *
+	 * @param waitTicks   the number of ticks the user waited in queue
+	 * @param type        the type of the user
+	 * @param sourceLevel the level of the floor where the user waited
+	 * @param direction   {@link #UP} or {@link #DOWN}
+	 */
+	public void record(int waitTicks, UserType type, int sourceLevel, int direction) {
+		byType.record(type.getCode(), waitTicks);
+		byFloor.record(sourceLevel, waitTicks);
+		byDirection.record(direction, waitTicks);
+	}
+
+	/**
+	 * @param type the type of user
+	 * @return the average waiting time of the users of the given type, or
+	 *         {@code Double.NaN} if none of them has waited.
+	 */
+	public double getAverageWaitingTime(UserType type) {
+		return byType.getMean(type.getCode());
+	}
+
+	/**
+	 * Replaces every dimension with a copy of the ones of another breakdown, for
+	 * the same number of floors.
+	 *
+	 * @param original the breakdown to copy
+	 */
+	void copyState(WaitBreakdown original) {
+		byType.copyState(original.byType);
+		byFloor.copyState(original.byFloor);
+		byDirection.copyState(original.byDirection);
+	}
+
+	/**
+	 * Writes every dimension to a checkpoint of the simulation.
+	 *
+	 * @param out the {@link CheckpointWriter} of the checkpoint
+	 * @throws IOException if the checkpoint cannot be written.
+	 */
+	void writeState(CheckpointWriter out) throws IOException {
+		byType.writeState(out);
+		byFloor.writeState(out);
+		byDirection.writeState(out);
+	}
+
+	/**
+	 * Reads every dimension from a checkpoint of the simulation.
+	 *
+	 * @param in the {@link CheckpointReader} of the checkpoint
+	 * @throws IOException if the checkpoint cannot be read.
+	 */
+	void readState(CheckpointReader in) throws IOException {
+		byType.readState(in);
+		byFloor.readState(in);
+		byDirection.readState(in);
+	}
+
+	public WaitAccumulators getByType() {
+		return byType;
+	}
+
+	public WaitAccumulators getByFloor() {
+		return byFloor;
+	}
+
+	public WaitAccumulators getByDirection() {
+		return byDirection;
+	}
+}
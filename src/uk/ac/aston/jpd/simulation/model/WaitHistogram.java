@@ -0,0 +1,192 @@
+package uk.ac.aston.jpd.simulation.model;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The class {@code WaitHistogram} records waiting times, in ticks, in a fixed
+ * number of buckets, so that its memory does not grow with the number of
+ * waits. <br>
+ * Recording a wait takes constant time, and percentiles are computed by
+ * walking the buckets.
+ * <p>
+ * The buckets are log-linear: waits below 64 ticks have a bucket each, then
+ * every range between two consecutive powers of two is split into 32 buckets
+ * of the same width. Therefore, percentiles are exact below 64 ticks and within
+ * about 3% above. The mean and the maximum are always exact.
+ * </p>
+ *
+ * @author Parminder
+ */
+public class WaitHistogram {
+
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKETS = (Integer.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final long[] counts = new long[BUCKETS];
+	private long count = 0;
+	private long total = 0;
+	private int max = 0;
+
+	/**
+	 * Records a waiting time. Negative values are ignored.
+	 *
+	 * @param waitTicks the waiting time, in ticks
+	 */
+	public void record(int waitTicks) {
+		if (waitTicks >= 0) {
+			counts[bucketOf(waitTicks)]++;
+			count++;
+			total += waitTicks;
+			max = Math.max(max, waitTicks);
+		}
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public long getTotal() {
+		return total;
+	}
+
+	/**
+	 * @return the average waiting time, or {@code Double.NaN} if no wait has been
+	 *         recorded.
+	 */
+	public double getMean() {
+		return (count > 0) ? (double) total / count : Double.NaN;
+	}
+
+	/**
+	 * @return the longest waiting time, or 0 if no wait has been recorded.
+	 */
+	public int getMax() {
+		return max;
+	}
+
+	/**
+	 * Provides the waiting time below which the given percentage of the waits
+	 * fall, i.e. the smallest recorded value such that at least that percentage
+	 * of the waits is not longer than it.
+	 *
+	 * @param percentile the percentage, between 0 and 100
+	 * @return the waiting time, rounded up to the end of its bucket, or
+	 *         {@code -1} if no wait has been recorded.
+	 * @throws IllegalArgumentException if the percentage is not between 0 and 100.
+	 */
+	public int getPercentile(double percentile) {
+		if (!(percentile >= 0 && percentile <= 100)) {
+			throw new IllegalArgumentException("Invalid percentile: " + percentile);
+		}
+		if (count == 0) {
+			return -1;
+		}
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+		long seen = 0;
+		for (int bucket = 0; bucket < BUCKETS; bucket++) {
+			seen += counts[bucket];
+			if (seen >= rank) {
+				return Math.min(highestValueOf(bucket), max);
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * Adds all the waits recorded by another histogram to this one.
+	 *
+	 * @param other the histogram to add
+	 */
+	public void add(WaitHistogram other) {
+		for (int bucket = 0; bucket < BUCKETS; bucket++) {
+			counts[bucket] += other.counts[bucket];
+		}
+		count += other.count;
+		total += other.total;
+		max = Math.max(max, other.max);
+	}
+
+	/**
+	 * Replaces the waits recorded by this histogram with a copy of the ones of
+	 * another histogram.
+	 *
+	 * @param original the histogram to copy
+	 */
+	void copyState(WaitHistogram original) {
+		System.arraycopy(original.counts, 0, counts, 0, BUCKETS);
+		count = original.count;
+		total = original.total;
+		max = original.max;
+	}
+
+	/**
+	 * Writes the histogram to a checkpoint of the simulation: only the buckets
+	 * that are not empty are written.
+	 *
+	 * @param out the {@link CheckpointWriter} of the checkpoint
+	 * @throws IOException if the checkpoint cannot be written.
+	 */
+	void writeState(CheckpointWriter out) throws IOException {
+		out.writeLong(count);
+		out.writeLong(total);
+		out.writeInt(max);
+		int used = 0;
+		for (long c : counts) {
+			if (c > 0) {
+				used++;
+			}
+		}
+		out.writeInt(used);
+		for (int bucket = 0; bucket < BUCKETS; bucket++) {
+			if (counts[bucket] > 0) {
+				out.writeShort(bucket);
+				out.writeLong(counts[bucket]);
+			}
+		}
+	}
+
+	/**
+	 * Reads the histogram from a checkpoint of the simulation.
+	 *
+	 * @param in the {@link CheckpointReader} of the checkpoint
+	 * @throws IOException if the checkpoint cannot be read.
+	 */
+	void readState(CheckpointReader in) throws IOException {
+		count = in.readLong();
+		total = in.readLong();
+		max = in.readInt();
+		Arrays.fill(counts, 0);
+		int used = in.readInt();
+		for (int i = 0; i < used; i++) {
+			int bucket = in.readShort();
+			counts[bucket] = in.readLong();
+		}
+	}
+
+	/**
+	 * @param value a non-negative waiting time
+	 * @return the index of the bucket the value falls in
+	 */
+	private static int bucketOf(int value) {
+		if (value < 2 * SUB_BUCKETS) {
+			return value;
+		}
+		int shift = (Integer.SIZE - 1 - Integer.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+		return (shift << SUB_BUCKET_BITS) + (value >>> shift);
+	}
+
+	/**
+	 * @param bucket the index of a bucket
+	 * @return the highest value that falls in the bucket
+	 */
+	private static int highestValueOf(int bucket) {
+		if (bucket < 2 * SUB_BUCKETS) {
+			return bucket;
+		}
+		int shift = (bucket >>> SUB_BUCKET_BITS) - 1;
+		long lowest = (long) (SUB_BUCKETS + (bucket & (SUB_BUCKETS - 1))) << shift;
+		return (int) Math.min(Integer.MAX_VALUE, lowest + (1L << shift) - 1);
+	}
+}
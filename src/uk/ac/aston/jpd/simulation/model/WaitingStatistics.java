@@ -1,130 +1,258 @@
 package uk.ac.aston.jpd.simulation.model;
 
+import java.io.IOException;
+
+import uk.ac.aston.jpd.simulation.model.entities.users.FloorRequest;
 import uk.ac.aston.jpd.simulation.model.entities.users.User;
-import java.util.HashMap;
-import java.util.ArrayList;
+import uk.ac.aston.jpd.simulation.model.entities.users.UserType;
 
 /**
  * The class {@code WaitingStatistics} collects and analyses data about the time
  * users have to wait in queue before being served. <br>
- * On demand, it also provides the average waiting time for the simulation.
- * 
+ * On demand, it also provides the average waiting time for the simulation, and
+ * percentiles of the waiting time.
+ * <p>
+ * The tick at which a user joined the queue is kept by the user itself until
+ * its serving starts; then, the wait is recorded in a {@link WaitHistogram}.
+ * Therefore, the memory employed does not grow with the length of the
+ * simulation.
+ * </p>
+ * Running aggregates are updated as each wait is recorded (Welford's method is
+ * employed for the variance), so that the average, the variance and the
+ * {@link StatisticsSnapshot} can be read at every tick at no cost. Waits are
+ * also broken down by type of user, floor and direction in a
+ * {@link WaitBreakdown}.
+ *
  * @author Parminder, Jims, Joseph
  */
 public class WaitingStatistics {
-	
+
+	private final WaitHistogram waits = new WaitHistogram();
+	private final WaitBreakdown breakdown;
+	private final Simulation simulation;
+
 	/**
-	 * The class {@code UserWait} provides the wait data for a user: it stores the
-	 * tick at which a {@link User} joined the queue and the tick at which his
-	 * serving started.
-	 * 
-	 * @author Parminder
-	 */
-	private static class UserWait {
-		private final User waitingUser;
-		private final int queueJoinedTick;
-		private Integer servingStartedTick;
-
-		/**
-		 * Creates a new UserWait with the given user and tick.
-		 * 
-		 * @param user the {@code User} to which the wait data belongs
-		 * @param queueJoinedTick the tick at which the user joined the queue
-		 */
-		public UserWait(User user, int queueJoinedTick){
-			this.waitingUser = user;
-			this.queueJoinedTick = queueJoinedTick;					
+	 * the running mean and sum of squared deviations of the waiting times
+	 */
+	private double runningMean = 0;
+	private double squaredDeviations = 0;
+
+	/**
+	 * Creates new waiting statistics for the given simulation.
+	 *
+	 * @param simulation the {@code Simulation} for which statistics are to be provided
+	 */
+	public WaitingStatistics(Simulation simulation) {
+		this.simulation = simulation;
+		this.breakdown = new WaitBreakdown(simulation.getTotalFloors());
+	}
+
+	/**
+	 * Creates new waiting statistics that do not belong to a simulation, for a
+	 * building with the given number of floors. They are only fed through
+	 * {@link #recordWait(int, UserType, int, int)}, e.g. when replaying a trace.
+	 *
+	 * @param numFloors the number of floors of the building
+	 */
+	public WaitingStatistics(int numFloors) {
+		this.simulation = null;
+		this.breakdown = new WaitBreakdown(numFloors);
+	}
+
+	/**
+	 * Stores the current tick in the given user, who just joined the queue. If the
+	 * user was already waiting, its previous wait is discarded.
+	 *
+	 * @param u the {@code User} which has joined the queue
+	 */
+	public void queueJoined(User u) {
+		if (u != null) {
+			u.setQueueJoinedTick(simulation.getTick());
 		}
+	}
 
-		/**
-		 * Sets the tick at which a user's request got accepted
-		 * 
-		 * @param servingStartedTick the tick at which the user's serving started
-		 */
-		public void setServingStartedTick(Integer servingStartedTick) {
-			if (servingStartedTick > 0) { 
-				this.servingStartedTick = servingStartedTick;
+	/**
+	 * Records the wait of a given user, which ends at the current tick. Waits whose
+	 * serving starts at tick 0 are not recorded. <br>
+	 * The wait is broken down by the type of the user, by its current floor and by
+	 * the direction of its request.
+	 *
+	 * @param u the {@code User} which is now being served.
+	 */
+	public void servingStarted(User u) {
+		int queueJoinedTick = u.getQueueJoinedTick();
+		if (queueJoinedTick >= 0) {
+			u.setQueueJoinedTick(-1);
+			int servingStartedTick = simulation.getTick();
+			if (servingStartedTick > 0) {
+				FloorRequest request = u.getRequest();
+				int sourceLevel = u.getCurrentFloor().getLevel();
+				int direction = (request.getTargetFloor().getLevel() > sourceLevel) ? WaitBreakdown.UP : WaitBreakdown.DOWN;
+				recordWait(servingStartedTick - queueJoinedTick, u.getType(), sourceLevel, direction);
 			}
 		}
+	}
 
-		public int getQueueJoinedTick() {
-			return queueJoinedTick;
+	/**
+	 * Records a wait of the given length, in every dimension of the breakdown.
+	 *
+	 * @param waitTicks   the number of ticks the user waited in queue
+	 * @param type        the type of the user
+	 * @param sourceLevel the level of the floor where the user waited
+	 * @param direction   {@link WaitBreakdown#UP} or {@link WaitBreakdown#DOWN}
+	 */
+	public void recordWait(int waitTicks, UserType type, int sourceLevel, int direction) {
+		if (waitTicks >= 0) {
+			recordWait(waitTicks);
+			breakdown.record(waitTicks, type, sourceLevel, direction);
 		}
+	}
 
-		public Integer getServingStartedTick() {
-			return servingStartedTick;
+	/**
+	 * Records a wait of the given length, which is not broken down.
+	 *
+	 * @param waitTicks the number of ticks the user waited in queue
+	 */
+	public void recordWait(int waitTicks) {
+		if (waitTicks >= 0) {
+			waits.record(waitTicks);
+			double delta = waitTicks - runningMean;
+			runningMean += delta / waits.getCount();
+			squaredDeviations += delta * (waitTicks - runningMean);
 		}
+	}
 
-		@SuppressWarnings("unused")
-		public User getUser() {
-			return waitingUser;
-		}
+	/**
+	 * Replaces these statistics with a copy of the ones of another simulation,
+	 * for a branch of it.
+	 *
+	 * @param original the statistics to copy
+	 */
+	void copyState(WaitingStatistics original) {
+		waits.copyState(original.waits);
+		runningMean = original.runningMean;
+		squaredDeviations = original.squaredDeviations;
+		breakdown.copyState(original.breakdown);
 	}
 
-	private final HashMap<User, ArrayList<UserWait>> waitData = new HashMap<>();
-	private final Simulation simulation;
+	/**
+	 * Writes the statistics to a checkpoint of the simulation.
+	 *
+	 * @param out the {@link CheckpointWriter} of the checkpoint
+	 * @throws IOException if the checkpoint cannot be written.
+	 */
+	void writeState(CheckpointWriter out) throws IOException {
+		waits.writeState(out);
+		out.writeDouble(runningMean);
+		out.writeDouble(squaredDeviations);
+		breakdown.writeState(out);
+	}
 
 	/**
-	 * Creates new waiting statistics for the given simulation. 
-	 * 
-	 * @param simulation the {@code Simulation} for which statistics are to be provided
+	 * Reads the statistics from a checkpoint of the simulation.
+	 *
+	 * @param in the {@link CheckpointReader} of the checkpoint
+	 * @throws IOException if the checkpoint cannot be read.
 	 */
-	public WaitingStatistics(Simulation simulation) {
-		this.simulation = simulation;
+	void readState(CheckpointReader in) throws IOException {
+		waits.readState(in);
+		runningMean = in.readDouble();
+		squaredDeviations = in.readDouble();
+		breakdown.readState(in);
 	}
 
 	/**
-	 * Creates and stores a new {@link UserWait} for a given user, who just joined
-	 * the queue.
-	 * 
-	 * @param u the {@code User} which has joined the queue
+	 * Computes and returns the average wait time in queue for the simulation.
+	 *
+	 * @return {@code double} value in ticks, representing the average waiting time in queue. Returns {@code Double.NaN} if no wait data is available.
 	 */
-	public void queueJoined(User u) {
-		if (u != null) {
-			ArrayList<UserWait> waitsPerUser = waitData.get(u);
-			if (waitsPerUser == null) {
-				waitsPerUser = new ArrayList<UserWait>();
-			}
-			waitsPerUser.add(new UserWait(u, simulation.getTick()));
-			waitData.put(u, waitsPerUser);		
-		}
+	public double getAverageWaitingTime() {
+		return waits.getMean();
+	}
+
+	/**
+	 * @return the sample variance of the waiting time, in squared ticks. Returns
+	 *         {@code Double.NaN} if less than two waits are available.
+	 */
+	public double getWaitingTimeVariance() {
+		long count = waits.getCount();
+		return (count > 1) ? squaredDeviations / (count - 1) : Double.NaN;
+	}
+
+	/**
+	 * @return the sample standard deviation of the waiting time, in ticks. Returns
+	 *         {@code Double.NaN} if less than two waits are available.
+	 */
+	public double getWaitingTimeStandardDeviation() {
+		return Math.sqrt(getWaitingTimeVariance());
+	}
+
+	/**
+	 * @return the number of complaints per client that has arrived so far. Returns
+	 *         {@code Double.NaN} if no client has arrived.
+	 */
+	public double getComplaintRate() {
+		return complaintRate(simulation.getComplaints(), simulation.getArrivalSimulator().getTotalClients());
 	}
 
 	/**
-	 * Updates the {@link UserWait} for a given user, by setting the serving tick of the user to the current tick.
+	 * Provides an immutable copy of the statistics at the current tick, for
+	 * viewers.
 	 * 
-	 * @param u the {@code User} which is now being served.
+	 * @return a new {@link StatisticsSnapshot}
 	 */
-	public void servingStarted(User u) {  
-		ArrayList<UserWait> waitsPerUser = waitData.get(u);
-		if (waitsPerUser != null) {
-			UserWait lastUserWait = waitsPerUser.get(waitsPerUser.size() - 1);
-			lastUserWait.setServingStartedTick(simulation.getTick());
-		}		
+	public StatisticsSnapshot snapshot() {
+		return snapshot(simulation.getTick(), simulation.getComplaints(), simulation.getArrivalSimulator().getTotalClients());
 	}
 
 	/**
-	 * Computes and returns the average wait time in queue for the simulation.
+	 * Provides an immutable copy of the statistics, together with the given
+	 * figures, for statistics that do not belong to a simulation.
 	 * 
-	 * @return {@code double} value in ticks, representing the average waiting time in queue. Returns {@code Double.NaN} if no wait data is available.
+	 * @param tick       the current tick
+	 * @param complaints the number of complaints so far
+	 * @param clients    the number of clients arrived so far
+	 * @return a new {@link StatisticsSnapshot}
 	 */
-	public double getAverageWaitingTime() {
-		int samples = 0;
-		double total = 0;
-
-		for (ArrayList<UserWait> waitsPerUser : waitData.values()) {
-			for (UserWait uw : waitsPerUser) {
-				if (uw.getServingStartedTick() != null) {
-					samples++;
-					total += uw.getServingStartedTick() - uw.getQueueJoinedTick();
-				}
-			}
-		}
+	public StatisticsSnapshot snapshot(int tick, int complaints, int clients) {
+		return new StatisticsSnapshot(tick, waits.getCount(), getAverageWaitingTime(),
+				getWaitingTimeStandardDeviation(), getWaitingTimePercentile(95), getMaxWaitingTime(),
+				complaints, complaintRate(complaints, clients));
+	}
 
-		if (samples > 0) {
-			return total / samples;
-		} else {
-			return Double.NaN;
-		}
+	/**
+	 * @param complaints the number of complaints
+	 * @param clients    the number of clients
+	 * @return the number of complaints per client, or {@code Double.NaN} if there
+	 *         is no client.
+	 */
+	private static double complaintRate(int complaints, int clients) {
+		return (clients > 0) ? (double) complaints / clients : Double.NaN;
+	}
+
+	/**
+	 * @param percentile the percentage of waits, between 0 and 100
+	 * @return the waiting time, in ticks, below which the given percentage of
+	 *         waits fall. Returns -1 if no wait data is available.
+	 * @see WaitHistogram#getPercentile(double)
+	 */
+	public int getWaitingTimePercentile(double percentile) {
+		return waits.getPercentile(percentile);
+	}
+
+	public WaitBreakdown getBreakdown() {
+		return breakdown;
+	}
+
+	/**
+	 * @return the longest waiting time, in ticks. Returns -1 if no wait data is
+	 *         available.
+	 */
+	public int getMaxWaitingTime() {
+		return (waits.getCount() > 0) ? waits.getMax() : -1;
+	}
+
+	public long getWaitCount() {
+		return waits.getCount();
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,231 @@
+package uk.ac.aston.jpd.simulation.model.batch;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+
+import uk.ac.aston.jpd.simulation.model.Simulation;
+
+/**
+ * The class {@code BatchConfig} describes a batch of simulations, as read from
+ * a properties file: which values of the parameters of a
+ * {@link Simulation.Builder} are swept, how the combinations are picked, and
+ * how the simulations are run. <br>
+ * The keys are:
+ * <br> - the key of any {@link Parameter}, e.g. {@code numFloors}, with a list
+ * or range of values as described by {@link Dimension}. The parameters that are
+ * not given keep the default values of the builder;
+ * <br> - {@code design}: a {@link Design}, {@code grid} by default;
+ * <br> - {@code samples}: the number of combinations of a
+ * {@code latin_hypercube} or {@code random} design;
+ * <br> - {@code designSeed}: the seed with which the combinations of those
+ * designs are drawn, 0 by default;
+ * <br> - {@code runTicks}: the number of ticks of each simulation, 2880 by
+ * default;
+ * <br> - {@code sampling} and {@code randomStreams}: the
+ * {@link Simulation.Sampling} and {@link Simulation.RandomStreams} of every
+ * simulation;
+ * <br> - {@code parallelism}: the maximum number of simulations run at the
+ * same time, the number of available processors by default;
+ * <br> - {@code output}: the CSV file where the results are written, or
+ * {@code -} (the default) for the console.
+ *
+ * @author Parminder
+ */
+public class BatchConfig {
+
+	private static final int DEFAULT_RUN_TICKS = 2880;
+	private static final String CONSOLE = "-";
+
+	private final Map<Parameter, Dimension> dimensions = new EnumMap<>(Parameter.class);
+	private Design design = Design.GRID;
+	private int samples = 0;
+	private int designSeed = 0;
+	private int runTicks = DEFAULT_RUN_TICKS;
+	private Simulation.Sampling sampling = Simulation.Sampling.PER_TICK;
+	private Simulation.RandomStreams streams = Simulation.RandomStreams.SHARED;
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+	private String output = CONSOLE;
+
+	/**
+	 * Creates the configuration of a batch from the given properties.
+	 *
+	 * @param properties the keys and values of the configuration
+	 * @throws IllegalArgumentException if a key is unknown or a value is invalid.
+	 */
+	public BatchConfig(Properties properties) {
+		for (String key : properties.stringPropertyNames()) {
+			String value = properties.getProperty(key).trim();
+			Parameter parameter = Parameter.forKey(key);
+			if (parameter != null) {
+				dimensions.put(parameter, new Dimension(parameter, value));
+				continue;
+			}
+			switch (key) {
+			case "design":
+				design = parseEnum(Design.class, key, value);
+				break;
+			case "samples":
+				samples = parseInt(key, value, 1);
+				break;
+			case "designSeed":
+				designSeed = parseInt(key, value, Integer.MIN_VALUE);
+				break;
+			case "runTicks":
+				runTicks = parseInt(key, value, 0);
+				break;
+			case "sampling":
+				sampling = parseEnum(Simulation.Sampling.class, key, value);
+				break;
+			case "randomStreams":
+				streams = parseEnum(Simulation.RandomStreams.class, key, value);
+				break;
+			case "parallelism":
+				parallelism = parseInt(key, value, 1);
+				break;
+			case "output":
+				output = value;
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown key: " + key);
+			}
+		}
+		if (design != Design.GRID && samples == 0) {
+			throw new IllegalArgumentException("The number of samples is needed for a " + design + " design");
+		}
+	}
+
+	/**
+	 * Reads the configuration of a batch from a properties file.
+	 *
+	 * @param file the path of the file
+	 * @return the {@code BatchConfig}
+	 * @throws IOException              if the file cannot be read.
+	 * @throws IllegalArgumentException if a key is unknown or a value is invalid.
+	 */
+	public static BatchConfig load(Path file) throws IOException {
+		Properties properties = new Properties();
+		try (Reader reader = Files.newBufferedReader(file)) {
+			properties.load(reader);
+		}
+		return new BatchConfig(properties);
+	}
+
+	private static int parseInt(String key, String value, int min) {
+		try {
+			int number = Integer.parseInt(value);
+			if (number >= min) {
+				return number;
+			}
+		} catch (NumberFormatException ex) {
+			/* reported below, as a value out of range */
+		}
+		throw new IllegalArgumentException("Invalid value for " + key + ": " + value);
+	}
+
+	private static <E extends Enum<E>> E parseEnum(Class<E> type, String key, String value) {
+		try {
+			return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+		} catch (IllegalArgumentException ex) {
+			throw new IllegalArgumentException("Invalid value for " + key + ": " + value);
+		}
+	}
+
+	/**
+	 * Provides the builders of the combinations of the batch, according to its
+	 * design. In a grid, the combinations are in the order of the
+	 * {@link Parameter}s, with the values of the last one changing first.
+	 *
+	 * @return the {@link Simulation.Builder}s of the simulations to run
+	 */
+	public List<Simulation.Builder> getCombinations() {
+		List<double[]> points = new ArrayList<>();
+		List<Dimension> swept = new ArrayList<>(dimensions.values());
+		if (design == Design.GRID) {
+			addGridPoints(swept, 0, new double[swept.size()], points);
+		} else {
+			Random random = new Random(designSeed);
+			for (int i = 0; i < samples; i++) {
+				points.add(new double[swept.size()]);
+			}
+			for (int d = 0; d < swept.size(); d++) {
+				List<Integer> strata = new ArrayList<>();
+				for (int i = 0; i < samples; i++) {
+					strata.add(i);
+				}
+				Collections.shuffle(strata, random);
+				for (int i = 0; i < samples; i++) {
+					double u = (design == Design.LATIN_HYPERCUBE) ? (strata.get(i) + random.nextDouble()) / samples
+							: random.nextDouble();
+					points.get(i)[d] = swept.get(d).sample(u);
+				}
+			}
+		}
+
+		List<Simulation.Builder> combinations = new ArrayList<>();
+		for (double[] point : points) {
+			Simulation.Builder builder = new Simulation.Builder().sampling(sampling).randomStreams(streams);
+			for (int d = 0; d < swept.size(); d++) {
+				swept.get(d).getParameter().apply(builder, point[d]);
+			}
+			combinations.add(builder);
+		}
+		return combinations;
+	}
+
+	/**
+	 * Adds every combination of the values of the dimensions from the given one
+	 * onwards, after the values already chosen for the previous ones.
+	 */
+	private static void addGridPoints(List<Dimension> swept, int d, double[] point, List<double[]> points) {
+		if (d == swept.size()) {
+			points.add(point.clone());
+			return;
+		}
+		for (double value : swept.get(d).getGridValues()) {
+			point[d] = value;
+			addGridPoints(swept, d + 1, point, points);
+		}
+	}
+
+	/**
+	 * @return true if the results are written to the console rather than to a
+	 *         file.
+	 */
+	public boolean isConsoleOutput() {
+		return output.equals(CONSOLE);
+	}
+
+	public Dimension getDimension(Parameter parameter) {
+		return dimensions.get(parameter);
+	}
+
+	public Design getDesign() {
+		return design;
+	}
+
+	public int getSamples() {
+		return samples;
+	}
+
+	public int getRunTicks() {
+		return runTicks;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	public String getOutput() {
+		return output;
+	}
+}
@@ -0,0 +1,62 @@
+package uk.ac.aston.jpd.simulation.model.batch;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.function.Consumer;
+
+import uk.ac.aston.jpd.simulation.model.ParameterSweep;
+import uk.ac.aston.jpd.simulation.model.SweepResult;
+
+/**
+ * The class {@code BatchRunner} runs the simulations of a {@link BatchConfig}
+ * in parallel, through a {@link ParameterSweep}, and hands their results over
+ * in the same order as the combinations of the batch.
+ *
+ * @author Parminder
+ */
+public class BatchRunner {
+
+	private final BatchConfig config;
+
+	/**
+	 * Creates a runner for the given batch.
+	 *
+	 * @param config the {@link BatchConfig} of the batch
+	 */
+	public BatchRunner(BatchConfig config) {
+		this.config = config;
+	}
+
+	/**
+	 * Runs the batch, and passes the result of each simulation to the given sink.
+	 *
+	 * @param sink receives the result of each simulation
+	 */
+	public void run(Consumer<SweepResult> sink) {
+		new ParameterSweep(config.getParallelism()).run(config.getCombinations(), config.getRunTicks(), sink);
+	}
+
+	/**
+	 * Runs the batch, and writes the results to the output of the configuration,
+	 * through a {@link CsvResultWriter}.
+	 *
+	 * @throws IOException if the results cannot be written.
+	 */
+	public void run() throws IOException {
+		if (config.isConsoleOutput()) {
+			CsvResultWriter csv = new CsvResultWriter(new OutputStreamWriter(System.out));
+			run(csv);
+			csv.flush();
+		} else {
+			try (CsvResultWriter csv = new CsvResultWriter(Files.newBufferedWriter(Paths.get(config.getOutput())))) {
+				run(csv);
+			}
+		}
+	}
+
+	public BatchConfig getConfig() {
+		return config;
+	}
+}
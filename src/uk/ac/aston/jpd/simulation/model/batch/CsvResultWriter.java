@@ -0,0 +1,102 @@
+package uk.ac.aston.jpd.simulation.model.batch;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.function.Consumer;
+
+import uk.ac.aston.jpd.simulation.model.SweepResult;
+
+/**
+ * The class {@code CsvResultWriter} writes the {@link SweepResult}s of a batch
+ * as comma-separated values: a header line with the names of the columns, then
+ * one line for each simulation, with the parameters it was built with followed
+ * by its results. <br>
+ * Numbers are written in full precision; the results that are not available
+ * (e.g. the average waiting time when no user has waited) are left empty.
+ *
+ * @author Parminder
+ */
+public class CsvResultWriter implements Consumer<SweepResult>, Closeable, Flushable {
+
+	private static final String HEADER = "seed,probabilityP,probabilityQ,probabilityMaintenance,numFloors,"
+			+ "elevatorCapacity,elevators,nonDevelopers,goggles,mugtomes,ticks,complaints,averageWaitingTime,"
+			+ "waitingTimeStandardDeviation,waitingTime95thPercentile,maxWaitingTime,clients,maintenanceCrews";
+
+	private final BufferedWriter out;
+
+	/**
+	 * Creates a writer of results to the given writer, and writes the header.
+	 *
+	 * @param out the {@code Writer} of the CSV
+	 * @throws IOException if the header cannot be written.
+	 */
+	public CsvResultWriter(Writer out) throws IOException {
+		this.out = new BufferedWriter(out);
+		this.out.write(HEADER);
+		this.out.newLine();
+	}
+
+	/**
+	 * Writes the line of the given result.
+	 *
+	 * @throws UncheckedIOException if the line cannot be written.
+	 */
+	@Override
+	public void accept(SweepResult result) {
+		StringBuilder line = new StringBuilder();
+		line.append(result.getSeed()).append(',')
+				.append(result.getProbabilityP()).append(',')
+				.append(result.getProbabilityQ()).append(',')
+				.append(result.getProbabilityMaintenance()).append(',')
+				.append(result.getFloors()).append(',')
+				.append(result.getElevatorCapacity()).append(',')
+				.append(result.getElevators()).append(',')
+				.append(result.getNonDevelopers()).append(',')
+				.append(result.getGoggles()).append(',')
+				.append(result.getMugtomes()).append(',')
+				.append(result.getTicks()).append(',')
+				.append(result.getComplaints()).append(',')
+				.append(format(result.getAverageWaitingTime())).append(',')
+				.append(format(result.getWaitingTimeStandardDeviation())).append(',')
+				.append(format(result.getWaitingTime95thPercentile())).append(',')
+				.append(format(result.getMaxWaitingTime())).append(',')
+				.append(result.getClients()).append(',')
+				.append(result.getMaintenanceCrews());
+		try {
+			out.write(line.toString());
+			out.newLine();
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	/**
+	 * @param value a result, which is {@code Double.NaN} if not available
+	 * @return the value, or an empty string
+	 */
+	private static String format(double value) {
+		return Double.isNaN(value) ? "" : String.valueOf(value);
+	}
+
+	/**
+	 * @param value a result, which is negative if not available
+	 * @return the value, or an empty string
+	 */
+	private static String format(int value) {
+		return (value < 0) ? "" : String.valueOf(value);
+	}
+
+	@Override
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+}
@@ -0,0 +1,17 @@
+package uk.ac.aston.jpd.simulation.model.batch;
+
+/**
+ * The ways a batch picks the combinations of parameters to run: <br>
+ * - {@code GRID}: every combination of the values of the dimensions. <br>
+ * - {@code LATIN_HYPERCUBE}: a given number of combinations, such that the
+ * values of each dimension are spread evenly: its range (or list) is split into
+ * as many strata as combinations, and each stratum is taken by exactly one
+ * combination. <br>
+ * - {@code RANDOM}: a given number of combinations, with values drawn
+ * uniformly and independently for each dimension.
+ *
+ * @author Parminder
+ */
+public enum Design {
+	GRID, LATIN_HYPERCUBE, RANDOM
+}
@@ -0,0 +1,121 @@
+package uk.ac.aston.jpd.simulation.model.batch;
+
+import java.math.BigDecimal;
+
+/**
+ * The class {@code Dimension} holds the values that a batch sweeps for a
+ * {@link Parameter}. They are given either as a list or as a range: <br>
+ * - {@code 0.01, 0.02, 0.05}: the listed values; <br>
+ * - {@code 2..20}: every value from 2 to 20 in a grid for an integer
+ * parameter, or any value in between for the other designs; <br>
+ * - {@code 0.01..0.05:0.01}: the values from 0.01 to 0.05 every 0.01 in a
+ * grid, or any value in between for the other designs.
+ *
+ * @author Parminder
+ */
+public class Dimension {
+
+	private static final String RANGE = "..";
+	private static final String STEP = ":";
+
+	private final Parameter parameter;
+	private final double[] values;
+	private final double min;
+	private final double max;
+	private final double step;
+
+	/**
+	 * Creates a dimension from its description in the configuration of a batch.
+	 *
+	 * @param parameter the {@link Parameter} of the dimension
+	 * @param text      the list or range of values
+	 * @throws IllegalArgumentException if the values cannot be parsed, or they
+	 *                                  are not integers for an integer parameter.
+	 */
+	public Dimension(Parameter parameter, String text) {
+		this.parameter = parameter;
+		int range = text.indexOf(RANGE);
+		if (range < 0) {
+			String[] items = text.split(",");
+			values = new double[items.length];
+			for (int i = 0; i < items.length; i++) {
+				values[i] = parse(items[i]);
+			}
+			min = max = step = Double.NaN;
+		} else {
+			values = null;
+			int step = text.indexOf(STEP, range);
+			min = parse(text.substring(0, range));
+			max = parse(text.substring(range + RANGE.length(), (step < 0) ? text.length() : step));
+			this.step = (step >= 0) ? parse(text.substring(step + STEP.length())) : (parameter.isInteger() ? 1 : Double.NaN);
+			if (max < min || this.step <= 0) {
+				throw new IllegalArgumentException("Invalid range for " + parameter.getKey() + ": " + text);
+			}
+		}
+	}
+
+	/**
+	 * @param item the text of a value
+	 * @return the value
+	 * @throws IllegalArgumentException if it is not a number, or not an integer
+	 *                                  for an integer parameter.
+	 */
+	private double parse(String item) {
+		double value;
+		try {
+			value = Double.parseDouble(item.trim());
+		} catch (NumberFormatException ex) {
+			throw new IllegalArgumentException("Invalid value for " + parameter.getKey() + ": " + item.trim());
+		}
+		if (parameter.isInteger() && value != Math.rint(value)) {
+			throw new IllegalArgumentException("Invalid value for " + parameter.getKey() + ": " + item.trim());
+		}
+		return value;
+	}
+
+	/**
+	 * Provides the values of the dimension in a grid: the listed values, or the
+	 * values of the range every step.
+	 *
+	 * @return the values, in increasing order for a range
+	 * @throws IllegalArgumentException if the dimension is a range of a
+	 *                                  non-integer parameter without a step.
+	 */
+	public double[] getGridValues() {
+		if (values != null) {
+			return values.clone();
+		}
+		if (Double.isNaN(step)) {
+			throw new IllegalArgumentException("A grid needs a step for " + parameter.getKey());
+		}
+		/* the tolerance keeps the maximum when the steps do not add up exactly */
+		int count = (int) Math.floor((max - min) / step + 1e-9) + 1;
+		double[] grid = new double[count];
+		for (int i = 0; i < count; i++) {
+			/* decimal arithmetic, so that e.g. 0.1..0.3:0.1 gives 0.3 rather than 0.30000000000000004 */
+			grid[i] = BigDecimal.valueOf(min).add(BigDecimal.valueOf(step).multiply(BigDecimal.valueOf(i))).doubleValue();
+		}
+		return grid;
+	}
+
+	/**
+	 * Maps a value in [0, 1) to a value of the dimension, uniformly: an element
+	 * of the list, or a value of the range. Integer parameters take any integer
+	 * of the range with the same probability.
+	 *
+	 * @param u a value in [0, 1)
+	 * @return the value of the dimension
+	 */
+	public double sample(double u) {
+		if (values != null) {
+			return values[Math.min((int) (u * values.length), values.length - 1)];
+		} else if (parameter.isInteger()) {
+			return Math.min(Math.floor(min + u * (max - min + 1)), max);
+		}
+		return min + u * (max - min);
+	}
+
+	public Parameter getParameter() {
+		return parameter;
+	}
+}
@@ -0,0 +1,67 @@
+package uk.ac.aston.jpd.simulation.model.batch;
+
+import java.util.function.ObjDoubleConsumer;
+
+import uk.ac.aston.jpd.simulation.model.Simulation;
+
+/**
+ * The numeric parameters of a {@link Simulation.Builder} that a batch can
+ * sweep. <br>
+ * Each parameter is named after the method of the builder that sets it, which
+ * is also its key in the configuration of a batch.
+ *
+ * @author Parminder
+ */
+public enum Parameter {
+	SEED("seed", true, (builder, value) -> builder.seed((int) value)),
+	PROBABILITY_P("probabilityP", false, Simulation.Builder::probabilityP),
+	PROBABILITY_Q("probabilityQ", false, Simulation.Builder::probabilityQ),
+	PROBABILITY_MAINTENANCE("probabilityMaintenance", false, Simulation.Builder::probabilityMaintenance),
+	NUM_FLOORS("numFloors", true, (builder, value) -> builder.numFloors((int) value)),
+	ELEVATOR_CAPACITY("elevatorCapacity", true, (builder, value) -> builder.elevatorCapacity((int) value)),
+	ELEVATORS("elevators", true, (builder, value) -> builder.elevators((int) value)),
+	NON_DEVELOPERS("nonDevelopers", true, (builder, value) -> builder.nonDevelopers((int) value)),
+	GOGGLES("goggles", true, (builder, value) -> builder.goggles((int) value)),
+	MUGTOMES("mugtomes", true, (builder, value) -> builder.mugtomes((int) value));
+
+	private final String key;
+	private final boolean isInteger;
+	private final ObjDoubleConsumer<Simulation.Builder> setter;
+
+	private Parameter(String key, boolean isInteger, ObjDoubleConsumer<Simulation.Builder> setter) {
+		this.key = key;
+		this.isInteger = isInteger;
+		this.setter = setter;
+	}
+
+	/**
+	 * Sets the parameter of the given builder to the given value.
+	 *
+	 * @param builder the {@link Simulation.Builder} to set
+	 * @param value   the value of the parameter
+	 */
+	public void apply(Simulation.Builder builder, double value) {
+		setter.accept(builder, value);
+	}
+
+	/**
+	 * @param key the key of a parameter in the configuration of a batch
+	 * @return the parameter with that key, or null if there is none.
+	 */
+	public static Parameter forKey(String key) {
+		for (Parameter parameter : values()) {
+			if (parameter.key.equals(key)) {
+				return parameter;
+			}
+		}
+		return null;
+	}
+
+	public String getKey() {
+		return key;
+	}
+
+	public boolean isInteger() {
+		return isInteger;
+	}
+}
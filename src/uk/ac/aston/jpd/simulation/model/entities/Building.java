@@ -1,11 +1,25 @@
 package uk.ac.aston.jpd.simulation.model.entities;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import uk.ac.aston.jpd.simulation.model.CheckpointReader;
+import uk.ac.aston.jpd.simulation.model.CheckpointWriter;
+import uk.ac.aston.jpd.simulation.model.SimulationFork;
 import uk.ac.aston.jpd.simulation.model.Simulation;
+import uk.ac.aston.jpd.simulation.model.Simulation.Sampling;
+import uk.ac.aston.jpd.simulation.model.TimingWheel.Timer;
+import uk.ac.aston.jpd.simulation.model.entities.users.Employee;
+import uk.ac.aston.jpd.simulation.model.entities.users.NonEmployee;
 import uk.ac.aston.jpd.simulation.model.entities.users.User;
+import uk.ac.aston.jpd.simulation.model.entities.users.User.Location;
+import uk.ac.aston.jpd.simulation.model.trace.TraceEvent;
 
 /**
  * the class {@code Floor} represents the building for the Simulator. it
- * contains {@link Floor} and {@link Elevator}.
+ * contains {@link Floor} and one or more {@link Elevator}s, whose calls are
+ * assigned by a {@link GroupController}.
  * 
  * @author Joseph, Parminder
  *
@@ -14,15 +28,38 @@ public class Building {
 
 	private final Simulation simulation;
 	private final Floor[] floors;
-	private final Elevator elevator;
+	private final GroupController controller;
+	private final CallRegistry callRegistry;
+	private final Elevator[] elevators;
+
+	/**
+	 * the number of users in the building
+	 */
+	private int population = 0;
+
+	/**
+	 * the users being ticked or updated by a floor or by an elevator, copied
+	 * beforehand as they may move meanwhile. Floors and elevators serve one at a
+	 * time, so they share the array, which has room for every user in the
+	 * building: it only grows when users arrive.
+	 */
+	private User[] snapshot = new User[0];
+
+	/**
+	 * the non-employees whose timers have been fired at the current tick, and
+	 * which run them when their floor ticks them
+	 */
+	private final List<NonEmployee> dueUsers = new ArrayList<>();
 
 	/**
 	 * 
-	 * {@code Building} creates the {@code Elevator} and {@code Floor} according to
-	 * the number of floors from using {@link Simulation#getTotalFloors()} method
+	 * {@code Building} creates the {@code Elevator}s and {@code Floor} according to
+	 * the number of floors from using {@link Simulation#getTotalFloors()} method,
+	 * and the number of elevators from {@link Simulation#getTotalElevators()}
 	 * 
 	 * @param simulation the {@link Simulation} which the building belongs to.
 	 * @throws InvalidBuildingException when number of floors provided is less than
+	 * @throws IllegalArgumentException when number of elevators is less than 1.
 	 */
 	public Building(Simulation simulation) {
 		this.simulation = simulation;
@@ -30,22 +67,52 @@ public class Building {
 		if (numFloors < 1) {
 			throw new InvalidBuildingException("Incorrect number of floors", numFloors);
 		}
+		int numElevators = simulation.getTotalElevators();
+		if (numElevators < 1) {
+			throw new IllegalArgumentException("Incorrect number of elevators: " + numElevators);
+		}
 		floors = new Floor[numFloors];
 		for (int level = 0; level < floors.length; level++) {
 			floors[level] = new Floor(this, level);
 		}
 
-		elevator = new Elevator(this);
+		controller = new GroupController(this, numElevators);
+		callRegistry = new CallRegistry(numFloors, simulation.getElevatorCapacity(), controller);
+		elevators = new Elevator[numElevators];
+		for (int i = 0; i < elevators.length; i++) {
+			elevators[i] = new Elevator(this, i);
+		}
 	}
 
 	/**
-	 * {@code Building.tick()} propogates all the floors and elevator
+	 * {@code Building.tick()} propogates all the floors and elevators. <br>
+	 * With {@code PER_TICK} sampling, the floors tick their users in order; the
+	 * non-employees whose timers are due run them meanwhile, and those that no
+	 * floor has ticked run them right after. With {@code GEOMETRIC} sampling,
+	 * users have nothing to do at each tick, as they only react to their timers:
+	 * therefore, only the elevators tick.
+	 * <p>
+	 * First, every elevator travels, which only changes the elevator itself and
+	 * its passengers. Then, the elevators serve their floors one after another,
+	 * in order.
+	 * </p>
 	 */
 	public void tick() {
-		for (Floor f : floors) {
-			f.tick();
+		if (simulation.getSampling() == Sampling.PER_TICK) {
+			for (Floor f : floors) {
+				f.tick();
+			}
+			for (int i = 0; i < dueUsers.size(); i++) {
+				dueUsers.get(i).tick();
+			}
+			dueUsers.clear();
+		}
+		for (Elevator e : elevators) {
+			e.travel();
+		}
+		for (Elevator e : elevators) {
+			e.serve();
 		}
-		elevator.tick();
 	}
 
 	/**
@@ -56,7 +123,9 @@ public class Building {
 	 *         otherwise
 	 */
 	public boolean enter(User incoming) {
+		reserve(population + 1);
 		if (floors[0].land(incoming)) { 
+			population++;
 			incoming.setFirstRequest();
 			return true;
 		}
@@ -72,7 +141,9 @@ public class Building {
 	 */
 	public boolean quit(User outgoing) {
 		if (floors[0].leave(outgoing)) {
-			simulation.quit();
+			population--;
+			outgoing.setLocation(Location.LEFT);
+			simulation.quit(outgoing);
 			return true;
 		}
 		return false;
@@ -96,21 +167,281 @@ public class Building {
 	 * @param u the {@code User} that is now being served by the elevator.
 	 */
 	public void servingStarted(User u) {
-		if (elevator.getUsers().contains(u)) { 
+		if (u.getLocation() == Location.IN_ELEVATOR) { 
 			simulation.servingStarted(u);
 		}
 	}
 
-	public void fileComplaint() {
-		simulation.fileComplaint();
+	public void fileComplaint(User complainant) {
+		simulation.fileComplaint(complainant);
+	}
+
+	/**
+	 * Records an event of an elevator in the trace of the {@link Simulation}.
+	 * 
+	 * @param event    the kind of event
+	 * @param u        the {@code User} the event refers to, or null
+	 * @param level    the level of the floor where the event happened
+	 * @param elevator the index of the elevator
+	 * @param argument a value that depends on the event
+	 */
+	public void record(TraceEvent event, User u, int level, int elevator, int argument) {
+		simulation.record(event, u, level, elevator, argument);
+	}
+
+	/**
+	 * Records an event of an elevator that happened at the given tick in the
+	 * trace of the {@link Simulation}.
+	 * 
+	 * @param tick     the tick of the event
+	 * @param event    the kind of event
+	 * @param u        the {@code User} the event refers to, or null
+	 * @param level    the level of the floor where the event happened
+	 * @param elevator the index of the elevator
+	 * @param argument a value that depends on the event
+	 */
+	void record(int tick, TraceEvent event, User u, int level, int elevator, int argument) {
+		simulation.record(tick, event, u, level, elevator, argument);
+	}
+	
+	/**
+	 * Registers a timeout in the timing wheel of the {@link Simulation}.
+	 * 
+	 * @param tick the tick at which the task is due
+	 * @param task the task to run
+	 * @return the {@link Timer} of the task, which allows to cancel it.
+	 */
+	public Timer setTimer(int tick, Runnable task) {
+		return simulation.getTimers().schedule(tick, task);
+	}
+
+	/**
+	 * Registers a timeout of a non-employee in the timing wheel of the
+	 * {@link Simulation}. <br>
+	 * With {@code PER_TICK} sampling, the task is not run as soon as the wheel
+	 * fires the timer: it is handed to the non-employee, which runs it when its
+	 * floor ticks it, in turn with the other users, as if it checked its timeout
+	 * at each tick. With {@code GEOMETRIC} sampling, users are not ticked, and the
+	 * task is run straight away.
+	 * 
+	 * @param tick  the tick at which the task is due
+	 * @param owner the {@link NonEmployee} that registers the timeout
+	 * @param task  the task to run
+	 * @return the {@link Timer} of the task, which allows to cancel it.
+	 */
+	public Timer setTimer(int tick, NonEmployee owner, Runnable task) {
+		if (simulation.getSampling() == Sampling.GEOMETRIC) {
+			return setTimer(tick, task);
+		}
+		return setTimer(tick, () -> {
+			owner.timerDue(task);
+			dueUsers.add(owner);
+		});
+	}
+
+	/**
+	 * Cancels a timeout registered through {@link #setTimer(int, Runnable)}.
+	 * 
+	 * @param timer the {@link Timer} to cancel, or null
+	 */
+	public void cancelTimer(Timer timer) {
+		simulation.getTimers().cancel(timer);
+	}
+	
+	/**
+	 * Counts the ticks, from the current one, in which the building can only
+	 * change through its elevators travelling, unless a user arrives, decides to
+	 * change floor or has a timer due: no elevator has its doors open or opens
+	 * them.
+	 * 
+	 * @return the number of ticks, or {@code Integer.MAX_VALUE} if no elevator
+	 *         has anywhere to stop.
+	 * @see Elevator#getTravelTicks()
+	 */
+	public int getTravelTicks() {
+		int ticks = Integer.MAX_VALUE;
+		for (int i = 0; i < elevators.length && ticks > 0; i++) {
+			ticks = Math.min(ticks, elevators[i].getTravelTicks());
+		}
+		return ticks;
+	}
+
+	/**
+	 * Lets every elevator travel for the given number of ticks at once, which
+	 * must not exceed {@link #getTravelTicks()}. <br>
+	 * With a trace, the elevators travel one tick at a time, so that their moves
+	 * are recorded in the same order as if the building ticked.
+	 * 
+	 * @param from  the first of the ticks
+	 * @param ticks the number of ticks
+	 */
+	public void travelAhead(int from, int ticks) {
+		if (simulation.getTrace() == null) {
+			for (Elevator e : elevators) {
+				e.travelAhead(from, ticks);
+			}
+			return;
+		}
+		for (int i = 0; i < ticks; i++) {
+			for (Elevator e : elevators) {
+				e.travelAhead(from + i, 1);
+			}
+		}
+	}
+
+	/**
+	 * @return the number of employees currently staying on the floors of the
+	 *         building, i.e. the employees that may decide to change floor.
+	 */
+	public int getEmployeesOnFloors() {
+		int employees = 0;
+		for (Floor f : floors) {
+			List<User> onFloor = f.getOnFloor();
+			for (int i = 0; i < onFloor.size(); i++) {
+				if (onFloor.get(i) instanceof Employee) {
+					employees++;
+				}
+			}
+		}
+		return employees;
+	}
+	
+	/**
+	 * @return all the users in the building: the ones on each floor, from the
+	 *         ground floor up, followed by the ones in each elevator.
+	 */
+	public List<User> getUsers() {
+		List<User> users = new ArrayList<>();
+		for (Floor f : floors) {
+			users.addAll(f.getOnFloor());
+			users.addAll(f.getInQueue());
+		}
+		for (Elevator e : elevators) {
+			users.addAll(e.getUsers());
+		}
+		return users;
+	}
+
+	/**
+	 * Writes the state of the floors and of the elevators to a checkpoint of the
+	 * simulation, followed by the elevator each floor is assigned to.
+	 * 
+	 * @param out the {@link CheckpointWriter} of the checkpoint
+	 * @throws IOException if the checkpoint cannot be written.
+	 */
+	public void writeState(CheckpointWriter out) throws IOException {
+		for (Floor f : floors) {
+			f.writeState(out);
+		}
+		for (Elevator e : elevators) {
+			e.writeState(out);
+		}
+		callRegistry.writeState(out);
+	}
+
+	/**
+	 * Reads the state of the floors and of the elevators from a checkpoint of the
+	 * simulation, whose users have already been read.
+	 * 
+	 * @param in the {@link CheckpointReader} of the checkpoint
+	 * @throws IOException if the checkpoint cannot be read.
+	 */
+	public void readState(CheckpointReader in) throws IOException {
+		for (Floor f : floors) {
+			f.readState(in);
+		}
+		for (Elevator e : elevators) {
+			e.readState(in);
+		}
+		callRegistry.readState(in);
+		population = getUsers().size();
+		reserve(population);
+	}
+
+	/**
+	 * Copies the state of the floors and of the elevators of another building
+	 * into this building, of a branch of its simulation. The users have already
+	 * been copied.
+	 * 
+	 * @param original the {@code Building} to copy, with the same number of
+	 *                 floors and elevators
+	 * @param fork     the {@link SimulationFork} of the branch
+	 */
+	public void copyState(Building original, SimulationFork fork) {
+		for (int level = 0; level < floors.length; level++) {
+			floors[level].copyState(original.floors[level], fork);
+		}
+		for (int i = 0; i < elevators.length; i++) {
+			elevators[i].copyState(original.elevators[i], original.simulation.getElevatorCapacity(), fork);
+		}
+		callRegistry.copyState(original.callRegistry);
+		population = original.population;
+		reserve(population);
 	}
 
 	public Simulation getSimulation() {
 		return simulation;
 	}
 
+	public CallRegistry getCallRegistry() {
+		return callRegistry;
+	}
+
+	public GroupController getGroupController() {
+		return controller;
+	}
+
+	/**
+	 * @return the first elevator of the building, which is its only elevator
+	 *         unless the building has several.
+	 */
 	public Elevator getElevator() {
-		return elevator;
+		return elevators[0];
+	}
+
+	public Elevator[] getElevators() {
+		return elevators;
+	}
+
+	/**
+	 * Makes room for the given number of users in the snapshot, so that floors
+	 * and elevators can copy their users without allocating anything. The lists
+	 * of the floors grow on their own, and stop growing once the building is
+	 * warm.
+	 * 
+	 * @param size the number of users
+	 */
+	private void reserve(int size) {
+		if (snapshot.length < size) {
+			snapshot = new User[Math.max(size, 2 * snapshot.length)];
+		}
+	}
+
+	/**
+	 * Provides the array into which a floor or an elevator copies the users it
+	 * is about to tick or update. The caller clears the elements it has copied
+	 * once it is done, so that no user that quits is kept.
+	 * 
+	 * @param size the number of users to copy
+	 * @return the snapshot of the building, with room for the given number of
+	 *         users
+	 */
+	User[] getSnapshot(int size) {
+		reserve(size);
+		return snapshot;
+	}
+
+	/**
+	 * @param f a {@code Floor}, or null
+	 * @return true if the floor is one of the floors of this building, false
+	 *         otherwise.
+	 */
+	public boolean hasFloor(Floor f) {
+		if (f == null) {
+			return false;
+		}
+		int level = f.getLevel();
+		return level >= 0 && level < floors.length && floors[level] == f;
 	}
 
 	public Floor[] getFloors() {
@@ -0,0 +1,368 @@
+package uk.ac.aston.jpd.simulation.model.entities;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import uk.ac.aston.jpd.simulation.model.CheckpointReader;
+import uk.ac.aston.jpd.simulation.model.CheckpointWriter;
+
+/**
+ * The class {@code CallRegistry} keeps track of the calls for the elevators on
+ * each floor of a {@link Building}. <br>
+ * A call is a user waiting in a queue that an elevator may board, i.e. a user
+ * that is not waiting for the next elevator and does not require more space
+ * than the total capacity of an elevator.
+ * <p>
+ * For each floor, the registry counts the calls by required space, and it keeps
+ * the smallest required space of each floor in a segment tree. Therefore, it
+ * can tell whether any floor within a range has a call that fits in the
+ * available space of an elevator in {@code O(log floors)}.
+ * </p>
+ * <p>
+ * The calls of a floor are assigned to one of the elevators as soon as the
+ * floor has a call, by the {@link GroupController} of the building, until the
+ * floor has none left. Each elevator has a segment tree of its own, which only
+ * holds the floors assigned to it, so an elevator looks for its calls in
+ * {@code O(log floors)} whatever the number of elevators. With a single
+ * elevator, every call is assigned to it and its tree is the one of the whole
+ * building.
+ * </p>
+ *
+ * @author Parminder
+ */
+public class CallRegistry {
+
+	private static final int NO_CALL = Integer.MAX_VALUE;
+	private static final int UNASSIGNED = -1;
+
+	private final int capacity;
+	private final GroupController controller;
+
+	/**
+	 * the number of calls on each floor, by required space
+	 */
+	private final int[][] callsBySpace;
+
+	/**
+	 * the segment tree: leaves start at index {@code leaves} and hold the smallest
+	 * required space of each floor, every other node holds the minimum of its two
+	 * children.
+	 */
+	private final int[] tree;
+	private final int leaves;
+
+	/**
+	 * the segment trees of the elevators, which only hold the floors assigned to
+	 * each of them
+	 */
+	private final int[][] carTrees;
+
+	/**
+	 * the elevator that the calls of each floor are assigned to, and the number of
+	 * floors assigned to each elevator
+	 */
+	private final int[] assignedCar;
+	private final int[] assignedFloors;
+
+	/**
+	 * Creates a {@code CallRegistry} for the given number of floors, served by a
+	 * single elevator.
+	 *
+	 * @param numFloors the number of floors of the building
+	 * @param capacity  the total capacity of the elevator
+	 */
+	public CallRegistry(int numFloors, int capacity) {
+		this(numFloors, capacity, null);
+	}
+
+	/**
+	 * Creates a {@code CallRegistry} for the given number of floors, whose calls
+	 * are assigned to the elevators by the given controller.
+	 *
+	 * @param numFloors  the number of floors of the building
+	 * @param capacity   the total capacity of each elevator
+	 * @param controller the {@link GroupController} of the elevators, or null
+	 *                   for a single elevator
+	 */
+	public CallRegistry(int numFloors, int capacity, GroupController controller) {
+		this.capacity = Math.max(capacity, 0);
+		this.controller = controller;
+		this.callsBySpace = new int[numFloors][this.capacity + 1];
+
+		int size = 1;
+		while (size < numFloors) {
+			size *= 2;
+		}
+		this.leaves = size;
+		this.tree = new int[2 * size];
+		Arrays.fill(tree, NO_CALL);
+
+		int cars = (controller != null) ? controller.getElevatorCount() : 1;
+		carTrees = new int[cars][];
+		for (int car = 0; car < cars; car++) {
+			carTrees[car] = (cars == 1) ? tree : tree.clone();
+		}
+		assignedCar = new int[numFloors];
+		Arrays.fill(assignedCar, UNASSIGNED);
+		assignedFloors = new int[cars];
+	}
+
+	/**
+	 * Registers a new call on the given floor.
+	 *
+	 * @param level         the level of the floor
+	 * @param requiredSpace the space required by the waiting user
+	 */
+	public void addCall(int level, int requiredSpace) {
+		if (requiredSpace <= capacity) {
+			callsBySpace[level][requiredSpace]++;
+			update(level);
+		}
+	}
+
+	/**
+	 * Removes a call from the given floor.
+	 *
+	 * @param level         the level of the floor
+	 * @param requiredSpace the space required by the user that is no longer a call
+	 */
+	public void removeCall(int level, int requiredSpace) {
+		if (requiredSpace <= capacity && callsBySpace[level][requiredSpace] > 0) {
+			callsBySpace[level][requiredSpace]--;
+			update(level);
+		}
+	}
+
+	/**
+	 * @param level the level of the floor
+	 * @return the smallest space required by a call on the floor, or
+	 *         {@code Integer.MAX_VALUE} if there is no call.
+	 */
+	public int getMinRequiredSpace(int level) {
+		return tree[leaves + level];
+	}
+
+	/**
+	 * Checks whether any floor within the given levels has a call requiring no
+	 * more than the given space.
+	 *
+	 * @param from           the lowest level to check
+	 * @param to             the highest level to check
+	 * @param availableSpace the space available in the elevator
+	 * @return true if there is such a call, false otherwise (including when
+	 *         {@code from} is greater than {@code to}).
+	 */
+	public boolean hasCall(int from, int to, int availableSpace) {
+		return hasCall(tree, from, to, availableSpace);
+	}
+
+	/**
+	 * Checks whether any floor within the given levels, whose calls are assigned
+	 * to the given elevator, has a call requiring no more than the given space.
+	 *
+	 * @param car            the index of the elevator
+	 * @param from           the lowest level to check
+	 * @param to             the highest level to check
+	 * @param availableSpace the space available in the elevator
+	 * @return true if there is such a call, false otherwise (including when
+	 *         {@code from} is greater than {@code to}).
+	 */
+	public boolean hasCall(int car, int from, int to, int availableSpace) {
+		return hasCall(carTrees[car], from, to, availableSpace);
+	}
+
+	private boolean hasCall(int[] tree, int from, int to, int availableSpace) {
+		int min = NO_CALL;
+		for (int lo = from + leaves, hi = to + leaves + 1; lo < hi; lo /= 2, hi /= 2) {
+			if ((lo & 1) == 1) {
+				min = Math.min(min, tree[lo++]);
+			}
+			if ((hi & 1) == 1) {
+				min = Math.min(min, tree[--hi]);
+			}
+		}
+		return min <= availableSpace;
+	}
+
+	/**
+	 * Finds the nearest floor beyond the given level, in the given direction,
+	 * whose calls are assigned to the given elevator and include one requiring no
+	 * more than the given space. <br>
+	 * The search climbs the tree of the elevator from the leaf of the level until
+	 * a node on the side of the direction has such a call, then goes down to the
+	 * nearest leaf under it, in {@code O(log floors)}.
+	 *
+	 * @param car            the index of the elevator
+	 * @param level          the level the search starts from, which is excluded
+	 * @param up             true to look above the level, false to look below
+	 * @param availableSpace the space available in the elevator
+	 * @return the level of the floor, or -1 if there is none.
+	 */
+	public int nextCall(int car, int level, boolean up, int availableSpace) {
+		int[] tree = carTrees[car];
+		int node = leaves + level;
+		while (node > 1) {
+			int sibling = node ^ 1;
+			boolean isAhead = up ? sibling > node : sibling < node;
+			if (isAhead && tree[sibling] <= availableSpace) {
+				node = sibling;
+				break;
+			}
+			node /= 2;
+		}
+		if (node == 1) {
+			return -1;
+		}
+		while (node < leaves) {
+			int nearest = up ? 2 * node : 2 * node + 1;
+			node = (tree[nearest] <= availableSpace) ? nearest : nearest ^ 1;
+		}
+		return node - leaves;
+	}
+
+	/**
+	 * @param level the level of the floor
+	 * @return the index of the elevator that the calls of the floor are assigned
+	 *         to, or -1 if the floor has no call.
+	 */
+	public int getAssignedCar(int level) {
+		return assignedCar[level];
+	}
+
+	/**
+	 * @param car the index of the elevator
+	 * @return the number of floors whose calls are assigned to the elevator
+	 */
+	public int getAssignedFloors(int car) {
+		return assignedFloors[car];
+	}
+
+	/**
+	 * Asks the {@link GroupController} again which elevator the calls of the
+	 * given floor are assigned to, e.g. after the elevator they were assigned to
+	 * has left the floor without boarding them.
+	 *
+	 * @param level the level of the floor
+	 */
+	public void reassign(int level) {
+		int min = tree[leaves + level];
+		if (min != NO_CALL && controller != null) {
+			assign(level, controller.selectCar(level, min));
+		}
+	}
+
+	/**
+	 * Recomputes the smallest required space of a floor and propagates it up the
+	 * tree, and up the tree of the elevator the floor is assigned to. A floor
+	 * that gets its first call is assigned to an elevator, and a floor left with
+	 * no call is released.
+	 *
+	 * @param level the level of the floor
+	 */
+	private void update(int level) {
+		int min = NO_CALL;
+		int[] calls = callsBySpace[level];
+		for (int space = 0; space < calls.length; space++) {
+			if (calls[space] > 0) {
+				min = space;
+				break;
+			}
+		}
+
+		set(tree, level, min);
+		int car = assignedCar[level];
+		if (min == NO_CALL) {
+			assign(level, UNASSIGNED);
+		} else if (car == UNASSIGNED) {
+			assign(level, (controller != null) ? controller.selectCar(level, min) : 0);
+		} else if (carTrees[car] != tree) {
+			set(carTrees[car], level, min);
+		}
+	}
+
+	/**
+	 * Assigns the calls of a floor to the given elevator, moving the floor from
+	 * the tree of the elevator it was assigned to, if any, into the tree of the
+	 * new one.
+	 *
+	 * @param level the level of the floor
+	 * @param car   the index of the elevator, or -1 to release the floor
+	 */
+	private void assign(int level, int car) {
+		int previous = assignedCar[level];
+		if (previous == car) {
+			return;
+		} else if (previous != UNASSIGNED) {
+			assignedFloors[previous]--;
+			if (carTrees[previous] != tree) {
+				set(carTrees[previous], level, NO_CALL);
+			}
+		}
+		assignedCar[level] = car;
+		if (car != UNASSIGNED) {
+			assignedFloors[car]++;
+			if (carTrees[car] != tree) {
+				set(carTrees[car], level, tree[leaves + level]);
+			}
+		}
+	}
+
+	/**
+	 * Sets the leaf of a floor in a segment tree and propagates it up the tree.
+	 *
+	 * @param tree  the segment tree
+	 * @param level the level of the floor
+	 * @param value the smallest required space of the floor in the tree
+	 */
+	private void set(int[] tree, int level, int value) {
+		int node = leaves + level;
+		tree[node] = value;
+		for (node /= 2; node > 0; node /= 2) {
+			tree[node] = Math.min(tree[2 * node], tree[2 * node + 1]);
+		}
+	}
+
+	/**
+	 * Writes the elevator that the calls of each floor are assigned to, to a
+	 * checkpoint of the simulation.
+	 *
+	 * @param out the {@link CheckpointWriter} of the checkpoint
+	 * @throws IOException if the checkpoint cannot be written.
+	 */
+	public void writeState(CheckpointWriter out) throws IOException {
+		for (int car : assignedCar) {
+			out.writeInt(car);
+		}
+	}
+
+	/**
+	 * Reads the elevator that the calls of each floor are assigned to, from a
+	 * checkpoint of the simulation whose floors have already been read.
+	 *
+	 * @param in the {@link CheckpointReader} of the checkpoint
+	 * @throws IOException if the checkpoint cannot be read, or it assigns a floor
+	 *                     to an elevator the building does not have.
+	 */
+	public void readState(CheckpointReader in) throws IOException {
+		for (int level = 0; level < assignedCar.length; level++) {
+			int car = in.readInt();
+			if (car < UNASSIGNED || car >= carTrees.length) {
+				throw new IOException("Unknown elevator in checkpoint: " + car);
+			}
+			assign(level, car);
+		}
+	}
+
+	/**
+	 * Assigns the calls of each floor to the same elevator as in the registry of
+	 * another simulation, whose floors have been copied into this one.
+	 *
+	 * @param original the {@code CallRegistry} to copy, with the same floors and
+	 *                 elevators
+	 */
+	public void copyState(CallRegistry original) {
+		for (int level = 0; level < assignedCar.length; level++) {
+			assign(level, original.assignedCar[level]);
+		}
+	}
+}
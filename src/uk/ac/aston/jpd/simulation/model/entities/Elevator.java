@@ -1,75 +1,182 @@
 package uk.ac.aston.jpd.simulation.model.entities;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.List;
 
+import uk.ac.aston.jpd.simulation.model.CheckpointReader;
+import uk.ac.aston.jpd.simulation.model.CheckpointWriter;
+import uk.ac.aston.jpd.simulation.model.SimulationFork;
 import uk.ac.aston.jpd.simulation.model.entities.users.FloorRequest;
 import uk.ac.aston.jpd.simulation.model.entities.users.User;
+import uk.ac.aston.jpd.simulation.model.entities.users.User.Location;
+import uk.ac.aston.jpd.simulation.model.entities.users.UserType;
+import uk.ac.aston.jpd.simulation.model.trace.TraceEvent;
 
 /**
  * The class {@code Elevator} represents a lift within a building. <br>
  * It allows {@link User} objects to enter and it takes them to their desired
  * floor. In order to do so, it checks the {@link FloorRequest} of each user.
+ * <p>
+ * A building may have several elevators. Each of them stops at the target
+ * floors of its passengers and at the floors whose calls the
+ * {@link GroupController} has assigned to it; while its doors are open, any
+ * user waiting at the floor may board it. An elevator ticks in two steps:
+ * {@link #travel()} only changes the elevator and its passengers, while
+ * {@link #serve()} changes the floors; the building runs the first step for
+ * every elevator before the second.
+ * </p>
+ * <p>
+ * Between two stops, an elevator only moves one floor per tick: as long as its
+ * calls do not change, it can tell how many ticks it will keep travelling, and
+ * {@link #travelAhead(int, int)} covers them in one step.
+ * </p>
  * 
  * @author Parminder
  */
 public class Elevator {
 
-	private static final String UP = "UP";
-	private static final String DOWN = "DOWN";
+	/**
+	 * The direction in which the elevator is going.
+	 */
+	public enum Direction {
+		UP, DOWN
+	}
 
+	private final Building building;
 	private final Floor[] floors;
-	private final List<User> users = new ArrayList<User>();
-	private final List<Floor> targetFloors = new ArrayList<Floor>();
+	private final CallRegistry calls;
+	private final int index;
+
+	/**
+	 * the users in the elevator, in the order they got in, and a read-only view
+	 * of them
+	 */
+	private final List<User> users;
+	private final List<User> passengers;
+
+	/**
+	 * the users in the elevator, grouped by the level of the floor they have to get
+	 * off at
+	 */
+	private final List<List<User>> passengersByTarget;
+
+	/**
+	 * the levels of the floors where at least one user in the elevator has to get
+	 * off
+	 */
+	private final BitSet targetLevels;
+
+	/**
+	 * the number of users in the elevator, by the code of their {@link UserType}
+	 */
+	private final int[] passengersByType = new int[UserType.values().length];
 
 	private int availableSpace;
-	private String direction = UP;
+	private Direction direction = Direction.UP;
 	private boolean isOpen = false;
 	private Floor currentFloor;
 
+	/**
+	 * what the elevator has done while travelling in the current tick, which is
+	 * recorded when it serves: the level it has left, or -1 if it has not moved,
+	 * and whether it has opened its doors
+	 */
+	private int leftLevel = -1;
+	private boolean hasOpened = false;
+
 	/**
 	 * Constructor for the {@code Elevator} entity. Takes a Building in order to
 	 * retrieve its own capacity and the floors it can move between.
 	 * 
 	 * @param building the {@link Building} the elevator belongs to.
+	 * @param index    the position of the elevator in the building, from 0
 	 * @throws InvalidElevatorException if the provided elevator capacity is less
 	 *                                  than 1.
 	 */
-	public Elevator(Building building) {
+	public Elevator(Building building, int index) {
+		this.building = building;
+		this.index = index;
 		floors = building.getFloors();
 		currentFloor = floors[0];
+		calls = building.getCallRegistry();
 		availableSpace = building.getSimulation().getElevatorCapacity();
 		if (availableSpace < 1) {
 			throw new InvalidElevatorException("Incorrect capacity", availableSpace);
 		}
+
+		/* every user takes some space, so no list ever holds more users than the capacity */
+		users = new ArrayList<User>(availableSpace);
+		passengers = Collections.unmodifiableList(users);
+		targetLevels = new BitSet(floors.length);
+		passengersByTarget = new ArrayList<>(floors.length);
+		for (int level = 0; level < floors.length; level++) {
+			passengersByTarget.add(new ArrayList<User>(availableSpace));
+		}
 	}
 
 	/**
-	 * Delegates the ticking to {@code #tickIfOpen()} or {@code #tickIfClosed()},
-	 * depending on whether the doors are open or closed.
+	 * Ticks the elevator on its own, by travelling and then serving.
 	 */
 	public void tick() {
-		if (isOpen) {
-			tickIfOpen();
-		} else {
+		travel();
+		serve();
+	}
+
+	/**
+	 * First step of a tick: if the doors are closed, delegates to
+	 * {@code #tickIfClosed()}. <br>
+	 * It only changes the state of this elevator and of its passengers, and only
+	 * reads the {@link CallRegistry}, which does not change meanwhile: the result
+	 * does not depend on the order in which the elevators of a building travel.
+	 */
+	void travel() {
+		if (!isOpen) {
 			tickIfClosed();
 		}
 	}
 
+	/**
+	 * Second step of a tick: records the moves made while travelling and, if the
+	 * doors were already open, delegates to {@code #tickIfOpen()}. <br>
+	 * The elevators of a building serve one after another, in order, so the users
+	 * boarding and the floors are updated in the same order at each run.
+	 */
+	void serve() {
+		if (leftLevel >= 0) {
+			building.record(TraceEvent.ELEVATOR_MOVE, null, currentFloor.getLevel(), index, leftLevel);
+			leftLevel = -1;
+		}
+		if (hasOpened) {
+			hasOpened = false;
+			building.record(TraceEvent.DOORS_OPEN, null, currentFloor.getLevel(), index, 0);
+		} else if (isOpen) {
+			tickIfOpen();
+		}
+	}
+
 	/**
 	 * Determines behaviour of the elevator when doors are open: it looks for
 	 * requests on the {@code currentFloor}: if any, it allows users to
-	 * {@code #board()} and {@code #alight()}. If none, it closes the doors.
+	 * {@code #board()} and {@code #alight()}. If none, it closes the doors, and
+	 * the calls it has left at the floor are assigned again.
 	 */
 	private void tickIfOpen() {
-		if (hasRequests(currentFloor)) {
+		int level = currentFloor.getLevel();
+		if (targetLevels.get(level) || calls.getMinRequiredSpace(level) <= availableSpace) {
 			alight();
 			board();
 		} else {
 			isOpen = false;
-			targetFloors.remove(currentFloor);
+			building.record(TraceEvent.DOORS_CLOSE, null, level, index, 0);
+			targetLevels.clear(level);
 			currentFloor.resetWaitingForNext();
+			if (calls.getAssignedCar(level) == index) {
+				calls.reassign(level);
+			}
 		}
 	}
 
@@ -82,67 +189,153 @@ public class Elevator {
 	 * ground floor.
 	 */
 	private void tickIfClosed() {
-		String opposite = getOppositeDirection();
+		Direction opposite = getOppositeDirection();
 		if (hasRequests(direction)) { // check current direction
 			move(direction);
 			if (hasRequests(currentFloor)) {
-				isOpen = true;
+				openDoors();
 			}
 		} else if (hasRequests(opposite)) { // check opposite direction
 			direction = opposite;
 			move(opposite);
 			if (hasRequests(currentFloor)) {
-				isOpen = true;
+				openDoors();
 			}
 		} else if (hasRequests(currentFloor)) { // check current floor
-			isOpen = true;
+			openDoors();
 		} else if (!currentFloor.equals(floors[0])) { // check if the current floor is the ground floor
-			move(DOWN);
+			move(Direction.DOWN);
 		}
 	}
 
 	/**
 	 * Depending on the provided direction, moves the elevator up or down by one
 	 * floor and notifies users within it that the {@code currentFloor} has changed.
+	 * The move is recorded when the elevator serves.
 	 * 
 	 * @param dir direction to move to, either {@code UP} or {@code DOWN}
 	 */
-	private void move(String dir) {
+	private void move(Direction dir) {
 		int lev = currentFloor.getLevel();
-		if (dir.equals(UP)) {
+		if (dir == Direction.UP) {
 			currentFloor = floors[lev + 1];
-		} else if (dir.equals(DOWN)) {
+		} else {
 			currentFloor = floors[lev - 1];
 		}
 
 		/* notify users that the floor has changed */
-		for (User u : users) {
-			u.updateFloor(currentFloor);
+		for (int i = 0; i < users.size(); i++) {
+			users.get(i).updateFloor(currentFloor);
+		}
+		leftLevel = lev;
+	}
+
+	private void openDoors() {
+		isOpen = true;
+		hasOpened = true;
+	}
+
+	/**
+	 * Counts the ticks, from the current one, in which the elevator will do
+	 * nothing but travel with its doors closed, provided that its calls do not
+	 * change meanwhile: it moves one floor per tick towards the next floor where
+	 * it has to stop, goes back to the ground floor or stays parked there. The
+	 * tick in which it reaches a floor and opens its doors is not counted.
+	 * 
+	 * @return the number of ticks: 0 if the doors are open or about to open, or
+	 *         {@code Integer.MAX_VALUE} if the elevator has nowhere to stop.
+	 */
+	int getTravelTicks() {
+		if (isOpen) {
+			return 0;
+		}
+		Direction dir = getTravelDirection();
+		if (dir != null) {
+			return Math.abs(getNextStop(dir) - currentFloor.getLevel()) - 1;
+		}
+		return hasRequests(currentFloor) ? 0 : Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Travels for the given number of ticks at once, ending up exactly as
+	 * {@link #travel()} and {@link #serve()} would over as many ticks. The moves
+	 * are recorded one by one, from the given tick on, if the simulation has a
+	 * trace.
+	 * 
+	 * @param from  the tick at which the elevator starts travelling
+	 * @param ticks the number of ticks, which must not exceed
+	 *              {@link #getTravelTicks()}
+	 */
+	void travelAhead(int from, int ticks) {
+		int level = currentFloor.getLevel();
+		Direction dir = getTravelDirection();
+		if (dir == null) {
+			/* with nowhere to stop, it goes down to the ground floor, keeping its direction */
+			ticks = Math.min(ticks, level);
+		}
+		if (ticks <= 0) {
+			return;
+		} else if (dir != null) {
+			direction = dir;
+		}
+
+		int step = (dir == Direction.UP) ? 1 : -1;
+		if (building.getSimulation().getTrace() != null) {
+			for (int i = 0; i < ticks; i++) {
+				building.record(from + i, TraceEvent.ELEVATOR_MOVE, null, level + (i + 1) * step, index, level + i * step);
+			}
+		}
+		currentFloor = floors[level + ticks * step];
+		for (int i = 0; i < users.size(); i++) {
+			users.get(i).updateFloor(currentFloor);
 		}
 	}
 
 	/**
-	 * Checks if the floors in the specified direction have any requests.
+	 * @return the direction the elevator moves in when its doors are closed: the
+	 *         current one if it has requests that way, otherwise the opposite one
+	 *         if it has requests that way, or null if it has none in either.
+	 */
+	private Direction getTravelDirection() {
+		if (hasRequests(direction)) {
+			return direction;
+		}
+		Direction opposite = getOppositeDirection();
+		return hasRequests(opposite) ? opposite : null;
+	}
+
+	/**
+	 * @param dir the direction to look in
+	 * @return the level of the nearest floor in the given direction where a user
+	 *         in the elevator has to get off, or whose calls assigned to it fit in
+	 *         the elevator; -1 if there is none.
+	 */
+	private int getNextStop(Direction dir) {
+		int level = currentFloor.getLevel();
+		boolean up = dir == Direction.UP;
+		int target = up ? targetLevels.nextSetBit(level + 1) : targetLevels.previousSetBit(level - 1);
+		int call = calls.nextCall(index, level, up, availableSpace);
+		if (target < 0 || call < 0) {
+			return Math.max(target, call);
+		}
+		return up ? Math.min(target, call) : Math.max(target, call);
+	}
+
+	/**
+	 * Checks if the floors in the specified direction have any requests, by
+	 * looking up the target floors of the users in the elevator and the calls
+	 * assigned to it in the {@link CallRegistry} of the building.
 	 * 
 	 * @param dir direction to check, either {@code UP} or {@code DOWN}.
 	 * @return true if there are requests in the specified direction, false
 	 *         otherwise.
 	 */
-	private boolean hasRequests(String dir) {
-		if (dir.equals(UP)) {
-			for (int i = currentFloor.getLevel() + 1; i < floors.length; i++) {
-				if (hasRequests(floors[i])) {
-					return true;
-				}
-			}
-		} else if (dir.equals(DOWN)) {
-			for (int i = currentFloor.getLevel() - 1; i >= 0; i--) {
-				if (hasRequests(floors[i])) {
-					return true;
-				}
-			}
+	private boolean hasRequests(Direction dir) {
+		int level = currentFloor.getLevel();
+		if (dir == Direction.UP) {
+			return targetLevels.nextSetBit(level + 1) >= 0 || calls.hasCall(index, level + 1, floors.length - 1, availableSpace);
 		}
-		return false;
+		return targetLevels.previousSetBit(level - 1) >= 0 || calls.hasCall(index, 0, level - 1, availableSpace);
 	}
 
 	/**
@@ -150,41 +343,50 @@ public class Elevator {
 	 * 
 	 * @param floor the {@link Floor} to check
 	 * @return true if any of the users within the elevator has to get off at the
-	 *         floor, or if any of the users in queue at the floor can be boarded.
-	 *         Returns false otherwise.
+	 *         floor, or if the calls of the floor are assigned to the elevator and
+	 *         any of the users in queue at the floor can be boarded. Returns false
+	 *         otherwise.
 	 */
-	private boolean hasRequests(Floor floor) {
-		boolean isInTargetFloors = targetFloors.contains(floor);
-
-		if (isInTargetFloors) {
-			return true;
-		} else {
-			List<User> waitingQueue = new ArrayList<>(floor.getInQueue());
-			for (User waitingUser : waitingQueue) {
-				if (waitingUser.getRequiredSpace() <= availableSpace && !waitingUser.isWaitingForNext()) {
-					return true;
-				}
-			}
-		}
-		return false;
+	boolean hasRequests(Floor floor) {
+		int level = floor.getLevel();
+		return targetLevels.get(level) || (calls.getAssignedCar(level) == index && calls.getMinRequiredSpace(level) <= availableSpace);
 	}
 
 	
 	/**
-	 * Checks all users within the elevator and allows them to get off if their
-	 * requested floor matches the {@code currentFloor }. 
+	 * Allows the users within the elevator whose requested floor matches the
+	 * {@code currentFloor} to get off, in the order they got in. <br>
+	 * They are then removed from the users in the elevator all at once, which
+	 * keeps the others in order.
 	 */
 	private void alight() {
-		List<User> inElevator = new ArrayList<>(users);
-		for (User passenger : inElevator) {
-			if (passenger.getRequest().getTargetFloor().equals(currentFloor)) {
-				passenger.targetReached();
-				users.remove(passenger);
-				availableSpace += passenger.getRequiredSpace();
-
-				targetFloors.remove(passenger.getRequest().getTargetFloor());
+		int level = currentFloor.getLevel();
+		List<User> leaving = passengersByTarget.get(level);
+		int left = leaving.size();
+		for (int i = 0; i < leaving.size(); i++) {
+			User passenger = leaving.get(i);
+			building.record(TraceEvent.ALIGHT, passenger, level, index, 0);
+			passenger.setElevator(null);
+			passenger.targetReached();
+			passengersByType[passenger.getType().getCode()]--;
+			availableSpace += passenger.getRequiredSpace();
+		}
+		leaving.clear();
+		targetLevels.clear(level);
+		if (left == 0) {
+			return;
+		}
+
+		int kept = 0;
+		for (int i = 0; i < users.size(); i++) {
+			User passenger = users.get(i);
+			if (passenger.getElevator() == this) {
+				users.set(kept++, passenger);
 			}
 		}
+		while (users.size() > kept) {
+			users.remove(users.size() - 1);
+		}
 	}
 
 	/**
@@ -192,21 +394,26 @@ public class Elevator {
 	 * them to enter the elevator if certain conditions are met.
 	 */
 	private void board() {
-		List<User> waitingQueue = new ArrayList<>(currentFloor.getInQueue());
+		/* the users leave the queue as they get in, so they are copied beforehand */
+		User[] waitingQueue = building.getSnapshot(currentFloor.getInQueue().size());
+		int queueLength = currentFloor.copyQueueTo(waitingQueue);
 
-		for (int index = 0; index < waitingQueue.size() && availableSpace > 0; index++) {
-			User passenger = waitingQueue.get(index);
+		for (int index = 0; index < queueLength && availableSpace > 0; index++) {
+			User passenger = waitingQueue[index];
 			if (canBeBoarded(passenger)) {
 				users.add(passenger);
+				passengersByType[passenger.getType().getCode()]++;
+				passenger.setLocation(Location.IN_ELEVATOR);
+				passenger.setElevator(this);
 				availableSpace -= passenger.getRequiredSpace();
 
-				Floor target = passenger.getRequest().getTargetFloor();
-				if (!targetFloors.contains(target)) {
-					targetFloors.add(target);
-				}
+				int target = passenger.getRequest().getTargetFloor().getLevel();
+				passengersByTarget.get(target).add(passenger);
+				targetLevels.set(target);
 				passenger.requestAccepted();
 			}
 		}
+		Arrays.fill(waitingQueue, 0, queueLength, null);
 	}
 
 	/**
@@ -222,22 +429,177 @@ public class Elevator {
 			return false;
 		} else {
 			Floor target = passenger.getRequest().getTargetFloor();
-			boolean isInElevator = users.contains(passenger);
-			boolean hasValidRequest = Arrays.asList(floors).contains(target) && !request.isDone();
+			boolean isInElevator = isCarrying(passenger);
+			boolean hasValidRequest = building.hasFloor(target) && !request.isDone();
 			boolean fitsInElevator = passenger.getRequiredSpace() <= availableSpace;
-			boolean isReadyToBoard = passenger.isReadyToBoard();
+			boolean isReadyToBoard = passenger.isReadyToBoard(this);
 			return !isInElevator && hasValidRequest && fitsInElevator && isReadyToBoard;
 		}
 	}
 
+	/**
+	 * Writes the state of the elevator to a checkpoint of the simulation: its
+	 * position, direction and doors, and its passengers in the order they got in.
+	 * 
+	 * @param out the {@link CheckpointWriter} of the checkpoint
+	 * @throws IOException if the checkpoint cannot be written.
+	 */
+	public void writeState(CheckpointWriter out) throws IOException {
+		out.writeFloor(currentFloor);
+		out.writeBoolean(direction == Direction.UP);
+		out.writeBoolean(isOpen);
+		out.writeInt(availableSpace);
+		out.writeInt(users.size());
+		for (User u : users) {
+			out.writeUser(u);
+		}
+		for (List<User> passengers : passengersByTarget) {
+			out.writeInt(passengers.size());
+			for (User u : passengers) {
+				out.writeUser(u);
+			}
+		}
+		out.writeInt(targetLevels.cardinality());
+		for (int level = targetLevels.nextSetBit(0); level >= 0; level = targetLevels.nextSetBit(level + 1)) {
+			out.writeInt(level);
+		}
+	}
+
+	/**
+	 * Reads the state of the elevator from a checkpoint of the simulation, whose
+	 * users have already been read.
+	 * 
+	 * @param in the {@link CheckpointReader} of the checkpoint
+	 * @throws IOException if the checkpoint cannot be read.
+	 */
+	public void readState(CheckpointReader in) throws IOException {
+		currentFloor = in.readFloor();
+		direction = in.readBoolean() ? Direction.UP : Direction.DOWN;
+		isOpen = in.readBoolean();
+		availableSpace = in.readInt();
+		users.clear();
+		Arrays.fill(passengersByType, 0);
+		int passengers = in.readInt();
+		for (int i = 0; i < passengers; i++) {
+			User u = in.readUser();
+			users.add(u);
+			u.setElevator(this);
+			passengersByType[u.getType().getCode()]++;
+		}
+		for (List<User> bucket : passengersByTarget) {
+			bucket.clear();
+			int size = in.readInt();
+			for (int i = 0; i < size; i++) {
+				bucket.add(in.readUser());
+			}
+		}
+		targetLevels.clear();
+		int targets = in.readInt();
+		for (int i = 0; i < targets; i++) {
+			targetLevels.set(in.readInt());
+		}
+	}
+
+	/**
+	 * Copies the state of the elevator of another simulation into this elevator
+	 * of a branch of it. If the capacity of the branch is different, the space
+	 * taken by the passengers is kept.
+	 * 
+	 * @param original the {@code Elevator} to copy
+	 * @param capacity the capacity of the original elevator
+	 * @param fork     the {@link SimulationFork} of the branch
+	 */
+	public void copyState(Elevator original, int capacity, SimulationFork fork) {
+		currentFloor = fork.floor(original.currentFloor);
+		direction = original.direction;
+		isOpen = original.isOpen;
+		availableSpace -= capacity - original.availableSpace;
+		for (User u : original.users) {
+			User copy = fork.user(u);
+			users.add(copy);
+			copy.setElevator(this);
+		}
+		System.arraycopy(original.passengersByType, 0, passengersByType, 0, passengersByType.length);
+		for (int level = 0; level < passengersByTarget.size(); level++) {
+			for (User u : original.passengersByTarget.get(level)) {
+				passengersByTarget.get(level).add(fork.user(u));
+			}
+		}
+		targetLevels.or(original.targetLevels);
+	}
+
+	/**
+	 * @return the number of floors where at least one user in the elevator has to
+	 *         get off
+	 */
+	int getTargetCount() {
+		return targetLevels.cardinality();
+	}
+
+	/**
+	 * @return the level of the furthest floor in the direction of the elevator
+	 *         where a user in it has to get off, or the current level if there
+	 *         is none.
+	 */
+	int getFurthestTargetLevel() {
+		int level = currentFloor.getLevel();
+		if (direction == Direction.UP) {
+			return Math.max(level, targetLevels.length() - 1);
+		}
+		int lowest = targetLevels.nextSetBit(0);
+		return (lowest >= 0) ? Math.min(level, lowest) : level;
+	}
+
+	/**
+	 * @return a list of the users in the elevator, in the order they got in.
+	 */
 	public List<User> getUsers() {
-		return users;
+		return new ArrayList<User>(users);
+	}
+
+	/**
+	 * @return a read-only view of the users in the elevator, in the order they got
+	 *         in, which follows the users getting in and out.
+	 */
+	public List<User> getPassengers() {
+		return passengers;
+	}
+
+	/**
+	 * @param type a type of user
+	 * @return the number of users of that type in the elevator
+	 */
+	public int getPassengerCount(UserType type) {
+		return passengersByType[type.getCode()];
 	}
 
+	/**
+	 * Checks whether a user is in the elevator, through the location of the user
+	 * rather than by looking it up among the passengers.
+	 * 
+	 * @param u the {@code User} to look for
+	 * @return true if the user is in the elevator, false otherwise.
+	 */
+	public boolean isCarrying(User u) {
+		return u.getLocation() == Location.IN_ELEVATOR && u.getElevator() == this;
+	}
+
+	/**
+	 * @return the floors where at least one user in the elevator has to get off,
+	 *         from the lowest to the highest.
+	 */
 	public List<Floor> getTargetFloors() {
+		List<Floor> targetFloors = new ArrayList<>();
+		for (int level = targetLevels.nextSetBit(0); level >= 0; level = targetLevels.nextSetBit(level + 1)) {
+			targetFloors.add(floors[level]);
+		}
 		return targetFloors;
 	}
 
+	public int getIndex() {
+		return index;
+	}
+
 	public int getAvailableSpace() {
 		return availableSpace;
 	}
@@ -246,23 +608,28 @@ public class Elevator {
 		return currentFloor;
 	}
 
-	public String getDirection() {
+	public Direction getDirection() {
 		return direction;
 	}
 
-	public String getOppositeDirection() {
-		return direction.equals(UP) ? DOWN : UP;
+	public boolean isOpen() {
+		return isOpen;
+	}
+
+	public Direction getOppositeDirection() {
+		return (direction == Direction.UP) ? Direction.DOWN : Direction.UP;
 	}
 	
 	/**
 	 * Provides a {@code String} with the current state of the elevator:
 	 * specifically available space, current Floor, direction, door status and users
-	 * within it.
+	 * within it. In a building with several elevators, they are numbered from 1.
 	 * 
 	 * @return a {@code String} reporting the current state of the elevator.
 	 */
 	public String getStatus() {
-		String status = "ELEVATOR > currently at: " + currentFloor + ", going: " + direction;
+		String name = (building.getElevators().length > 1) ? "ELEVATOR " + (index + 1) : "ELEVATOR";
+		String status = name + " > currently at: " + currentFloor + ", going: " + direction;
 		status += "\n         > available space: " + availableSpace + ", door: ";
 		status += isOpen ? "OPEN" : "CLOSED";
 		status += "\n         > users in elevator= ";
@@ -1,12 +1,15 @@
 package uk.ac.aston.jpd.simulation.model.entities;
 
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.List;
 
+import uk.ac.aston.jpd.simulation.model.CheckpointReader;
+import uk.ac.aston.jpd.simulation.model.CheckpointWriter;
+import uk.ac.aston.jpd.simulation.model.SimulationFork;
 import uk.ac.aston.jpd.simulation.model.entities.users.User;
-import uk.ac.aston.jpd.simulation.model.entities.users.UserComparator;
+import uk.ac.aston.jpd.simulation.model.entities.users.User.Location;
 
 /**
  * The class {@code Floor} represents a floor within a building. 
@@ -19,8 +22,8 @@ public class Floor {
 
 	private final Building building;
 	private final int level;
-	private final List<User> usersOnFloor = new ArrayList<User>();
-	private final List<User> usersInQueue = new LinkedList<User>();
+	private final ArrayList<User> usersOnFloor = new ArrayList<User>();
+	private final FloorQueue usersInQueue = new FloorQueue();
 	
 	/**
 	 * keeps track of the number of users that have joined the queue so far
@@ -40,13 +43,28 @@ public class Floor {
 
 	/**
 	 * Propagates the ticking to all users on the floor, including those that are
-	 * waiting in the queue.
+	 * waiting in the queue. <br>
+	 * As the users may leave the floor or the queue meanwhile, they are copied
+	 * into the snapshot of the {@link Building} before ticking them.
 	 */
 	public void tick() {
-		for (User u : new ArrayList<User>(usersOnFloor)) {
-			u.tick();
-		}
-		for (User u : new ArrayList<User>(usersInQueue)) {
+		int count = usersOnFloor.size();
+		tickSnapshot(usersOnFloor.toArray(building.getSnapshot(count)), count);
+		User[] queue = building.getSnapshot(usersInQueue.size());
+		tickSnapshot(queue, usersInQueue.copyTo(queue));
+	}
+
+	/**
+	 * Ticks the users copied into the snapshot, clearing it meanwhile so that it
+	 * does not keep a user that quits the building.
+	 * 
+	 * @param users the snapshot
+	 * @param count the number of users in it
+	 */
+	private static void tickSnapshot(User[] users, int count) {
+		for (int i = 0; i < count; i++) {
+			User u = users[i];
+			users[i] = null;
 			u.tick();
 		}
 	}
@@ -60,9 +78,11 @@ public class Floor {
 	 */
 	public boolean land(User u) {
 		if (u != null) {
-			if (!usersOnFloor.contains(u) && u.getCurrentFloor().equals(this)) {
+			if (u.getLocation() != Location.ON_FLOOR && u.getCurrentFloor().equals(this)) {
 				usersOnFloor.add(u);
+				u.setLocation(Location.ON_FLOOR);
 				u.updateFloor(this);
+				u.landed();
 				return true;
 			}
 		}
@@ -77,7 +97,27 @@ public class Floor {
 	 * @return true if the user successfully leaves the floor, false otherwise.
 	 */
 	public boolean leave(User u) { 
-		return (usersOnFloor.remove(u) || usersInQueue.remove(u));
+		if (u != null) {
+			return usersInQueue.contains(u) ? leaveQueue(u) : usersOnFloor.remove(u);
+		}
+		return false;
+	}
+
+	/**
+	 * Removes a {@link User} from the queue and withdraws its call from the
+	 * {@link CallRegistry}, if any.
+	 * 
+	 * @param u the {@code User} leaving the queue
+	 * @return true if the user was in the queue, false otherwise.
+	 */
+	private boolean leaveQueue(User u) {
+		if (usersInQueue.remove(u)) {
+			if (!u.isWaitingForNext()) {
+				building.getCallRegistry().removeCall(level, u.getRequiredSpace());
+			}
+			return true;
+		}
+		return false;
 	}
 
 	/**
@@ -90,11 +130,15 @@ public class Floor {
 	 */
 	public boolean joinQueue(User u) {
 		if (u != null) {
-			if (usersOnFloor.remove(u) || usersInQueue.remove(u)) {
+			if (leave(u)) {
 				/* Assign the user a number depending on the time he joins the queue */
 				u.assignTicketNumber(queueCount++);
-				usersInQueue.add(u);
-				Collections.sort(usersInQueue, new UserComparator());
+				usersInQueue.insert(u);
+				u.setLocation(Location.IN_QUEUE);
+				u.queueJoined();
+				if (!u.isWaitingForNext()) {
+					building.getCallRegistry().addCall(level, u.getRequiredSpace());
+				}
 				building.queueJoined(u);
 				return true;
 			}	
@@ -119,11 +163,104 @@ public class Floor {
 	 * {@code waitingForNext} field to false;
 	 */
 	public void resetWaitingForNext() { 
-		for (User user: new LinkedList<>(usersInQueue)) {
-			user.setWaitingForNext(false);
+		User[] queue = building.getSnapshot(usersInQueue.size());
+		int count = usersInQueue.copyTo(queue);
+		for (int i = 0; i < count; i++) {
+			queue[i].setWaitingForNext(false);
 		}
+		Arrays.fill(queue, 0, count, null);
 	}
 	
+	/**
+	 * Updates the {@link CallRegistry} after a user in the queue has started or
+	 * stopped waiting for the next elevator.
+	 * 
+	 * @param u the {@code User} whose {@code waitingForNext} field has changed
+	 */
+	public void waitingForNextChanged(User u) {
+		if (usersInQueue.contains(u)) {
+			if (u.isWaitingForNext()) {
+				building.getCallRegistry().removeCall(level, u.getRequiredSpace());
+			} else {
+				building.getCallRegistry().addCall(level, u.getRequiredSpace());
+			}
+		}
+	}
+
+	/**
+	 * Writes the state of the floor to a checkpoint of the simulation: the users
+	 * on the floor and in queue, in order.
+	 * 
+	 * @param out the {@link CheckpointWriter} of the checkpoint
+	 * @throws IOException if the checkpoint cannot be written.
+	 */
+	public void writeState(CheckpointWriter out) throws IOException {
+		out.writeInt(queueCount);
+		out.writeInt(usersOnFloor.size());
+		for (User u : usersOnFloor) {
+			out.writeUser(u);
+		}
+		out.writeInt(usersInQueue.size());
+		for (User u : usersInQueue) {
+			out.writeUser(u);
+		}
+	}
+
+	/**
+	 * Reads the state of the floor from a checkpoint of the simulation, whose
+	 * users have already been read. The users in queue are registered as calls
+	 * again.
+	 * 
+	 * @param in the {@link CheckpointReader} of the checkpoint
+	 * @throws IOException if the checkpoint cannot be read.
+	 */
+	public void readState(CheckpointReader in) throws IOException {
+		queueCount = in.readInt();
+		int onFloor = in.readInt();
+		for (int i = 0; i < onFloor; i++) {
+			usersOnFloor.add(in.readUser());
+		}
+		int inQueue = in.readInt();
+		for (int i = 0; i < inQueue; i++) {
+			User u = in.readUser();
+			usersInQueue.insert(u);
+			if (!u.isWaitingForNext()) {
+				building.getCallRegistry().addCall(level, u.getRequiredSpace());
+			}
+		}
+	}
+
+	/**
+	 * Copies the users on a floor of another simulation, and in its queue, into
+	 * this floor of a branch of it. The users in queue are registered as calls.
+	 * 
+	 * @param original the {@code Floor} to copy, at the same level
+	 * @param fork     the {@link SimulationFork} of the branch
+	 */
+	public void copyState(Floor original, SimulationFork fork) {
+		queueCount = original.queueCount;
+		for (User u : original.usersOnFloor) {
+			usersOnFloor.add(fork.user(u));
+		}
+		for (User u : original.usersInQueue) {
+			User copy = fork.user(u);
+			usersInQueue.insert(copy);
+			if (!copy.isWaitingForNext()) {
+				building.getCallRegistry().addCall(level, copy.getRequiredSpace());
+			}
+		}
+	}
+
+	/**
+	 * Copies the users in the queue, in order, into the given array.
+	 * 
+	 * @param target an array with room for all the users in the queue
+	 * @return the number of users copied
+	 */
+	int copyQueueTo(User[] target) {
+		return usersInQueue.copyTo(target);
+	}
+
 	public List<User> getOnFloor() {
 		return usersOnFloor;
 	}
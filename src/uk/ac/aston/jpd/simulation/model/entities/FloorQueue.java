@@ -0,0 +1,203 @@
+package uk.ac.aston.jpd.simulation.model.entities;
+
+import java.util.AbstractList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+import uk.ac.aston.jpd.simulation.model.entities.users.Client;
+import uk.ac.aston.jpd.simulation.model.entities.users.User;
+import uk.ac.aston.jpd.simulation.model.entities.users.UserComparator;
+
+/**
+ * The class {@code FloorQueue} represents the queue for the elevator on a
+ * {@link Floor}. <br>
+ * Users are kept in the order defined by {@link UserComparator}: clients first,
+ * then all other users, each group in order of ticket number.
+ * <p>
+ * Since ticket numbers grow as users join the queue, the queue is made of two
+ * FIFO lists, one for clients and one for the other users. Joining the queue
+ * appends the user to the end of its list, and each user keeps a handle to its
+ * place in the list, so leaving the queue does not require scanning it.
+ * </p>
+ * <p>
+ * The handle is a {@link Link} that each user owns for its whole life, and that
+ * is linked into a queue when the user joins it: joining and leaving a queue
+ * allocate nothing.
+ * </p>
+ *
+ * @author Parminder
+ */
+public class FloorQueue extends AbstractList<User> {
+
+	private static final UserComparator COMPARATOR = new UserComparator();
+
+	/**
+	 * The class {@code Link} is the place of a user in one of the two lists of a
+	 * queue. Every {@link User} creates its own link, which only the queue that
+	 * the user is in can change.
+	 */
+	public static final class Link {
+		private final User user;
+		private FloorQueue queue;
+		private Link previous;
+		private Link next;
+
+		/**
+		 * Creates the link of the given user, which is not in any queue.
+		 *
+		 * @param user the {@code User} owning the link
+		 */
+		public Link(User user) {
+			this.user = user;
+		}
+	}
+
+	/**
+	 * the first and last links of the two circular lists: they do not hold a user
+	 */
+	private final Link clients = sentinel();
+	private final Link others = sentinel();
+	private int size = 0;
+
+	private static Link sentinel() {
+		Link link = new Link(null);
+		link.previous = link;
+		link.next = link;
+		return link;
+	}
+
+	/**
+	 * Adds a user to the queue, in the position given by its type and its ticket
+	 * number. Users that are already in the queue are not added again.
+	 *
+	 * @param u the {@code User} joining the queue
+	 * @return true if the user has been added, false otherwise.
+	 */
+	public boolean insert(User u) {
+		if (u == null || u.getQueueLink().queue != null) {
+			return false;
+		}
+		Link list = (u instanceof Client) ? clients : others;
+
+		/* users normally join with the highest ticket, so this loop rarely runs */
+		Link before = list.previous;
+		while (before != list && COMPARATOR.compare(u, before.user) < 0) {
+			before = before.previous;
+		}
+
+		Link link = u.getQueueLink();
+		link.queue = this;
+		link.previous = before;
+		link.next = before.next;
+		before.next.previous = link;
+		before.next = link;
+		size++;
+		modCount++;
+		return true;
+	}
+
+	/**
+	 * Removes the given user from the queue, through its handle.
+	 *
+	 * @param o the user to be removed
+	 * @return true if the user was in the queue, false otherwise.
+	 */
+	@Override
+	public boolean remove(Object o) {
+		if (!contains(o)) {
+			return false;
+		}
+		Link link = ((User) o).getQueueLink();
+		link.previous.next = link.next;
+		link.next.previous = link.previous;
+		link.queue = null;
+		link.previous = null;
+		link.next = null;
+		size--;
+		modCount++;
+		return true;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return (o instanceof User) && ((User) o).getQueueLink().queue == this;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public User get(int index) {
+		Objects.checkIndex(index, size());
+		Link link = first();
+		for (int i = 0; i < index; i++) {
+			link = successor(link);
+		}
+		return link.user;
+	}
+
+	@Override
+	public Iterator<User> iterator() {
+		return new Iterator<User>() {
+			private final int expectedModCount = modCount;
+			private Link next = first();
+
+			@Override
+			public boolean hasNext() {
+				return next != null;
+			}
+
+			@Override
+			public User next() {
+				if (modCount != expectedModCount) {
+					throw new ConcurrentModificationException();
+				}
+				if (next == null) {
+					throw new NoSuchElementException();
+				}
+				User u = next.user;
+				next = successor(next);
+				return u;
+			}
+		};
+	}
+
+	/**
+	 * Copies the users in the queue, in order, into the given array, without
+	 * creating an iterator.
+	 *
+	 * @param target an array with room for all the users in the queue
+	 * @return the number of users copied
+	 */
+	int copyTo(User[] target) {
+		int count = 0;
+		for (Link link = first(); link != null; link = successor(link)) {
+			target[count++] = link.user;
+		}
+		return count;
+	}
+
+	/**
+	 * @return the link of the first user in the queue, or null if it is empty.
+	 */
+	private Link first() {
+		return successor(clients);
+	}
+
+	/**
+	 * @param link a link of the queue, or the first link of the client list
+	 * @return the link of the user that comes next in the queue, or null if there
+	 *         is none.
+	 */
+	private Link successor(Link link) {
+		Link next = link.next;
+		if (next == clients) {
+			next = others.next;
+		}
+		return (next == others) ? null : next;
+	}
+}
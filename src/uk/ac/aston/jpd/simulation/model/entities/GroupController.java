@@ -0,0 +1,101 @@
+package uk.ac.aston.jpd.simulation.model.entities;
+
+import uk.ac.aston.jpd.simulation.model.entities.Elevator.Direction;
+
+/**
+ * The class {@code GroupController} assigns the hall calls of a
+ * {@link Building} to its elevators. <br>
+ * When a floor gets its first call, the {@link CallRegistry} asks the
+ * controller which elevator serves it: the controller estimates, for each
+ * elevator, the number of ticks it would take to get there, and picks the
+ * lowest (the first elevator, on a tie). The estimate is: <br>
+ * - the floors to travel, going through the furthest target floor first if the
+ * floor is behind the direction of the elevator; <br>
+ * - plus {@value #STOP_TICKS} ticks for every floor where the elevator has
+ * already to stop, for a passenger or for another call; <br>
+ * - plus a round trip of the building if the call does not fit in the elevator
+ * at the moment.
+ * <p>
+ * Picking an elevator takes time proportional to the number of elevators, and
+ * only happens when a floor gets a call, not at every tick. In a building with
+ * a single elevator, every call is assigned to it.
+ * </p>
+ *
+ * @author Parminder
+ */
+public class GroupController {
+
+	/**
+	 * the ticks an elevator spends at a floor where it stops: one to open the
+	 * doors and let users alight and board, one to close them
+	 */
+	private static final int STOP_TICKS = 2;
+
+	private final Building building;
+	private final int elevatorCount;
+
+	/**
+	 * Creates the controller of the elevators of the given building.
+	 *
+	 * @param building      the {@link Building} whose calls are assigned
+	 * @param elevatorCount the number of elevators of the building
+	 */
+	public GroupController(Building building, int elevatorCount) {
+		this.building = building;
+		this.elevatorCount = elevatorCount;
+	}
+
+	/**
+	 * Picks the elevator that serves the calls of a floor.
+	 *
+	 * @param level         the level of the floor
+	 * @param requiredSpace the smallest space required by a call on the floor
+	 * @return the index of the elevator with the lowest estimate
+	 */
+	public int selectCar(int level, int requiredSpace) {
+		if (elevatorCount == 1) {
+			return 0;
+		}
+		Elevator[] elevators = building.getElevators();
+		int best = 0;
+		int bestTicks = Integer.MAX_VALUE;
+		for (int car = 0; car < elevators.length; car++) {
+			int ticks = estimateTicks(elevators[car], level, requiredSpace);
+			if (ticks < bestTicks) {
+				best = car;
+				bestTicks = ticks;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Estimates the number of ticks the given elevator would take to serve a call.
+	 *
+	 * @param elevator      the {@link Elevator}
+	 * @param level         the level of the floor of the call
+	 * @param requiredSpace the space required by the call
+	 * @return the estimate
+	 */
+	private int estimateTicks(Elevator elevator, int level, int requiredSpace) {
+		int position = elevator.getCurrentFloor().getLevel();
+		int furthest = elevator.getFurthestTargetLevel();
+		int travel;
+		if (elevator.getDirection() == Direction.UP) {
+			travel = (level >= position) ? level - position : (furthest - position) + (furthest - level);
+		} else {
+			travel = (level <= position) ? position - level : (position - furthest) + (level - furthest);
+		}
+
+		int stops = elevator.getTargetCount() + building.getCallRegistry().getAssignedFloors(elevator.getIndex());
+		int ticks = travel + STOP_TICKS * stops;
+		if (elevator.getAvailableSpace() < requiredSpace) {
+			ticks += 2 * building.getFloors().length;
+		}
+		return ticks;
+	}
+
+	public int getElevatorCount() {
+		return elevatorCount;
+	}
+}
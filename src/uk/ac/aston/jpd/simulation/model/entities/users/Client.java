@@ -1,8 +1,13 @@
 package uk.ac.aston.jpd.simulation.model.entities.users;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
+import uk.ac.aston.jpd.simulation.model.CheckpointReader;
+import uk.ac.aston.jpd.simulation.model.CheckpointWriter;
+import uk.ac.aston.jpd.simulation.model.SimulationFork;
+import uk.ac.aston.jpd.simulation.model.TimingWheel.Timer;
 import uk.ac.aston.jpd.simulation.model.entities.Building;
 import uk.ac.aston.jpd.simulation.model.entities.Floor;
 
@@ -12,14 +17,13 @@ public class Client extends NonEmployee {
 	private static final int REQUIRED_SPACE = 1;
 	private static final int MIN_STAY_TICKS = 60, MAX_STAY_TICKS = 180;
 	private static final int MAX_WAIT_TICKS = 60;
-
-	private static int count = 0;
 	
 	private Building building;
 	private int queueJoinedTick = -1;
+	private Timer annoyanceTimer;
 
 	public Client(Building building) {
-		super(building, IDENTIFIER + String.format("%02d", ++count), REQUIRED_SPACE, MIN_STAY_TICKS, MAX_STAY_TICKS);
+		super(building, IDENTIFIER + String.format("%02d", building.getSimulation().nextUserNumber(IDENTIFIER)), REQUIRED_SPACE, MIN_STAY_TICKS, MAX_STAY_TICKS);
 		this.building = building;
 		
 		List<Floor> accessibleFloors = new ArrayList<Floor>();
@@ -32,19 +36,34 @@ public class Client extends NonEmployee {
 		setAccessibleFloors(accessibleFloors);
 	}
 
+	/**
+	 * As soon as the client joins the queue at the ground floor, it sets a timer
+	 * for the tick at which it gets annoyed, replacing the previous one, if any.
+	 */
 	@Override
-	public void tick() {
-		super.tick();
-		if ( isInGroundFloorQueue() && isAnnoyed()) {
-			building.fileComplaint();
-			building.quit(this);
+	public void queueJoined() {
+		queueJoinedTick = building.getSimulation().getTick();
+		building.cancelTimer(annoyanceTimer);
+		if (isInGroundFloorQueue()) {
+			annoyanceTimer = building.setTimer(queueJoinedTick + MAX_WAIT_TICKS + 1, this, this::annoyanceTimeout);
 		}
 	}
 	
 	@Override
-	public void joinQueue() {
-		super.joinQueue();
-		queueJoinedTick = building.getSimulation().getTick();
+	public void requestAccepted() {
+		building.cancelTimer(annoyanceTimer);
+		super.requestAccepted();
+	}
+	
+	/**
+	 * Files a complaint and quits the building if the client is still waiting in
+	 * the queue at the ground floor.
+	 */
+	private void annoyanceTimeout() {
+		if (isInGroundFloorQueue() && isAnnoyed()) {
+			building.fileComplaint(this);
+			building.quit(this);
+		}
 	}
 	
 	private boolean isAnnoyed() {
@@ -53,6 +72,33 @@ public class Client extends NonEmployee {
 	}
 
 	private boolean isInGroundFloorQueue() {
-		return building.getFloors()[0].getInQueue().contains(this);
+		return isInQueue() && getCurrentFloor().equals(building.getFloors()[0]);
+	}
+
+	@Override
+	public void writeState(CheckpointWriter out) throws IOException {
+		super.writeState(out);
+		out.writeInt(queueJoinedTick);
+		out.writeTimer(annoyanceTimer);
+	}
+
+	@Override
+	public void readState(CheckpointReader in) throws IOException {
+		super.readState(in);
+		queueJoinedTick = in.readInt();
+		in.readTimer(dueTick -> annoyanceTimer = building.setTimer(dueTick, this, this::annoyanceTimeout));
+	}
+
+	@Override
+	public void copyState(User original, SimulationFork fork) {
+		super.copyState(original, fork);
+		Client client = (Client) original;
+		queueJoinedTick = client.queueJoinedTick;
+		fork.timer(client.annoyanceTimer, dueTick -> annoyanceTimer = building.setTimer(dueTick, this, this::annoyanceTimeout));
+	}
+
+	@Override
+	public UserType getType() {
+		return UserType.CLIENT;
 	}
 }
@@ -17,8 +17,6 @@ import uk.ac.aston.jpd.simulation.model.entities.Floor;
 public abstract class Developer extends Employee {
 	
 	private static final int REQUIRED_SPACE = 1;
-	
-	private final Elevator elevator;
 
 	/**
 	 * Creates a {@code Developer} within the given building. 
@@ -29,7 +27,6 @@ public abstract class Developer extends Employee {
 	 */
 	public Developer(Building building, String identifier, int count) {
 		super(building, identifier + String.format("%02d", count), REQUIRED_SPACE);
-		this.elevator = building.getElevator();
 		
 		List<Floor> accessibleFloors = new ArrayList<Floor>();
 		int middle = (building.getFloors().length)/2;
@@ -43,25 +40,28 @@ public abstract class Developer extends Employee {
 	
 	/**
 	 * Checks whether the users already into the elevator are rivals to the current
-	 * user.
+	 * user, through the number of passengers of the rival company that the
+	 * elevator keeps.
 	 * 
+	 * @param elevator the {@link Elevator} the developer is about to board
 	 * @return true if the developer is ready to enter the elevator, false
 	 *         otherwise.
 	 */
 	@Override
-	public boolean isReadyToBoard() {
-		List<User> inElevator = new ArrayList<User>(elevator.getUsers());
-		for (User user: inElevator) {
-			if (isRival(user)) {
-				setWaitingForNext(true);
-				joinQueue();  //rejoin the queue
-				return false;
-			}
+	public boolean isReadyToBoard(Elevator elevator) {
+		if (elevator.getPassengerCount(getRival()) > 0) {
+			setWaitingForNext(true);
+			joinQueue();  //rejoin the queue
+			return false;
 		}
 		return true;
 	}
 	
-	protected abstract boolean isRival(User u);
+	/**
+	 * @return the {@link UserType} of the developers of the rival company, which
+	 *         this developer will not share the elevator with.
+	 */
+	protected abstract UserType getRival();
 	
 	@Override
 	public void requestAccepted() {
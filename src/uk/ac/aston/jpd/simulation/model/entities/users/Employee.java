@@ -1,8 +1,13 @@
 package uk.ac.aston.jpd.simulation.model.entities.users;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
 
+import uk.ac.aston.jpd.simulation.model.CheckpointReader;
+import uk.ac.aston.jpd.simulation.model.CheckpointWriter;
+import uk.ac.aston.jpd.simulation.model.CounterRandom.Purpose;
+import uk.ac.aston.jpd.simulation.model.Simulation;
+import uk.ac.aston.jpd.simulation.model.SimulationFork;
+import uk.ac.aston.jpd.simulation.model.TimingWheel.Timer;
 import uk.ac.aston.jpd.simulation.model.entities.Building;
 import uk.ac.aston.jpd.simulation.model.entities.Floor;
 
@@ -16,7 +21,10 @@ import uk.ac.aston.jpd.simulation.model.entities.Floor;
 
 public abstract class Employee extends User {
 
+	private final Building building;
 	private final double probabilityChangeFloor;
+	private final boolean isGeometric;
+	private Timer floorChangeTimer;
 
 	/**
 	 * Creates an employee within 
@@ -27,7 +35,9 @@ public abstract class Employee extends User {
 	 */
 	public Employee(Building building, String id, int reqSpace) {
 		super(building, id, reqSpace);
+		this.building = building;
 		this.probabilityChangeFloor = building.getSimulation().getProbabilityP();
+		this.isGeometric = building.getSimulation().getSampling() == Simulation.Sampling.GEOMETRIC;
 	}
 
 	/**
@@ -37,14 +47,70 @@ public abstract class Employee extends User {
 	 */
 	@Override
 	public void tick() {
-		if (getCurrentFloor().getOnFloor().contains(this)) {
-			double value = getRandom().nextDouble();
+		if (!isGeometric && getLocation() == Location.ON_FLOOR) {
+			double value = getRandom(Purpose.FLOOR_CHANGE).nextDouble();
 			if (value < probabilityChangeFloor) {
-				List<Floor> currentlyAccessibleFloors = new ArrayList<Floor>(getAllAccessibleFloors());
-				currentlyAccessibleFloors.remove(getCurrentFloor());
-				Floor randomFloor = generateRandomFloor(currentlyAccessibleFloors);
-				setRequest(randomFloor);
+				changeFloor();
 			}
 		}
 	}
+
+	/**
+	 * With {@code GEOMETRIC} sampling, as soon as the employee lands on a floor, it
+	 * draws the tick at which it will change floor and sets a timer for it.
+	 */
+	@Override
+	public void landed() {
+		if (isGeometric) {
+			building.cancelTimer(floorChangeTimer);
+			int nextTick = building.getSimulation().getTick() + 1;
+			int changeTick = building.getSimulation().sampleNextTick(nextTick, probabilityChangeFloor, getRandom(Purpose.FLOOR_CHANGE));
+			if (changeTick != Integer.MAX_VALUE) {
+				floorChangeTimer = building.setTimer(changeTick, this::floorChangeDue);
+			}
+		}
+	}
+
+	@Override
+	public void queueJoined() {
+		building.cancelTimer(floorChangeTimer);
+	}
+
+	/**
+	 * Changes floor when the timer set on landing is due, unless the employee is
+	 * no longer staying on the floor.
+	 */
+	private void floorChangeDue() {
+		if (getLocation() == Location.ON_FLOOR) {
+			changeFloor();
+		}
+	}
+
+	/**
+	 * Asks to go to a random floor, among the accessible ones other than the
+	 * current floor.
+	 */
+	private void changeFloor() {
+		Floor randomFloor = generateRandomFloor(getAllAccessibleFloors(), getCurrentFloor());
+		setRequest(randomFloor);
+	}
+
+	@Override
+	public void writeState(CheckpointWriter out) throws IOException {
+		super.writeState(out);
+		out.writeTimer(floorChangeTimer);
+	}
+
+	@Override
+	public void readState(CheckpointReader in) throws IOException {
+		super.readState(in);
+		in.readTimer(dueTick -> floorChangeTimer = building.setTimer(dueTick, this::floorChangeDue));
+	}
+
+	@Override
+	public void copyState(User original, SimulationFork fork) {
+		super.copyState(original, fork);
+		fork.timer(((Employee) original).floorChangeTimer,
+				dueTick -> floorChangeTimer = building.setTimer(dueTick, this::floorChangeDue));
+	}
 }
@@ -9,8 +9,8 @@ import uk.ac.aston.jpd.simulation.model.entities.Floor;
  */
 public class FloorRequest {
 	private final User user;
-	private final Floor sourceFloor;
-	private final Floor targetFloor;
+	private Floor sourceFloor;
+	private Floor targetFloor;
 
 	private boolean isDone = false;
 
@@ -26,16 +26,49 @@ public class FloorRequest {
 	 *                                       user's accessible floors.
 	 */
 	public FloorRequest(User user, Floor target) {
-		if (user == null || target == null) {
+		if (user == null) {
 			throw new IllegalArgumentException("Invalid request");
-		} else 	if (!user.getAllAccessibleFloors().contains(target)) {
-			throw new UnsupportedOperationException("Inaccesible floor requested");
 		}
 		this.user = user;
-		this.sourceFloor = user.getCurrentFloor();
-		this.targetFloor = target;		
+		renew(target);
+	}
+
+	/**
+	 * Creates a {@code FloorRequest} restored from a checkpoint.
+	 * 
+	 * @param user   the user to which the request belongs to
+	 * @param source the floor where the request was made
+	 * @param target the user's target floor
+	 * @param isDone whether the target floor has been reached
+	 */
+	FloorRequest(User user, Floor source, Floor target, boolean isDone) {
+		this.user = user;
+		this.sourceFloor = source;
+		this.targetFloor = target;
+		this.isDone = isDone;
 	}
 	
+	/**
+	 * Turns this request into a new request of the same user, from its current
+	 * floor to the given target floor. Users renew their requests once they are
+	 * done, rather than creating new ones.
+	 * 
+	 * @param target the user's new target floor
+	 * @throws IllegalArgumentException      when the target is null.
+	 * @throws UnsupportedOperationException when the target floor is not within
+	 *                                       the user's accessible floors.
+	 */
+	void renew(Floor target) {
+		if (target == null) {
+			throw new IllegalArgumentException("Invalid request");
+		} else if (!user.getAllAccessibleFloors().contains(target)) {
+			throw new UnsupportedOperationException("Inaccesible floor requested");
+		}
+		this.sourceFloor = user.getCurrentFloor();
+		this.targetFloor = target;
+		this.isDone = false;
+	}
+
 	public Floor getSourceFloor() {
 		return sourceFloor;
 	}
@@ -10,7 +10,6 @@ import uk.ac.aston.jpd.simulation.model.entities.Building;
 public class Goggle extends Developer {
 	
 	private static final String IDENTIFIER = "GG";
-	private static int count = 0;	
 	
 	/**
 	 * Creates a Goggle developer within the given building.
@@ -18,16 +17,19 @@ public class Goggle extends Developer {
 	 * @param building
 	 */
 	public Goggle(Building building) {
-		super(building, IDENTIFIER, ++count);
+		super(building, IDENTIFIER, building.getSimulation().nextUserNumber(IDENTIFIER));
 	}
 
 	/**
-	 * Checks if the specified user is a rival to Goggle developers
-	 * @param u the {@code User} to check for rivalry
-	 * @return true if the given user is a rival
+	 * @return the type of the rivals of Goggle developers, i.e. Mugtome developers
 	 */
 	@Override
-	protected boolean isRival(User u) {
-		return (u instanceof Mugtome);
+	protected UserType getRival() {
+		return UserType.MUGTOME;
+	}
+
+	@Override
+	public UserType getType() {
+		return UserType.GOGGLE;
 	}
 }
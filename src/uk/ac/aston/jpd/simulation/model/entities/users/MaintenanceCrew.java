@@ -18,8 +18,6 @@ public class MaintenanceCrew extends NonEmployee {
 	private static final String IDENTIFIER = "MC";
 	private static final int REQUIRED_SPACE = 4;
 	private static final int MIN_STAY_TICKS = 120, MAX_STAY_TICKS = 240;
-
-	private static int count = 0;
 	
 	/**
 	 * Creates a maintenance crew in the provided building and sets its accessible floors so they only include the top floor.
@@ -27,7 +25,7 @@ public class MaintenanceCrew extends NonEmployee {
 	 * @param building the building the maintenance crew is in
 	 */
 	public MaintenanceCrew(Building building) {
-		super(building, IDENTIFIER + String.format("%02d", ++count), REQUIRED_SPACE, MIN_STAY_TICKS, MAX_STAY_TICKS);
+		super(building, IDENTIFIER + String.format("%02d", building.getSimulation().nextUserNumber(IDENTIFIER)), REQUIRED_SPACE, MIN_STAY_TICKS, MAX_STAY_TICKS);
 		
 		Floor[] floors = building.getFloors();
 		Floor lastFloor = floors[floors.length - 1];
@@ -35,4 +33,9 @@ public class MaintenanceCrew extends NonEmployee {
 		accessibleFloors.add(lastFloor);
 		setAccessibleFloors(accessibleFloors);
 	}
+
+	@Override
+	public UserType getType() {
+		return UserType.MAINTENANCE_CREW;
+	}
 }
@@ -10,7 +10,6 @@ import uk.ac.aston.jpd.simulation.model.entities.Building;
 public class Mugtome extends Developer {
 
 	private static final String IDENTIFIER = "MU";
-	private static int count = 0;
 
 	/**
 	 * Creates a Mugtome developer within the given building.
@@ -18,16 +17,19 @@ public class Mugtome extends Developer {
 	 * @param building
 	 */
 	public Mugtome(Building building) {
-		super(building, IDENTIFIER, ++count);
+		super(building, IDENTIFIER, building.getSimulation().nextUserNumber(IDENTIFIER));
 	}
 
 	/**
-	 * Checks if the specified user is a rival to Mugtome developers
-	 * @param u the {@code User} to check for rivalry
-	 * @return true if the given user is a rival
+	 * @return the type of the rivals of Mugtome developers, i.e. Goggle developers
 	 */
 	@Override
-	protected boolean isRival(User u) {
-		return (u instanceof Goggle);	
+	protected UserType getRival() {
+		return UserType.GOGGLE;
+	}
+
+	@Override
+	public UserType getType() {
+		return UserType.MUGTOME;
 	}
 }
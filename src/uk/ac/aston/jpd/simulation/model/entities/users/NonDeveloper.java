@@ -11,7 +11,6 @@ public class NonDeveloper extends Employee {
 	
 	private static final String IDENTIFIER = "ND";
 	private static final int REQUIRED_SPACE = 1;
-	private static int count = 0;
 	
 	/**
 	 * Creates a non-developers within the given {@link Building} object.
@@ -19,6 +18,11 @@ public class NonDeveloper extends Employee {
 	 * @param building the building the user is in
 	 */
 	public NonDeveloper(Building building) {
-		super(building, IDENTIFIER + String.format("%02d", ++count), REQUIRED_SPACE);
+		super(building, IDENTIFIER + String.format("%02d", building.getSimulation().nextUserNumber(IDENTIFIER)), REQUIRED_SPACE);
 	}
-}
\ No newline at end of file
+
+	@Override
+	public UserType getType() {
+		return UserType.NON_DEVELOPER;
+	}
+}
@@ -1,8 +1,15 @@
 package uk.ac.aston.jpd.simulation.model.entities.users;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Random;
 
+import uk.ac.aston.jpd.simulation.model.CheckpointReader;
+import uk.ac.aston.jpd.simulation.model.CheckpointWriter;
+import uk.ac.aston.jpd.simulation.model.CounterRandom.Purpose;
+import uk.ac.aston.jpd.simulation.model.Simulation.Sampling;
+import uk.ac.aston.jpd.simulation.model.SimulationFork;
+import uk.ac.aston.jpd.simulation.model.TimingWheel.Timer;
 import uk.ac.aston.jpd.simulation.model.entities.Building;
 import uk.ac.aston.jpd.simulation.model.entities.Floor;
 
@@ -25,10 +32,22 @@ public abstract class NonEmployee extends User {
 	private boolean firstRequestProcessed = false;
 	private boolean isReadyToLeave = false;
 	private int leaveTick = -1;
+	private Timer leaveTimer;
+	private Timer quitTimer;
+
+	/**
+	 * the task of a timer that has been fired, until the floor ticks the user
+	 */
+	private Runnable dueTask;
 
 	/**
 	 * Creates a non-employee within the provided building, with the given id,
 	 * required space, minimum and maximum stay time.
+	 * <p>
+	 * The random streams of a non-employee are keyed by the tick at which it
+	 * arrives, rather than by its serial number, so that they do not change when
+	 * more or fewer users arrive before it.
+	 * </p>
 	 * 
 	 * @param building the building the user is in
 	 * @param id       the user's unique identity used for the
@@ -45,34 +64,69 @@ public abstract class NonEmployee extends User {
 
 		this.minStayTicks = minStay;
 		this.maxStayTicks = maxStay;
+		setStreamKey(-1 - building.getSimulation().getTick());
 	}
 
 	/**
 	 * Determines the behaviour of a non-employee.
 	 * <p>
-	 * Upon reaching the desired floor, the user generates a leave tick. When the
-	 * leave tick is reached, the user prepares for leaving.
+	 * A non-employee does nothing on its own at each tick: it only reacts to the
+	 * timers it has registered, i.e. its leave tick and, once back at the ground
+	 * floor, the tick at which it quits the building. When its floor ticks it, it
+	 * runs the task of the timer that the wheel has fired at this tick, if any.
 	 */
 	@Override
 	public void tick() {
-		int currentTick = building.getSimulation().getTick();
-		if (firstRequestProcessed && currentTick == leaveTick) {
-			isReadyToLeave = true;
-			if (!getCurrentFloor().equals(floors[0])) {
-				List<Floor> newAccessibleFloors = getAllAccessibleFloors();
-				newAccessibleFloors.add(floors[0]);
-				setAccessibleFloors(newAccessibleFloors);
-				setRequest(floors[0]);
-			}
+		Runnable task = dueTask;
+		if (task != null) {
+			dueTask = null;
+			task.run();
 		}
-		if (isReadyToLeave && getCurrentFloor().equals(floors[0])) {
+	}
+
+	/**
+	 * Hands the task of a timer that the wheel has fired to the user, which runs
+	 * it the next time it is ticked, at this tick.
+	 * 
+	 * @param task the task of the timer
+	 * @see Building#setTimer(int, NonEmployee, Runnable)
+	 */
+	public void timerDue(Runnable task) {
+		Runnable previous = dueTask;
+		dueTask = (previous == null) ? task : () -> {
+			previous.run();
+			task.run();
+		};
+	}
+
+	/**
+	 * Prepares the user for leaving, as soon as the leave tick is reached: the
+	 * user asks to go to the ground floor, or quits the building if already there.
+	 * <br>
+	 * With {@code PER_TICK} sampling, a user that has just joined the queue is
+	 * ticked again in the queue by its floor, at the same tick, and asks again to
+	 * go to the ground floor, which gives it a new ticket.
+	 */
+	private void leaveTickReached() {
+		boolean isAskingAgain = isReadyToLeave;
+		isReadyToLeave = true;
+		if (!getCurrentFloor().equals(floors[0])) {
+			List<Floor> newAccessibleFloors = getAllAccessibleFloors();
+			newAccessibleFloors.add(floors[0]);
+			setAccessibleFloors(newAccessibleFloors);
+			setRequest(floors[0]);
+			if (!isAskingAgain && isInQueue() && building.getSimulation().getSampling() == Sampling.PER_TICK) {
+				timerDue(this::leaveTickReached);
+			}
+		} else {
 			building.quit(this);
 		}
 	}
 
 	/**
 	 * As soon as the non-employee has reached its desired floor, it triggers the
-	 * {@link #generateLeaveTick()} method to randomly pick a leave tick.
+	 * {@link #generateLeaveTick()} method to randomly pick a leave tick. If the
+	 * user is ready to leave, it will quit the building at the next tick.
 	 */
 	@Override
 	public void targetReached() {
@@ -80,6 +134,9 @@ public abstract class NonEmployee extends User {
 		if (!firstRequestProcessed) {
 			firstRequestProcessed = true;
 			generateLeaveTick();
+		} else if (isReadyToLeave && getCurrentFloor().equals(floors[0])) {
+			int nextTick = building.getSimulation().getTick() + 1;
+			quitTimer = building.setTimer(nextTick, this, () -> building.quit(this));
 		}
 	}
 
@@ -90,13 +147,45 @@ public abstract class NonEmployee extends User {
 	 */
 	private void generateLeaveTick() {
 		int currentTick = building.getSimulation().getTick();
-		Random rdm = building.getSimulation().getRandom();
+		Random rdm = getRandom(Purpose.STAY);
 
 		int stayTicks = minStayTicks + rdm.nextInt(maxStayTicks - minStayTicks);
 		leaveTick = currentTick + stayTicks;
+		leaveTimer = building.setTimer(leaveTick, this, this::leaveTickReached);
 	}
 	
 	public int getLeaveTick() {
 		return leaveTick;
 	}
-}
\ No newline at end of file
+
+	@Override
+	public void writeState(CheckpointWriter out) throws IOException {
+		super.writeState(out);
+		out.writeBoolean(firstRequestProcessed);
+		out.writeBoolean(isReadyToLeave);
+		out.writeInt(leaveTick);
+		out.writeTimer(leaveTimer);
+		out.writeTimer(quitTimer);
+	}
+
+	@Override
+	public void readState(CheckpointReader in) throws IOException {
+		super.readState(in);
+		firstRequestProcessed = in.readBoolean();
+		isReadyToLeave = in.readBoolean();
+		leaveTick = in.readInt();
+		in.readTimer(dueTick -> leaveTimer = building.setTimer(dueTick, this, this::leaveTickReached));
+		in.readTimer(dueTick -> quitTimer = building.setTimer(dueTick, this, () -> building.quit(this)));
+	}
+
+	@Override
+	public void copyState(User original, SimulationFork fork) {
+		super.copyState(original, fork);
+		NonEmployee nonEmployee = (NonEmployee) original;
+		firstRequestProcessed = nonEmployee.firstRequestProcessed;
+		isReadyToLeave = nonEmployee.isReadyToLeave;
+		leaveTick = nonEmployee.leaveTick;
+		fork.timer(nonEmployee.leaveTimer, dueTick -> leaveTimer = building.setTimer(dueTick, this, this::leaveTickReached));
+		fork.timer(nonEmployee.quitTimer, dueTick -> quitTimer = building.setTimer(dueTick, this, () -> building.quit(this)));
+	}
+}
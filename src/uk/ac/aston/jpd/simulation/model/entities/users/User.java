@@ -1,12 +1,20 @@
 package uk.ac.aston.jpd.simulation.model.entities.users;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 
+import uk.ac.aston.jpd.simulation.model.CheckpointReader;
+import uk.ac.aston.jpd.simulation.model.CheckpointWriter;
+import uk.ac.aston.jpd.simulation.model.CounterRandom.Purpose;
+import uk.ac.aston.jpd.simulation.model.Simulation;
+import uk.ac.aston.jpd.simulation.model.SimulationFork;
 import uk.ac.aston.jpd.simulation.model.entities.Building;
+import uk.ac.aston.jpd.simulation.model.entities.Elevator;
 import uk.ac.aston.jpd.simulation.model.entities.Floor;
+import uk.ac.aston.jpd.simulation.model.entities.FloorQueue;
 
 /**
  * The {@code User} class represents a generic person in a building. A user may
@@ -16,18 +24,42 @@ import uk.ac.aston.jpd.simulation.model.entities.Floor;
  */
 public abstract class User {
 	
+	/**
+	 * Where a user currently is: outside the building, staying on a floor, waiting
+	 * in the queue of a floor, in the elevator, or gone after leaving the building.
+	 */
+	public enum Location {
+		OUTSIDE, ON_FLOOR, IN_QUEUE, IN_ELEVATOR, LEFT
+	}
+
 	private static final int DEFAULT_REQ_SPACE = 1;
 	
+	private final Building building;
 	private final Floor[] floors;
-	private final String id;
 	private final int requiredSpace;
-	private final Random random;
+	private String id;
+	private int serialNumber;
+	private int streamKey;
+	private final Simulation simulation;
+	
+	/**
+	 * the random streams of the user, by purpose, created on their first draw
+	 */
+	private final Random[] streams = new Random[Purpose.values().length];
 
 	private Floor currentFloor;
+	private Location location = Location.OUTSIDE;
+
+	/**
+	 * the elevator the user is in, or null
+	 */
+	private Elevator elevator;
 	private List<Floor> allAccessibleFloors;
 	
+	private final FloorQueue.Link queueLink = new FloorQueue.Link(this);
 	private FloorRequest request;
 	private int tktNumber;	
+	private int queueJoinedTick = -1;
 	private boolean waitingForNext = false;
 
 	/**
@@ -39,16 +71,35 @@ public abstract class User {
 	 * @param reqSpace space required in the elevator by the user
 	 */
 	public User(Building building, String id, int reqSpace) {
+		this.building = building;
 		this.floors = building.getFloors();	
 		this.currentFloor = floors[0];
 		this.allAccessibleFloors = new ArrayList<Floor>(Arrays.asList(floors));
 		this.id = id;
 		this.requiredSpace = (reqSpace > 0)? reqSpace : DEFAULT_REQ_SPACE; 
-
-		random = building.getSimulation().getRandom();
+		this.simulation = building.getSimulation();
+		this.serialNumber = simulation.nextSerialNumber();
+		this.streamKey = serialNumber;
 	}
 
 	public abstract void tick();
+
+	/**
+	 * @return the kind of user, for the waiting statistics of the simulation
+	 */
+	public abstract UserType getType();
+	
+	/**
+	 * Sets the number that keys the random streams of the user, which is its
+	 * serial number unless it is set otherwise.
+	 * 
+	 * @param key the key of the streams
+	 * @see #getRandom(Purpose)
+	 */
+	protected final void setStreamKey(int key) {
+		streamKey = key;
+		Arrays.fill(streams, null);
+	}
 	
 	/**
 	 * Sets the floors that are accessible by a specific user.
@@ -56,9 +107,12 @@ public abstract class User {
 	 * @param accessible list of floors the user is allowed to be in
 	 */
 	protected void setAccessibleFloors(List<Floor> accessible) {
-		if (Arrays.asList(floors).containsAll(accessible)) { 
-			this.allAccessibleFloors = accessible;
+		for (int i = 0; i < accessible.size(); i++) {
+			if (!building.hasFloor(accessible.get(i))) {
+				return;
+			}
 		}
+		this.allAccessibleFloors = accessible;
 	}
 	
 	/**
@@ -80,7 +134,7 @@ public abstract class User {
 	 */
 	protected final Floor generateRandomFloor(List<Floor> accessibleFloors) {
 		if (accessibleFloors.size() != 0) {
-			int rdmIndex = random.nextInt(accessibleFloors.size());
+			int rdmIndex = getRandom().nextInt(accessibleFloors.size());
 			Floor rdmFloor = accessibleFloors.get(rdmIndex);
 			return rdmFloor;
 		} else {
@@ -88,15 +142,46 @@ public abstract class User {
 		}
 	}
 
+	/**
+	 * Randomly picks a {@link Floor} from the accessible floors it has been
+	 * provided with, other than the given one. The draw is the same as picking
+	 * from a copy of the list without that floor, but no copy is made.
+	 * 
+	 * @param accessibleFloors the list of floors to pick from
+	 * @param excluded         the floor not to pick
+	 * @return a {@link Floor} if the list has any floor other than the excluded
+	 *         one. Returns null otherwise.
+	 */
+	protected final Floor generateRandomFloor(List<Floor> accessibleFloors, Floor excluded) {
+		int excludedIndex = accessibleFloors.indexOf(excluded);
+		int choices = accessibleFloors.size() - ((excludedIndex >= 0) ? 1 : 0);
+		if (choices != 0) {
+			int rdmIndex = getRandom().nextInt(choices);
+			if (excludedIndex >= 0 && rdmIndex >= excludedIndex) {
+				rdmIndex++;
+			}
+			return accessibleFloors.get(rdmIndex);
+		} else {
+			return null;
+		}
+	}
+
 	/**
 	 * Sets a new {@link FloorRequest} to the provided floor. <br>
 	 * Makes the user join the queue if the request is to a different floor.
+	 * <p>
+	 * A request that is done is renewed rather than replaced.
+	 * </p>
 	 * 
 	 * @param targetFloor the desired floor
 	 */
 	protected final void setRequest(Floor targetFloor) {
 		try {
-			request = new FloorRequest(this, targetFloor);
+			if (request != null && request.isDone()) {
+				request.renew(targetFloor);
+			} else {
+				request = new FloorRequest(this, targetFloor);
+			}
 			if (!targetFloor.equals(currentFloor)) {
 				joinQueue();
 			} else {
@@ -109,18 +194,71 @@ public abstract class User {
 		}	
 	}
 	
+	/**
+	 * Sets whether the user is waiting for the next elevator, notifying the current
+	 * floor if the value changes.
+	 * 
+	 * @param value true if the user will not board the current elevator
+	 */
 	public void setWaitingForNext(boolean value) {
-		waitingForNext = value;
+		if (waitingForNext != value) {
+			waitingForNext = value;
+			currentFloor.waitingForNextChanged(this);
+		}
 	}
 
 	protected void joinQueue() {
 		currentFloor.joinQueue(this);
 	}
 
+	/**
+	 * Updates the location of the user. It is kept up to date by the {@link Floor},
+	 * the {@link Building} and the elevator that the user enters and leaves.
+	 * 
+	 * @param location the new location of the user
+	 */
+	public void setLocation(Location location) {
+		this.location = location;
+	}
+
+	/**
+	 * Updates the elevator the user is in. It is kept up to date by the
+	 * {@link Elevator} that the user enters and leaves, along with its location.
+	 * 
+	 * @param elevator the {@code Elevator} the user is in, or null
+	 */
+	public void setElevator(Elevator elevator) {
+		this.elevator = elevator;
+	}
+
 	public void assignTicketNumber(int ticketNumber) {
 		this.tktNumber = ticketNumber;
 	}
 
+	/**
+	 * Stores the tick at which the user joined the queue, for the waiting
+	 * statistics of the simulation.
+	 * 
+	 * @param tick the tick, or -1 if the user is not waiting
+	 */
+	public void setQueueJoinedTick(int tick) {
+		this.queueJoinedTick = tick;
+	}
+
+	/**
+	 * Called by the current floor as soon as the user has landed on it. Does
+	 * nothing by default.
+	 */
+	public void landed() {
+	}
+
+	/**
+	 * Called by the current floor as soon as the user has joined its queue. Does
+	 * nothing by default.
+	 */
+	public void queueJoined() {
+	}
+
 	/**
 	 * Notifies the current floor that this user's request has been accepted by the elevator.
 	 */
@@ -147,11 +285,101 @@ public abstract class User {
 		}
 	}
 
+	/**
+	 * Writes the state of the user to a checkpoint of the simulation.
+	 * 
+	 * @param out the {@link CheckpointWriter} of the checkpoint
+	 * @throws IOException if the checkpoint cannot be written.
+	 */
+	public void writeState(CheckpointWriter out) throws IOException {
+		out.writeUTF(id);
+		out.writeInt(serialNumber);
+		out.writeInt(streamKey);
+		out.writeFloor(currentFloor);
+		out.writeByte(location.ordinal());
+		out.writeInt(allAccessibleFloors.size());
+		for (Floor f : allAccessibleFloors) {
+			out.writeFloor(f);
+		}
+		out.writeBoolean(request != null);
+		if (request != null) {
+			out.writeFloor(request.getSourceFloor());
+			out.writeFloor(request.getTargetFloor());
+			out.writeBoolean(request.isDone());
+		}
+		out.writeInt(tktNumber);
+		out.writeInt(queueJoinedTick);
+		out.writeBoolean(waitingForNext);
+	}
+
+	/**
+	 * Reads the state of the user from a checkpoint of the simulation, in the
+	 * same order as {@link #writeState(CheckpointWriter)}.
+	 * 
+	 * @param in the {@link CheckpointReader} of the checkpoint
+	 * @throws IOException if the checkpoint cannot be read.
+	 */
+	public void readState(CheckpointReader in) throws IOException {
+		id = in.readUTF();
+		serialNumber = in.readInt();
+		setStreamKey(in.readInt());
+		currentFloor = in.readFloor();
+		location = Location.values()[in.readByte()];
+		int accessible = in.readInt();
+		allAccessibleFloors = new ArrayList<Floor>(accessible);
+		for (int i = 0; i < accessible; i++) {
+			allAccessibleFloors.add(in.readFloor());
+		}
+		request = null;
+		if (in.readBoolean()) {
+			Floor source = in.readFloor();
+			Floor target = in.readFloor();
+			request = new FloorRequest(this, source, target, in.readBoolean());
+		}
+		tktNumber = in.readInt();
+		queueJoinedTick = in.readInt();
+		waitingForNext = in.readBoolean();
+	}
+
+	/**
+	 * Copies the state of a user of another simulation, which this user
+	 * replaces in a branch of it.
+	 * 
+	 * @param original the {@code User} to copy, of the same type
+	 * @param fork     the {@link SimulationFork} of the branch
+	 */
+	public void copyState(User original, SimulationFork fork) {
+		id = original.id;
+		serialNumber = original.serialNumber;
+		setStreamKey(original.streamKey);
+		currentFloor = fork.floor(original.currentFloor);
+		location = original.location;
+		allAccessibleFloors = new ArrayList<Floor>(original.allAccessibleFloors.size());
+		for (Floor f : original.allAccessibleFloors) {
+			allAccessibleFloors.add(fork.floor(f));
+		}
+		request = null;
+		if (original.request != null) {
+			request = new FloorRequest(this, fork.floor(original.request.getSourceFloor()),
+					fork.floor(original.request.getTargetFloor()), original.request.isDone());
+		}
+		tktNumber = original.tktNumber;
+		queueJoinedTick = original.queueJoinedTick;
+		waitingForNext = original.waitingForNext;
+	}
+
 	public boolean isInQueue() {
-		return currentFloor.getInQueue().contains(this);
+		return location == Location.IN_QUEUE;
 	}
 	
-	public boolean isReadyToBoard() {
+	/**
+	 * Checks whether the user is ready to enter the given elevator, which has
+	 * stopped at its floor. Users are always ready by default.
+	 * 
+	 * @param elevator the {@link Elevator} the user is about to board
+	 * @return true if the user is ready to board, false otherwise.
+	 */
+	public boolean isReadyToBoard(Elevator elevator) {
 		return true;
 	}
 	
@@ -163,10 +391,30 @@ public abstract class User {
 		return id;
 	}
 
+	public int getSerialNumber() {
+		return serialNumber;
+	}
+
+	public int getStreamKey() {
+		return streamKey;
+	}
+
 	public int getRequiredSpace() {
 		return requiredSpace;
 	}
 
+	public Location getLocation() {
+		return location;
+	}
+
+	/**
+	 * @return the elevator the user is in, or null if the user is not in an
+	 *         elevator.
+	 */
+	public Elevator getElevator() {
+		return elevator;
+	}
+
 	public Floor getCurrentFloor() {
 		return currentFloor;
 	}
@@ -175,8 +423,33 @@ public abstract class User {
 		return request;
 	}
 
+	/**
+	 * @return the place of the user in the queue it is in, which is kept by the
+	 *         {@link FloorQueue}
+	 */
+	public FloorQueue.Link getQueueLink() {
+		return queueLink;
+	}
+
 	public Random getRandom() {
-		return random;
+		return getRandom(Purpose.FLOOR_CHOICE);
+	}
+
+	/**
+	 * Provides the random stream of the user for the given purpose, which is keyed
+	 * by its stream key.
+	 * 
+	 * @param purpose what the values are drawn for
+	 * @return a {@code Random}
+	 * @see Simulation#getRandom(Purpose, int)
+	 */
+	public Random getRandom(Purpose purpose) {
+		Random stream = streams[purpose.ordinal()];
+		if (stream == null) {
+			stream = simulation.getRandom(purpose, streamKey);
+			streams[purpose.ordinal()] = stream;
+		}
+		return stream;
 	}
 
 	public List<Floor> getAllAccessibleFloors() {
@@ -186,6 +459,10 @@ public abstract class User {
 	public int getTicketNumber() {
 		return tktNumber;
 	}
+
+	public int getQueueJoinedTick() {
+		return queueJoinedTick;
+	}
 	
 	public String toString() {
 		if (request != null) {
@@ -0,0 +1,19 @@
+package uk.ac.aston.jpd.simulation.model.entities.users;
+
+/**
+ * The kinds of users in a building. <br>
+ * Each type has a small integer code, starting from 0, so that data about
+ * users can be kept in arrays indexed by their type.
+ * 
+ * @author Parminder
+ */
+public enum UserType {
+	CLIENT, MAINTENANCE_CREW, NON_DEVELOPER, GOGGLE, MUGTOME;
+
+	/**
+	 * @return the code of the type, between 0 and the number of types - 1
+	 */
+	public int getCode() {
+		return ordinal();
+	}
+}
@@ -0,0 +1,59 @@
+package uk.ac.aston.jpd.simulation.model.trace;
+
+/**
+ * The kinds of events recorded in a trace of a simulation. <br>
+ * Each event is stored with a small integer code, so that a record has a fixed
+ * width.
+ * 
+ * @author Parminder
+ */
+public enum TraceEvent {
+	/**
+	 * a user entered the building; the argument is the space it requires
+	 */
+	ARRIVAL,
+	/**
+	 * a user joined the queue of a floor; the argument is its target level
+	 */
+	QUEUE_JOIN,
+	/**
+	 * an elevator started serving a user; the argument is its target level
+	 */
+	BOARD,
+	/**
+	 * a user got off an elevator
+	 */
+	ALIGHT,
+	/**
+	 * an elevator moved to a floor; the argument is the level it left
+	 */
+	ELEVATOR_MOVE,
+	DOORS_OPEN,
+	DOORS_CLOSE,
+	/**
+	 * a client filed a complaint
+	 */
+	COMPLAINT,
+	/**
+	 * a user left the building
+	 */
+	QUIT;
+
+	private static final TraceEvent[] VALUES = values();
+
+	public int getCode() {
+		return ordinal();
+	}
+
+	/**
+	 * @param code the code of an event
+	 * @return the event with the given code
+	 * @throws IllegalArgumentException if no event has the given code.
+	 */
+	public static TraceEvent fromCode(int code) {
+		if (code < 0 || code >= VALUES.length) {
+			throw new IllegalArgumentException("Invalid event code: " + code);
+		}
+		return VALUES[code];
+	}
+}
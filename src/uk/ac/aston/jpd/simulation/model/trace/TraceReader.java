@@ -0,0 +1,237 @@
+package uk.ac.aston.jpd.simulation.model.trace;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The class {@code TraceReader} reads the records of a trace written by a
+ * {@link TraceRecorder}, one after another. <br>
+ * It works as a cursor: {@link #next()} moves to the next record, whose fields
+ * are then read through the getters, so that no object is created per record.
+ * The file is mapped in segments, therefore the memory employed does not depend
+ * on the length of the trace.
+ * <p>
+ * As records have a fixed width, {@link #seek(long)} moves to any record in
+ * constant time.
+ * </p>
+ * 
+ * @author Parminder
+ */
+public class TraceReader implements Closeable {
+
+	private static final int SEGMENT_RECORDS = 1 << 20;
+
+	private final FileChannel channel;
+	private final int numFloors;
+	private final int elevatorCapacity;
+	private final int seed;
+	private final int numElevators;
+	private final long records;
+
+	private MappedByteBuffer segment;
+	private long segmentFirst;
+	private long position = -1;
+
+	private int tick;
+	private TraceEvent event;
+	private int userType;
+	private int level;
+	private int user;
+	private int elevator;
+	private int argument;
+
+	/**
+	 * Opens a trace file and reads its header.
+	 * 
+	 * @param file the path of the trace file
+	 * @throws IOException              if the file cannot be read.
+	 * @throws IllegalArgumentException if the file is not a trace, or it has been
+	 *                                  written in another format version.
+	 */
+	public TraceReader(Path file) throws IOException {
+		channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			if (channel.size() < TraceRecorder.HEADER_SIZE) {
+				throw new IllegalArgumentException("Not a trace file: " + file);
+			}
+			MappedByteBuffer header = channel.map(MapMode.READ_ONLY, 0, TraceRecorder.HEADER_SIZE);
+			if (header.getInt() != TraceRecorder.MAGIC) {
+				throw new IllegalArgumentException("Not a trace file: " + file);
+			}
+			short version = header.getShort();
+			if (version != TraceRecorder.VERSION || header.getShort() != TraceRecorder.RECORD_SIZE) {
+				throw new IllegalArgumentException("Unsupported trace version: " + version);
+			}
+			numFloors = header.getInt();
+			elevatorCapacity = header.getInt();
+			seed = header.getInt();
+			numElevators = header.getInt();
+			records = header.getLong(TraceRecorder.COUNT_OFFSET);
+		} catch (IOException | RuntimeException ex) {
+			channel.close();
+			throw ex;
+		}
+	}
+
+	/**
+	 * Moves to the next record.
+	 * 
+	 * @return true if there is a next record, false if the end of the trace has
+	 *         been reached.
+	 * @throws UncheckedIOException if the next segment of the file cannot be
+	 *                              mapped.
+	 */
+	public boolean next() {
+		if (position + 1 >= records) {
+			position = records;
+			return false;
+		}
+		position++;
+		if (segment == null || position < segmentFirst || position >= segmentFirst + SEGMENT_RECORDS) {
+			map(position);
+		}
+		int offset = (int) (position - segmentFirst) * TraceRecorder.RECORD_SIZE;
+		tick = segment.getInt(offset);
+		event = TraceEvent.fromCode(segment.get(offset + 4));
+		userType = segment.get(offset + 5);
+		level = segment.getShort(offset + 6);
+		user = segment.getInt(offset + 8);
+		elevator = segment.getShort(offset + 12);
+		argument = segment.getShort(offset + 14);
+		return true;
+	}
+
+	/**
+	 * Moves before the record with the given index, so that {@link #next()} reads
+	 * it.
+	 * 
+	 * @param index the index of a record, from 0
+	 * @throws IllegalArgumentException if the index is negative or beyond the end
+	 *                                  of the trace.
+	 */
+	public void seek(long index) {
+		if (index < 0 || index > records) {
+			throw new IllegalArgumentException("Invalid record index: " + index);
+		}
+		position = index - 1;
+	}
+
+	/**
+	 * Finds the first record at or after the given tick, by binary search, and
+	 * moves before it.
+	 * 
+	 * @param targetTick the tick to seek
+	 * @return the index of the record, or the number of records if the trace ends
+	 *         before the tick.
+	 */
+	public long seekTick(int targetTick) {
+		long low = 0, high = records;
+		while (low < high) {
+			long middle = (low + high) >>> 1;
+			seek(middle);
+			next();
+			if (tick < targetTick) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		seek(low);
+		return low;
+	}
+
+	/**
+	 * @return the index of the current record, -1 before the first one.
+	 */
+	public long getPosition() {
+		return position;
+	}
+
+	public long getRecordCount() {
+		return records;
+	}
+
+	public int getNumFloors() {
+		return numFloors;
+	}
+
+	public int getElevatorCapacity() {
+		return elevatorCapacity;
+	}
+
+	public int getSeed() {
+		return seed;
+	}
+
+	public int getNumElevators() {
+		return numElevators;
+	}
+
+	public int getTick() {
+		return tick;
+	}
+
+	public TraceEvent getEvent() {
+		return event;
+	}
+
+	/**
+	 * @return the code of the type of user, or -1 if the event does not refer to
+	 *         a user.
+	 */
+	public int getUserType() {
+		return userType;
+	}
+
+	public int getLevel() {
+		return level;
+	}
+
+	/**
+	 * @return the serial number of the user, or 0 if the event does not refer to a
+	 *         user.
+	 */
+	public int getUser() {
+		return user;
+	}
+
+	/**
+	 * @return the index of the elevator, or -1 if the event does not refer to an
+	 *         elevator.
+	 */
+	public int getElevator() {
+		return elevator;
+	}
+
+	public int getArgument() {
+		return argument;
+	}
+
+	@Override
+	public void close() throws IOException {
+		segment = null;
+		channel.close();
+	}
+
+	/**
+	 * Maps the segment of the file that contains the given record.
+	 * 
+	 * @param index the index of the record
+	 */
+	private void map(long index) {
+		segmentFirst = index - index % SEGMENT_RECORDS;
+		long count = Math.min(SEGMENT_RECORDS, records - segmentFirst);
+		try {
+			segment = channel.map(MapMode.READ_ONLY, TraceRecorder.HEADER_SIZE + segmentFirst * TraceRecorder.RECORD_SIZE,
+					count * TraceRecorder.RECORD_SIZE);
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+}
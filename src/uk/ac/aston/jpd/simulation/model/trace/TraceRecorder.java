@@ -0,0 +1,177 @@
+package uk.ac.aston.jpd.simulation.model.trace;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import uk.ac.aston.jpd.simulation.model.Simulation;
+import uk.ac.aston.jpd.simulation.model.entities.users.User;
+
+/**
+ * The class {@code TraceRecorder} writes every state-changing event of a
+ * {@link Simulation} to a binary file, for offline analysis. <br>
+ * The file is written through memory-mapped segments: when a segment is full,
+ * the next one is mapped, so a trace can be as long as the disk allows and
+ * recording an event only copies a few numbers.
+ * <p>
+ * The file starts with a header of {@value #HEADER_SIZE} bytes: a magic number,
+ * the format version, the record size, the number of floors, the elevator
+ * capacity, the seed, the number of elevators and the number of records. Then,
+ * each event is a record of {@value #RECORD_SIZE} bytes, in big-endian order:
+ * <br>
+ * - the tick (int) <br>
+ * - the code of the {@link TraceEvent} (byte) <br>
+ * - the code of the type of user, or -1 (byte) <br>
+ * - the floor level (short) <br>
+ * - the serial number of the user, or 0 (int) <br>
+ * - the index of the elevator, or -1 if the event does not refer to an elevator
+ * (short) <br>
+ * - an argument, which depends on the event (short).
+ * </p>
+ * A recorder is attached to a simulation through
+ * {@link Simulation.Builder#trace(TraceRecorder)}, and must be closed once the
+ * simulation is over.
+ * 
+ * @author Parminder
+ * @see TraceReader
+ */
+public class TraceRecorder implements Closeable {
+
+	static final int MAGIC = 0x454C5654; // "ELVT"
+	static final short VERSION = 1;
+	static final int HEADER_SIZE = 32;
+	static final int RECORD_SIZE = 16;
+	static final int COUNT_OFFSET = 24;
+
+	private static final int DEFAULT_SEGMENT_RECORDS = 1 << 20;
+
+	private final FileChannel channel;
+	private final long segmentSize;
+
+	private MappedByteBuffer segment;
+	private long segmentStart;
+	private long records = 0;
+	private boolean started = false;
+
+	/**
+	 * Creates a recorder that writes to the given file, replacing it if it exists.
+	 * 
+	 * @param file the path of the trace file
+	 * @throws IOException if the file cannot be opened.
+	 */
+	public TraceRecorder(Path file) throws IOException {
+		this(file, DEFAULT_SEGMENT_RECORDS);
+	}
+
+	/**
+	 * Creates a recorder that writes to the given file, replacing it if it exists,
+	 * and maps it in segments of the given number of records.
+	 * 
+	 * @param file           the path of the trace file
+	 * @param segmentRecords the number of records in each mapped segment
+	 * @throws IOException              if the file cannot be opened.
+	 * @throws IllegalArgumentException if the number of records is less than 1.
+	 */
+	public TraceRecorder(Path file, int segmentRecords) throws IOException {
+		if (segmentRecords < 1) {
+			throw new IllegalArgumentException("Invalid segment size: " + segmentRecords);
+		}
+		this.segmentSize = (long) segmentRecords * RECORD_SIZE;
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.READ, StandardOpenOption.WRITE);
+	}
+
+	/**
+	 * Writes the header of the trace for the given simulation. Called by the
+	 * simulation once it has been set up.
+	 * 
+	 * @param simulation the {@link Simulation} to record
+	 * @throws IllegalStateException if the recorder has already been started.
+	 */
+	public void start(Simulation simulation) {
+		if (started) {
+			throw new IllegalStateException("The trace has already been started");
+		}
+		started = true;
+		map(0, HEADER_SIZE);
+		segment.putInt(MAGIC);
+		segment.putShort(VERSION);
+		segment.putShort((short) RECORD_SIZE);
+		segment.putInt(simulation.getTotalFloors());
+		segment.putInt(simulation.getElevatorCapacity());
+		segment.putInt(simulation.getSeed());
+		segment.putInt(simulation.getTotalElevators());
+		segment.putLong(0);
+		map(HEADER_SIZE, segmentSize);
+	}
+
+	/**
+	 * Records an event.
+	 * 
+	 * @param tick     the tick of the event
+	 * @param event    the kind of event
+	 * @param u        the {@code User} the event refers to, or null
+	 * @param level    the level of the floor where the event happened
+	 * @param elevator the index of the elevator the event refers to, or -1
+	 * @param argument a value that depends on the event
+	 * @throws UncheckedIOException if the next segment of the file cannot be
+	 *                              mapped.
+	 */
+	public void record(int tick, TraceEvent event, User u, int level, int elevator, int argument) {
+		if (!segment.hasRemaining()) {
+			map(segmentStart + segmentSize, segmentSize);
+		}
+		segment.putInt(tick);
+		segment.put((byte) event.getCode());
+		segment.put((byte) ((u != null) ? u.getType().getCode() : -1));
+		segment.putShort((short) level);
+		segment.putInt((u != null) ? u.getSerialNumber() : 0);
+		segment.putShort((short) elevator);
+		segment.putShort((short) argument);
+		records++;
+	}
+
+	public long getRecordCount() {
+		return records;
+	}
+
+	/**
+	 * Stores the number of records in the header and cuts the file at the end of
+	 * the last record.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			if (started) {
+				segment.force();
+				segment = null;
+				MappedByteBuffer header = channel.map(MapMode.READ_WRITE, 0, HEADER_SIZE);
+				header.putLong(COUNT_OFFSET, records);
+				header.force();
+				channel.truncate(HEADER_SIZE + records * RECORD_SIZE);
+			}
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Maps a region of the file for writing, extending the file if needed.
+	 * 
+	 * @param position the position of the region in the file
+	 * @param size     the size of the region
+	 */
+	private void map(long position, long size) {
+		try {
+			segment = channel.map(MapMode.READ_WRITE, position, size);
+			segmentStart = position;
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+}
@@ -0,0 +1,291 @@
+package uk.ac.aston.jpd.simulation.model.trace;
+
+import java.util.HashMap;
+
+import uk.ac.aston.jpd.simulation.model.StatisticsSnapshot;
+import uk.ac.aston.jpd.simulation.model.WaitBreakdown;
+import uk.ac.aston.jpd.simulation.model.WaitingStatistics;
+import uk.ac.aston.jpd.simulation.model.entities.users.UserType;
+
+/**
+ * The class {@code TraceReplay} reconstructs the state of a building and its
+ * {@link WaitingStatistics} from a trace written by a {@link TraceRecorder},
+ * without simulating arrivals, the elevator or the users again. <br>
+ * It streams over the records of a {@link TraceReader}: the memory employed
+ * depends on the number of users waiting in queue at the same time, not on
+ * the length of the trace.
+ * <p>
+ * After {@link #advanceTo(int)}, the state is the same as the one of the
+ * simulation after running up to that tick: every event of the earlier ticks
+ * has been applied. Seeking backwards starts the replay over from the
+ * beginning of the trace.
+ * </p>
+ * 
+ * @author Parminder
+ */
+public class TraceReplay {
+
+	private static final UserType[] USER_TYPES = UserType.values();
+
+	private final TraceReader reader;
+
+	/**
+	 * the tick at which each user waiting in queue joined it, in the upper 32
+	 * bits, and the level of its floor, in the lower 32 bits, by serial number
+	 */
+	private final HashMap<Integer, Long> queued = new HashMap<>();
+
+	private WaitingStatistics statistics;
+	private int[] queueLengths;
+	private int[] usersByType;
+	private int tick;
+	private int currentUsers;
+	private int clients;
+	private int complaints;
+
+	/**
+	 * the level, number of passengers and doors of each elevator, by index
+	 */
+	private int[] elevatorLevels;
+	private int[] passengers;
+	private boolean[] doorsOpen;
+
+	/**
+	 * Creates a replay of the trace read by the given reader, at tick 0.
+	 * 
+	 * @param reader the {@link TraceReader} of the trace, which is moved to its
+	 *               first record
+	 */
+	public TraceReplay(TraceReader reader) {
+		this.reader = reader;
+		reset();
+	}
+
+	/**
+	 * Applies all the events before the given tick. If the tick comes before the
+	 * current one, the replay starts over.
+	 * 
+	 * @param targetTick the tick to reach
+	 */
+	public void seek(int targetTick) {
+		if (targetTick < tick) {
+			reset();
+		}
+		advanceTo(targetTick);
+	}
+
+	/**
+	 * Applies the events from the current tick up to, and excluding, the given
+	 * tick. Does nothing if the tick has already been reached.
+	 * 
+	 * @param targetTick the tick to reach
+	 */
+	public void advanceTo(int targetTick) {
+		while (reader.next()) {
+			if (reader.getTick() >= targetTick) {
+				reader.seek(reader.getPosition());
+				break;
+			}
+			apply();
+		}
+		tick = Math.max(tick, targetTick);
+	}
+
+	/**
+	 * Applies the next event of the trace, and moves to its tick.
+	 * 
+	 * @return true if an event has been applied, false if the end of the trace
+	 *         has been reached.
+	 */
+	public boolean step() {
+		if (!reader.next()) {
+			return false;
+		}
+		tick = Math.max(tick, reader.getTick());
+		apply();
+		return true;
+	}
+
+	/**
+	 * Applies the remaining events of the trace.
+	 */
+	public void runToEnd() {
+		while (step()) {
+		}
+	}
+
+	/**
+	 * Updates the state with the event of the current record of the reader.
+	 */
+	private void apply() {
+		int user = reader.getUser();
+		int level = reader.getLevel();
+		int elevator = reader.getElevator();
+		switch (reader.getEvent()) {
+		case ARRIVAL:
+			currentUsers++;
+			usersByType[reader.getUserType()]++;
+			if (reader.getUserType() == UserType.CLIENT.getCode()) {
+				clients++;
+			}
+			break;
+		case QUEUE_JOIN:
+			leaveQueue(user);
+			queued.put(user, ((long) reader.getTick() << 32) | level);
+			queueLengths[level]++;
+			break;
+		case BOARD:
+			Long joined = leaveQueue(user);
+			int eventTick = reader.getTick();
+			if (joined != null && eventTick > 0) {
+				int direction = (reader.getArgument() > level) ? WaitBreakdown.UP : WaitBreakdown.DOWN;
+				int joinedTick = (int) (joined >> 32);
+				statistics.recordWait(eventTick - joinedTick, USER_TYPES[reader.getUserType()], level, direction);
+			}
+			passengers[elevator]++;
+			break;
+		case ALIGHT:
+			passengers[elevator]--;
+			break;
+		case ELEVATOR_MOVE:
+			elevatorLevels[elevator] = level;
+			break;
+		case DOORS_OPEN:
+			doorsOpen[elevator] = true;
+			break;
+		case DOORS_CLOSE:
+			doorsOpen[elevator] = false;
+			break;
+		case COMPLAINT:
+			complaints++;
+			break;
+		case QUIT:
+			leaveQueue(user);
+			currentUsers--;
+			usersByType[reader.getUserType()]--;
+			break;
+		default:
+			break;
+		}
+	}
+
+	/**
+	 * Removes a user from the queue it is waiting in, if any.
+	 * 
+	 * @param user the serial number of the user
+	 * @return the tick at which the user joined the queue and its level, packed
+	 *         as in {@link #queued}, or null if the user was not waiting.
+	 */
+	private Long leaveQueue(int user) {
+		Long joined = queued.remove(user);
+		if (joined != null) {
+			queueLengths[(int) (long) joined]--;
+		}
+		return joined;
+	}
+
+	/**
+	 * Moves back to the beginning of the trace, with an empty building.
+	 */
+	private void reset() {
+		reader.seek(0);
+		queued.clear();
+		statistics = new WaitingStatistics(reader.getNumFloors());
+		queueLengths = new int[reader.getNumFloors()];
+		usersByType = new int[USER_TYPES.length];
+		tick = 0;
+		currentUsers = 0;
+		clients = 0;
+		complaints = 0;
+		elevatorLevels = new int[reader.getNumElevators()];
+		passengers = new int[reader.getNumElevators()];
+		doorsOpen = new boolean[reader.getNumElevators()];
+	}
+
+	/**
+	 * Provides an immutable copy of the statistics at the current tick.
+	 * 
+	 * @return a new {@link StatisticsSnapshot}
+	 */
+	public StatisticsSnapshot snapshot() {
+		return statistics.snapshot(tick, complaints, clients);
+	}
+
+	public int getTick() {
+		return tick;
+	}
+
+	public WaitingStatistics getWaitingStatistics() {
+		return statistics;
+	}
+
+	public int getCurrentUsers() {
+		return currentUsers;
+	}
+
+	public int getUsers(UserType type) {
+		return usersByType[type.getCode()];
+	}
+
+	public int getTotalClients() {
+		return clients;
+	}
+
+	public int getComplaints() {
+		return complaints;
+	}
+
+	public int getQueueLength(int level) {
+		return queueLengths[level];
+	}
+
+	/**
+	 * @return the level of the first elevator, which is the only elevator unless
+	 *         the building has several.
+	 */
+	public int getElevatorLevel() {
+		return getElevatorLevel(0);
+	}
+
+	/**
+	 * @param elevator the index of an elevator, from 0
+	 * @return the level of the elevator
+	 */
+	public int getElevatorLevel(int elevator) {
+		return elevatorLevels[elevator];
+	}
+
+	/**
+	 * @return the number of users in the first elevator
+	 */
+	public int getPassengers() {
+		return getPassengers(0);
+	}
+
+	/**
+	 * @param elevator the index of an elevator, from 0
+	 * @return the number of users in the elevator
+	 */
+	public int getPassengers(int elevator) {
+		return passengers[elevator];
+	}
+
+	/**
+	 * @return true if the doors of the first elevator are open, false otherwise.
+	 */
+	public boolean isDoorsOpen() {
+		return isDoorsOpen(0);
+	}
+
+	/**
+	 * @param elevator the index of an elevator, from 0
+	 * @return true if the doors of the elevator are open, false otherwise.
+	 */
+	public boolean isDoorsOpen(int elevator) {
+		return doorsOpen[elevator];
+	}
+
+	public int getNumElevators() {
+		return elevatorLevels.length;
+	}
+}
@@ -1,6 +1,15 @@
 package uk.ac.aston.jpd.simulation.visuals;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import uk.ac.aston.jpd.simulation.model.AdaptiveReplication;
+import uk.ac.aston.jpd.simulation.model.ParameterSweep;
+import uk.ac.aston.jpd.simulation.model.ReplicatedResult;
+import uk.ac.aston.jpd.simulation.model.ReplicationSummary;
 import uk.ac.aston.jpd.simulation.model.Simulation;
+import uk.ac.aston.jpd.simulation.model.SweepResult;
 
 /**
  * The class {@code CaseStudy} runs 8-hour simulations for different
@@ -8,6 +17,13 @@ import uk.ac.aston.jpd.simulation.model.Simulation;
  * <br> - seed: the {@code int} value to be provided to the constructor of {@link java.util.Random}.
  * <br> - p: the probability according to which users change floor 
  * <br> - q: the probability according to which new non-employees enter the building
+ * <p>
+ * The simulations are run in parallel by a {@link ParameterSweep}, but their
+ * data is always displayed in the same order.
+ * </p>
+ * It can also compare the values of p through common random numbers, or run
+ * as many seeds as each combination of p and q needs: see
+ * {@link #visualizePairedDifferences()} and {@link #visualizeAdaptive(double, int)}.
  * 
  * @author Parminder
  */
@@ -24,51 +40,175 @@ public class CaseStudy {
 	private static final int DEFAULT_RUN_TICKS = 2880; //8 hours
 	
 	/**
-	 * Creates combinations of values of seed, p and q and passes them to
-	 * {@code #printSimulationData(int, double, double)} to run simulations and
-	 * to provide analysis data for each of them.
+	 * number of seeds run for every combination by the adaptive case study, which
+	 * is the smallest budget it accepts
+	 */
+	public static final int MIN_ADAPTIVE_SEEDS = 5;
+	
+	private final ParameterSweep sweep;
+	
+	/**
+	 * Creates a {@code CaseStudy} that runs as many simulations at the same time
+	 * as there are available processors.
+	 */
+	public CaseStudy() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+	
+	/**
+	 * Creates a {@code CaseStudy} that runs up to the given number of simulations
+	 * at the same time.
+	 * 
+	 * @param parallelism the maximum number of simulations run at the same time
+	 */
+	public CaseStudy(int parallelism) {
+		this.sweep = new ParameterSweep(parallelism);
+	}
+	
+	/**
+	 * Creates combinations of values of seed, p and q, runs a simulation for each
+	 * of them and passes the results to {@code #printSimulationData(SweepResult)}
+	 * to provide analysis data.
 	 */
 	public void visualize() {
 		System.out.println("SEED \t P \t Q \t COMPLAINTS \t AVERAGE WAITING TIME \t CLIENTS \t M.CREWS");
 		System.out.println();
+		List<Simulation.Builder> combinations = new ArrayList<>();
 		for (int seed : DEFAULT_SEEDS) {
 			for (double p : DEFAULT_PROBS_P) {
 				for (double q : DEFAULT_PROBS_Q) {
-					printSimulationData(seed, p, q);					
+					combinations.add(new Simulation.Builder()
+							.seed(seed).probabilityP(p).probabilityQ(q));
+				}
+			}
+		}
+		sweep.run(combinations, DEFAULT_RUN_TICKS, this::printSimulationData);
+	}
+	
+	/**
+	 * Compares each value of p with the first one, for each value of q, through
+	 * common random numbers: all the simulations are run with {@code COUNTER}
+	 * random streams, so that, for a given seed, the same users arrive at the same
+	 * ticks whatever p, and each user draws from the same streams. The difference
+	 * between two combinations run with the same seed is therefore less noisy
+	 * than the difference between independent runs, and fewer seeds are needed
+	 * to tell the values of p apart. <br>
+	 * For each combination of p and q, it displays the mean number of complaints
+	 * and the mean average waiting time over the seeds, and their mean paired
+	 * differences with the first value of p, with 95% confidence intervals.
+	 */
+	public void visualizePairedDifferences() {
+		List<Simulation.Builder> combinations = new ArrayList<>();
+		for (int seed : DEFAULT_SEEDS) {
+			for (double p : DEFAULT_PROBS_P) {
+				for (double q : DEFAULT_PROBS_Q) {
+					combinations.add(new Simulation.Builder()
+							.seed(seed).probabilityP(p).probabilityQ(q)
+							.randomStreams(Simulation.RandomStreams.COUNTER));
+				}
+			}
+		}
+		List<SweepResult> results = sweep.run(combinations, DEFAULT_RUN_TICKS);
+		
+		System.out.printf("P \t Q \t COMPLAINTS \t DIFF. FROM P = %.3f \t AVERAGE WAITING TIME \t DIFF. FROM P = %.3f", DEFAULT_PROBS_P[0], DEFAULT_PROBS_P[0]);
+		System.out.println();
+		System.out.println();
+		for (int p = 0; p < DEFAULT_PROBS_P.length; p++) {
+			for (int q = 0; q < DEFAULT_PROBS_Q.length; q++) {
+				ReplicationSummary complaints = new ReplicationSummary(), complaintDifferences = new ReplicationSummary();
+				ReplicationSummary waits = new ReplicationSummary(), waitDifferences = new ReplicationSummary();
+				for (int seed = 0; seed < DEFAULT_SEEDS.length; seed++) {
+					SweepResult result = results.get(indexOf(seed, p, q));
+					SweepResult baseline = results.get(indexOf(seed, 0, q));
+					complaints.add(result.getComplaints());
+					complaintDifferences.add(result.getComplaints() - baseline.getComplaints());
+					waits.add(result.getAverageWaitingTime());
+					waitDifferences.add(result.getAverageWaitingTime() - baseline.getAverageWaitingTime());
 				}
+				System.out.printf("%.3f \t %.3f \t %.2f \t\t %s \t\t %.2f \t\t\t %s", DEFAULT_PROBS_P[p], DEFAULT_PROBS_Q[q],
+						complaints.getMean(), format(complaintDifferences), waits.getMean(), format(waitDifferences));
+				System.out.println();
 			}
 		}
 	}
 	
 	/**
-	 * Runs an elevator simulation according to the parameters provided (seed, p, q)
-	 * for the default number of ticks.
-	 * <p>
-	 * Then displays analysis data about the simulation on the console. <br>
+	 * Runs, for each combination of p and q, as many seeds as needed for the 95%
+	 * confidence interval of the number of complaints to be narrower than the
+	 * given width, starting from {@value #MIN_ADAPTIVE_SEEDS} seeds and up to the
+	 * given budget. <br>
+	 * For each combination, it displays the number of seeds that were run, the
+	 * mean number of complaints with its confidence interval and whether the
+	 * interval is narrow enough; then, the total number of simulations run.
+	 * 
+	 * @param targetWidth the full width of the confidence interval to reach
+	 * @param budget      the maximum number of seeds for each combination
+	 * @throws IllegalArgumentException if the width is not positive or the
+	 *                                  budget is less than
+	 *                                  {@value #MIN_ADAPTIVE_SEEDS}.
+	 * @see AdaptiveReplication
+	 */
+	public void visualizeAdaptive(double targetWidth, int budget) {
+		List<IntFunction<Simulation.Builder>> combinations = new ArrayList<>();
+		for (double p : DEFAULT_PROBS_P) {
+			for (double q : DEFAULT_PROBS_Q) {
+				combinations.add(seed -> new Simulation.Builder()
+						.seed(seed).probabilityP(p).probabilityQ(q));
+			}
+		}
+		AdaptiveReplication replication = new AdaptiveReplication(sweep, SweepResult::getComplaints, targetWidth,
+				MIN_ADAPTIVE_SEEDS, budget);
+		List<ReplicatedResult> results = replication.run(combinations, DEFAULT_RUN_TICKS);
+		
+		System.out.println("P \t Q \t SEEDS \t COMPLAINTS \t\t CONVERGED");
+		System.out.println();
+		int runs = 0;
+		for (ReplicatedResult result : results) {
+			System.out.printf("%.3f \t %.3f \t %d \t %.2f +/- %.2f \t %s", result.getProbabilityP(), result.getProbabilityQ(),
+					result.getReplications(), result.getSummary().getMean(), result.getSummary().getHalfWidth(),
+					result.isConverged() ? "yes" : "no");
+			System.out.println();
+			runs += result.getReplications();
+		}
+		System.out.println();
+		System.out.printf("%d simulations run, instead of %d with %d seeds for each combination", runs,
+				results.size() * budget, budget);
+		System.out.println();
+	}
+	
+	/**
+	 * @param seed the index of the seed
+	 * @param p    the index of the value of p
+	 * @param q    the index of the value of q
+	 * @return the index of the result of the combination, in the order the
+	 *         combinations are created
+	 */
+	private static int indexOf(int seed, int p, int q) {
+		return (seed * DEFAULT_PROBS_P.length + p) * DEFAULT_PROBS_Q.length + q;
+	}
+	
+	/**
+	 * @param differences the paired differences
+	 * @return the mean of the differences and the half-width of its confidence
+	 *         interval
+	 */
+	private static String format(ReplicationSummary differences) {
+		return String.format("%+.2f +/- %.2f", differences.getMean(), differences.getHalfWidth());
+	}
+	
+	/**
+	 * Displays analysis data about a simulation that has been run for the default
+	 * number of ticks on the console. <br>
 	 * Specifically, it prints the combination of seed, p and q employed, the number
 	 * of complaints, the average wait time, the total number of clients and
 	 * maintenance crews generated.
 	 * 
-	 * @param seed the {@code int} value to be provided to the constructor of
-	 *             {@link java.util.Random}.
-	 * @param p    the probability according to which users change floor.
-	 * @param q    the probability according to which new non-employees enter the
-	 *             building.
+	 * @param result the {@link SweepResult} of the simulation
 	 */
-	private void printSimulationData(int seed, double p, double q) {
-		Simulation sim = new Simulation.Builder()
-				.seed(seed).probabilityP(p).probabilityQ(q)
-				.build();
-		for (int i = 0; i < DEFAULT_RUN_TICKS; i++) {
-			sim.tick();
-		}
-		
-		double averageWaiting = sim.getWaitingStatistics().getAverageWaitingTime();
-		int complaints = sim.getComplaints();
-		System.out.printf("%d \t %.3f \t %.3f \t %d \t\t %.2f", seed, p, q, complaints, averageWaiting);
-		int clients = sim.getArrivalSimulator().getTotalClients();
-		int maintenanceCrews = sim.getArrivalSimulator().getTotalMaintenanceCrews();
-		System.out.printf("\t\t\t %d \t\t %d", clients, maintenanceCrews);
+	private void printSimulationData(SweepResult result) {
+		System.out.printf("%d \t %.3f \t %.3f \t %d \t\t %.2f", result.getSeed(), result.getProbabilityP(),
+				result.getProbabilityQ(), result.getComplaints(), result.getAverageWaitingTime());
+		System.out.printf("\t\t\t %d \t\t %d", result.getClients(), result.getMaintenanceCrews());
 		System.out.println();
 	}
 }
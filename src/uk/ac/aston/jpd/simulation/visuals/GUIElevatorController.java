@@ -174,12 +174,14 @@ public class GUIElevatorController {
 
 	/**
 	 * The {@link #tickOneHundredPressed()} event is triggered by the Elevator GUI. <br>
-	 * It makes the simulation tick for 100 times and updates the interface accordingly.
+	 * It runs the simulation for 100 ticks in one go, skipping the ticks in which
+	 * nothing happens, and then updates the interface.
 	 */
 	@FXML
 	private void tickOneHundredPressed() {
-		for (int i = 0; i < 100; i++) {
-			tickOnePressed();
+		if (checkTick()) {
+			simulation.runUntil(Math.min(simulation.getTick() + 100, tick));
+			tick();
 		}
 	}
 
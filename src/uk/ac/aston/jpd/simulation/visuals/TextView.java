@@ -1,7 +1,7 @@
 package uk.ac.aston.jpd.simulation.visuals;
 
 import uk.ac.aston.jpd.simulation.model.Simulation;
-import uk.ac.aston.jpd.simulation.model.WaitingStatistics;
+import uk.ac.aston.jpd.simulation.model.StatisticsSnapshot;
 import uk.ac.aston.jpd.simulation.model.entities.Elevator;
 import uk.ac.aston.jpd.simulation.model.entities.Floor;
 
@@ -13,23 +13,28 @@ import uk.ac.aston.jpd.simulation.model.entities.Floor;
  */
 public class TextView {
 	/**
-	 * For the provided simulation, displays the status of the elevator and the
-	 * floors at the current tick, along with the average waiting time and the
-	 * number of complaints.
+	 * For the provided simulation, displays the status of the elevators and the
+	 * floors at the current tick, along with the average and 95th percentile
+	 * waiting time and the number of complaints.
 	 * 
 	 * @param simulation the {@link Simulation} to display on the console.
 	 */
 	public void visualize(Simulation simulation) {
 		
-		Elevator elevator = simulation.getBuilding().getElevator();
+		Elevator[] elevators = simulation.getBuilding().getElevators();
 		Floor[] floors = simulation.getBuilding().getFloors();
-		WaitingStatistics statistics = simulation.getWaitingStatistics();
+		StatisticsSnapshot statistics = simulation.getWaitingStatistics().snapshot();
 		
-		System.out.println("**************** TICK " + simulation.getTick() + " *******************");	
+		System.out.println("**************** TICK " + statistics.getTick() + " *******************");	
 		System.out.printf("Average waiting time: %.2f ticks", statistics.getAverageWaitingTime());
-		System.out.println(" | Complaints: " + simulation.getComplaints() + "\n");
+		if (statistics.getWaits() > 0) {
+			System.out.print(" | 95th percentile: " + statistics.getWaitingTime95thPercentile() + " ticks");
+		}
+		System.out.println(" | Complaints: " + statistics.getComplaints() + "\n");
 		
-		System.out.println(elevator.getStatus());
+		for (Elevator elevator : elevators) {
+			System.out.println(elevator.getStatus());
+		}
 		System.out.println();
 				
 		for (int i = floors.length - 1; i >=0; i--) {